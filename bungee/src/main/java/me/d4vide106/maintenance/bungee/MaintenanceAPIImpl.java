@@ -9,7 +9,9 @@
 import org.jetbrains.annotations.Nullable;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -50,6 +52,11 @@ public boolean isMaintenanceEnabled() {
         return maintenanceManager.getReason();
     }
     
+    @Override
+    public @NotNull Set<String> getMaintenanceServers() {
+        return maintenanceManager.getServers();
+    }
+    
     @Override
     public @NotNull CompletableFuture<Boolean> enableMaintenance(
         @NotNull MaintenanceMode mode,
@@ -60,9 +67,19 @@ public boolean isMaintenanceEnabled() {
             .exceptionally(e -> false);
     }
     
+    @Override
+    public @NotNull CompletableFuture<Boolean> enableServerMaintenance(
+        @NotNull Collection<String> servers,
+        @Nullable String reason
+    ) {
+        return maintenanceManager.enable(MaintenanceMode.SERVER_SPECIFIC, reason, servers)
+            .thenApply(v -> true)
+            .exceptionally(e -> false);
+    }
+    
     @Override
     public @NotNull CompletableFuture<Boolean> disableMaintenance() {
-        return maintenanceManager.disable()
+        return maintenanceManager.disable(timerManager, config.snapshot())
             .thenApply(v -> true)
             .exceptionally(e -> false);
     }
@@ -74,9 +91,19 @@ public boolean isWhitelisted(@NotNull UUID uuid) {
     
     @Override
     public @NotNull List<WhitelistedPlayer> getWhitelistedPlayers() {
+        return whitelistManager.getLoadedPlayers();
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<List<WhitelistedPlayer>> getWhitelistedPlayersAsync() {
         return whitelistManager.getWhitelistedPlayers();
     }
     
+    @Override
+    public int getWhitelistSize() {
+        return whitelistManager.size();
+    }
+    
     @Override
     public @NotNull CompletableFuture<Boolean> addToWhitelist(
         @NotNull UUID uuid,
@@ -4,12 +4,20 @@
 import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.database.DatabaseFactory;
 import me.d4vide106.maintenance.database.DatabaseProvider;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
+import me.d4vide106.maintenance.manager.ConnectionThrottle;
+import me.d4vide106.maintenance.manager.JoinQueue;
 import me.d4vide106.maintenance.manager.MaintenanceManager;
 import me.d4vide106.maintenance.manager.TimerManager;
 import me.d4vide106.maintenance.manager.WhitelistManager;
 import me.d4vide106.maintenance.bungee.command.MaintenanceCommand;
 import me.d4vide106.maintenance.bungee.listener.ConnectionListener;
 import me.d4vide106.maintenance.bungee.listener.ProxyPingListener;
+import me.d4vide106.maintenance.bungee.util.ComponentSerializer;
+import me.d4vide106.maintenance.bungee.util.LoggerAdapter;
+import me.d4vide106.maintenance.util.ServerIconCache;
+import net.md_5.bungee.api.Favicon;
+import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.plugin.Plugin;
 
 import java.nio.file.Path;
@@ -21,7 +29,10 @@ public class MaintenanceBungee extends Plugin {
     private MaintenanceManager maintenanceManager;
     private WhitelistManager whitelistManager;
     private TimerManager timerManager;
+    private ConnectionThrottle throttle;
+    private JoinQueue<TextComponent> joinQueue;
     private MaintenanceAPIImpl apiImpl;
+    private ServerIconCache<Favicon> serverIcon;
     
     @Override
     public void onEnable() {
@@ -36,15 +47,17 @@ public void onEnable() {
             getLogger().info("Configuration loaded successfully");
             
             // Initialize database
-            database = DatabaseFactory.create(config, dataPath);
+            database = DatabaseFactory.create(config, dataPath, new LoggerAdapter(getLogger()));
             database.initialize().join();
             getLogger().info("Database initialized: " + config.getDatabaseType());
             
             // Initialize managers
-            maintenanceManager = new MaintenanceManager();
-            whitelistManager = new WhitelistManager();
+            maintenanceManager = new MaintenanceManager(database);
+            whitelistManager = new WhitelistManager(database);
             timerManager = new TimerManager();
+            maintenanceManager.bindRamp(timerManager);
             
+            maintenanceManager.initialize().join();
             whitelistManager.initialize().join();
             getLogger().info("Managers initialized");
             
@@ -69,7 +82,7 @@ public void onEnable() {
             getLogger().info("════════════════════════════════════════════════════════════");
             getLogger().info("  ✅ MaintenanceUniversal v1.0.0 enabled!");
             getLogger().info("════════════════════════════════════════════════════════════");
-            
+        
         } catch (Exception e) {
             getLogger().severe("Failed to enable plugin: " + e.getMessage());
             e.printStackTrace();
@@ -84,6 +97,22 @@ public void onDisable() {
             timerManager.shutdown();
         }
         
+        if (whitelistManager != null) {
+            whitelistManager.shutdown();
+        }
+        
+        if (throttle != null) {
+            throttle.shutdown();
+        }
+        
+        if (joinQueue != null) {
+            joinQueue.shutdown();
+        }
+        
+        if (serverIcon != null) {
+            serverIcon.close();
+        }
+        
         if (database != null) {
             database.shutdown().join();
         }
@@ -92,8 +121,31 @@ public void onDisable() {
     }
     
     private void registerListeners() {
-        getProxy().getPluginManager().registerListener(this, new ConnectionListener(this, apiImpl, config, whitelistManager, database));
-        getProxy().getPluginManager().registerListener(this, new ProxyPingListener(apiImpl, config));
+        AdmissionEngine<TextComponent> admission = new AdmissionEngine<>(
+            config,
+            maintenanceManager,
+            whitelistManager,
+            timerManager,
+            text -> new TextComponent(ComponentSerializer.toLegacy(text))
+        );
+        throttle = new ConnectionThrottle(config, maintenanceManager, database);
+        joinQueue = new JoinQueue<>(
+            config,
+            maintenanceManager,
+            whitelistManager,
+            text -> new TextComponent(ComponentSerializer.toLegacy(text))
+        );
+        ConnectionListener connectionListener = new ConnectionListener(this, admission, throttle, joinQueue, database);
+        getProxy().getPluginManager().registerListener(this, connectionListener);
+        
+        serverIcon = new ServerIconCache<>(getDataFolder().toPath(), Favicon::create, getLogger()::warning);
+        serverIcon.update(config.snapshot());
+        config.addReloadListener(() -> serverIcon.update(config.snapshot()));
+        
+        ProxyPingListener pingListener = new ProxyPingListener(apiImpl, config, serverIcon);
+        maintenanceManager.addListener(pingListener::invalidate);
+        config.addReloadListener(pingListener::invalidate);
+        getProxy().getPluginManager().registerListener(this, pingListener);
     }
     
     private void registerCommands() {
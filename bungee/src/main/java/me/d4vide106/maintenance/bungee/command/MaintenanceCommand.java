@@ -2,7 +2,6 @@
 
 import me.d4vide106.maintenance.api.MaintenanceAPI;
 import me.d4vide106.maintenance.api.MaintenanceMode;
-import me.d4vide106.maintenance.api.WhitelistedPlayer;
 import me.d4vide106.maintenance.bungee.MaintenanceBungee;
 import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.CommandSender;
@@ -15,7 +14,10 @@
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main command handler for /maintenance on BungeeCord.
@@ -63,6 +65,10 @@ public void execute(CommandSender sender, String[] args) {
                 handleStatus(sender);
                 break;
             
+            case "server":
+                handleServer(sender, args);
+                break;
+            
             case "whitelist":
                 handleWhitelist(sender, args);
                 break;
@@ -128,6 +134,11 @@ private void handleStatus(CommandSender sender) {
             (enabled ? ChatColor.GREEN + "Yes" : ChatColor.RED + "No")));
         sender.sendMessage(new TextComponent(ChatColor.GRAY + "Mode: " + ChatColor.YELLOW + mode.name()));
         
+        if (enabled && mode == MaintenanceMode.SERVER_SPECIFIC) {
+            sender.sendMessage(new TextComponent(ChatColor.GRAY + "Servers: " + 
+                ChatColor.WHITE + String.join(", ", api.getMaintenanceServers())));
+        }
+        
         if (reason != null) {
             sender.sendMessage(new TextComponent(ChatColor.GRAY + "Reason: " + ChatColor.WHITE + reason));
         }
@@ -141,6 +152,51 @@ private void handleStatus(CommandSender sender) {
         }
     }
     
+    private void handleServer(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(new TextComponent(ChatColor.RED + "Usage: /maintenance server <server> [reason]"));
+            return;
+        }
+        if (api.isMaintenanceEnabled() && api.getMaintenanceMode() != MaintenanceMode.SERVER_SPECIFIC) {
+            sender.sendMessage(new TextComponent(ChatColor.RED + "✗ The whole network is already in maintenance"));
+            return;
+        }
+        
+        String server = args[1];
+        String reason = args.length > 2 ? String.join(" ", Arrays.copyOfRange(args, 2, args.length)) : api.getMaintenanceReason();
+        Set<String> servers = new HashSet<>(api.getMaintenanceServers());
+        
+        // Toggles the server: the last one removed ends server-specific maintenance
+        if (servers.remove(server)) {
+            CompletableFuture<Boolean> result = servers.isEmpty()
+                ? api.disableMaintenance()
+                : api.enableServerMaintenance(servers, reason);
+            result.thenAccept(success -> {
+                if (success) {
+                    sender.sendMessage(new TextComponent(ChatColor.GREEN + "✓ Maintenance disabled on " + 
+                        ChatColor.WHITE + server));
+                } else {
+                    sender.sendMessage(new TextComponent(ChatColor.RED + "✗ Failed to disable maintenance on " + server));
+                }
+            });
+            return;
+        }
+        
+        if (plugin.getProxy().getServerInfo(server) == null) {
+            sender.sendMessage(new TextComponent(ChatColor.RED + "✗ Server not found: " + server));
+            return;
+        }
+        servers.add(server);
+        api.enableServerMaintenance(servers, reason).thenAccept(success -> {
+            if (success) {
+                sender.sendMessage(new TextComponent(ChatColor.GREEN + "✓ Maintenance enabled on " + 
+                    ChatColor.WHITE + server));
+            } else {
+                sender.sendMessage(new TextComponent(ChatColor.RED + "✗ Failed to enable maintenance on " + server));
+            }
+        });
+    }
+    
     private void handleWhitelist(CommandSender sender, String[] args) {
         if (args.length < 2) {
             sender.sendMessage(new TextComponent(ChatColor.RED + "Usage: /maintenance whitelist <add|remove|list|clear>"));
@@ -191,10 +247,11 @@ private void handleWhitelist(CommandSender sender, String[] args) {
                 break;
             
             case "list":
-                List<WhitelistedPlayer> players = api.getWhitelistedPlayers();
-                sender.sendMessage(new TextComponent(ChatColor.GOLD + "═══ Whitelisted Players (" + players.size() + ") ═══"));
-                players.forEach(p -> {
-                    sender.sendMessage(new TextComponent(ChatColor.GRAY + "• " + ChatColor.WHITE + p.getName()));
+                api.getWhitelistedPlayersAsync().thenAccept(players -> {
+                    sender.sendMessage(new TextComponent(ChatColor.GOLD + "═══ Whitelisted Players (" + players.size() + ") ═══"));
+                    players.forEach(p -> {
+                        sender.sendMessage(new TextComponent(ChatColor.GRAY + "• " + ChatColor.WHITE + p.getName()));
+                    });
                 });
                 break;
             
@@ -235,6 +292,7 @@ private void sendHelp(CommandSender sender) {
         sender.sendMessage(new TextComponent(ChatColor.GRAY + "/maintenance disable"));
         sender.sendMessage(new TextComponent(ChatColor.GRAY + "/maintenance toggle"));
         sender.sendMessage(new TextComponent(ChatColor.GRAY + "/maintenance status"));
+        sender.sendMessage(new TextComponent(ChatColor.GRAY + "/maintenance server <server> [reason]"));
         sender.sendMessage(new TextComponent(ChatColor.GRAY + "/maintenance whitelist <add|remove|list|clear>"));
         sender.sendMessage(new TextComponent(ChatColor.GRAY + "/maintenance stats"));
         sender.sendMessage(new TextComponent(ChatColor.GRAY + "/maintenance reload"));
@@ -252,7 +310,9 @@ public Iterable<String> onTabComplete(CommandSender sender, String[] args) {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("enable", "disable", "toggle", "status", "whitelist", "stats", "reload"));
+            completions.addAll(Arrays.asList("enable", "disable", "toggle", "status", "server", "whitelist", "stats", "reload"));
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("server")) {
+            plugin.getProxy().getServers().keySet().forEach(completions::add);
         } else if (args.length == 2 && args[0].equalsIgnoreCase("whitelist")) {
             completions.addAll(Arrays.asList("add", "remove", "list", "clear"));
         }
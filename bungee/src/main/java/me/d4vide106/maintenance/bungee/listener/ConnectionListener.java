@@ -1,15 +1,16 @@
 package me.d4vide106.maintenance.bungee.listener;
 
-import me.d4vide106.maintenance.api.MaintenanceAPI;
 import me.d4vide106.maintenance.bungee.MaintenanceBungee;
-import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.database.DatabaseProvider;
-import me.d4vide106.maintenance.manager.WhitelistManager;
-import me.d4vide106.maintenance.bungee.util.ComponentSerializer;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
+import me.d4vide106.maintenance.manager.ConnectionThrottle;
+import me.d4vide106.maintenance.manager.JoinQueue;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.event.LoginEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.event.PreLoginEvent;
 import net.md_5.bungee.api.event.ServerConnectEvent;
 import net.md_5.bungee.api.plugin.Listener;
 import net.md_5.bungee.event.EventHandler;
@@ -22,71 +23,95 @@
 public class ConnectionListener implements Listener {
     
     private final MaintenanceBungee plugin;
-    private final MaintenanceAPI api;
-    private final MaintenanceConfig config;
-    private final WhitelistManager whitelistManager;
+    private final AdmissionEngine<TextComponent> admission;
+    private final ConnectionThrottle throttle;
+    private final JoinQueue<TextComponent> queue;
     private final DatabaseProvider database;
     
     public ConnectionListener(
         @NotNull MaintenanceBungee plugin,
-        @NotNull MaintenanceAPI api,
-        @NotNull MaintenanceConfig config,
-        @NotNull WhitelistManager whitelistManager,
+        @NotNull AdmissionEngine<TextComponent> admission,
+        @NotNull ConnectionThrottle throttle,
+        @NotNull JoinQueue<TextComponent> queue,
         @NotNull DatabaseProvider database
     ) {
         this.plugin = plugin;
-        this.api = api;
-        this.config = config;
-        this.whitelistManager = whitelistManager;
+        this.admission = admission;
+        this.throttle = throttle;
+        this.queue = queue;
         this.database = database;
     }
     
-    @EventHandler(priority = EventPriority.HIGHEST)
-    public void onLogin(@NotNull LoginEvent event) {
-        if (!api.isMaintenanceEnabled()) {
+    /**
+     * Drops repeat offenders before authentication. Players whose name may
+     * be whitelisted are never dropped, even when they share an address
+     * with repeat offenders.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPreLogin(@NotNull PreLoginEvent event) {
+        if (admission.checkName(event.getConnection().getName()) == AdmissionEngine.Verdict.ALLOW) {
             return;
         }
-        
+        if (throttle.throttle(event.getConnection().getSocketAddress())) {
+            event.setCancelled(true);
+            event.setCancelReason(admission.kickMessage());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onLogin(@NotNull LoginEvent event) {
         // Check if player has bypass permission (will check after login)
         // BungeeCord doesn't have permission check during login
         
-        // Check whitelist
-        if (whitelistManager.isWhitelisted(event.getConnection().getUniqueId())) {
+        if (admission.check(event.getConnection().getUniqueId()) == AdmissionEngine.Verdict.ALLOW) {
             return;
         }
         
         // Block login
-        String kickMessage = ComponentSerializer.toLegacy(config.getKickMessage());
         event.setCancelled(true);
-        event.setCancelReason(new TextComponent(kickMessage));
+        event.setCancelReason(admission.kickMessage());
         
         // Increment blocked connections
         database.incrementConnectionsBlocked();
+        throttle.recordRejection(event.getConnection().getSocketAddress());
     }
     
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onServerConnect(@NotNull ServerConnectEvent event) {
-        if (!api.isMaintenanceEnabled()) {
+    /**
+     * Paces joins right after maintenance ended. Runs after login, the
+     * first point permissions are known, but before any server is joined.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPostLogin(@NotNull PostLoginEvent event) {
+        if (!queue.isPacing()) {
             return;
         }
         
+        ProxiedPlayer player = event.getPlayer();
+        boolean priority = player.hasPermission(JoinQueue.PRIORITY_PERMISSION)
+            || player.hasPermission(AdmissionEngine.BYPASS_PERMISSION);
+        int position = queue.enqueue(player.getUniqueId(), priority);
+        if (position > 0) {
+            player.disconnect(queue.waitingMessage(position));
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.NORMAL)
+    public void onServerConnect(@NotNull ServerConnectEvent event) {
         ProxiedPlayer player = event.getPlayer();
         
-        // Allow bypass permission
-        if (player.hasPermission("maintenance.bypass")) {
+        AdmissionEngine.Verdict verdict = admission.checkServer(player.getUniqueId(), event.getTarget().getName());
+        if (verdict == AdmissionEngine.Verdict.ALLOW) {
             return;
         }
         
-        // Allow whitelisted players
-        if (whitelistManager.isWhitelisted(player.getUniqueId())) {
+        // Allow bypass permission
+        if (player.hasPermission(AdmissionEngine.BYPASS_PERMISSION)) {
             return;
         }
         
-        // Check if there's a fallback server configured
-        String fallbackName = config.getFallbackServer();
-        if (fallbackName != null && !fallbackName.isEmpty()) {
-            ServerInfo fallback = plugin.getProxy().getServerInfo(fallbackName);
-            if (fallback != null && config.shouldKickToFallback()) {
+        if (verdict == AdmissionEngine.Verdict.FALLBACK) {
+            ServerInfo fallback = plugin.getProxy().getServerInfo(admission.getFallbackServer());
+            if (fallback != null) {
                 // Redirect to maintenance lobby
                 event.setTarget(fallback);
                 return;
@@ -94,7 +119,6 @@ public void onServerConnect(@NotNull ServerConnectEvent event) {
         }
         
         // No fallback or not configured - disconnect
-        String kickMessage = ComponentSerializer.toLegacy(config.getKickMessage());
-        player.disconnect(new TextComponent(kickMessage));
+        player.disconnect(admission.kickMessage());
     }
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package me.d4vide106.maintenance.bungee.listener;
 
 import me.d4vide106.maintenance.api.MaintenanceAPI;
+import me.d4vide106.maintenance.config.ConfigSnapshot;
 import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.bungee.util.ComponentSerializer;
+import me.d4vide106.maintenance.util.PingResponseCache;
+import me.d4vide106.maintenance.util.ServerIconCache;
+import me.d4vide106.maintenance.util.TimeUtil;
+import net.md_5.bungee.api.Favicon;
 import net.md_5.bungee.api.ServerPing;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.event.ProxyPingEvent;
@@ -10,18 +15,32 @@
 import net.md_5.bungee.event.EventHandler;
 import net.md_5.bungee.event.EventPriority;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
 
 /**
  * Listener for server list ping events during maintenance.
+ * <p>
+ * The maintenance description and version name are built once per protocol
+ * version and countdown second, then reused for every following ping.
+ * </p>
  */
 public class ProxyPingListener implements Listener {
     
     private final MaintenanceAPI api;
     private final MaintenanceConfig config;
+    private final ServerIconCache<Favicon> serverIcon;
+    private final PingResponseCache<PingResponse> responses = new PingResponseCache<>(this::buildResponse);
     
-    public ProxyPingListener(@NotNull MaintenanceAPI api, @NotNull MaintenanceConfig config) {
+    public ProxyPingListener(
+        @NotNull MaintenanceAPI api,
+        @NotNull MaintenanceConfig config,
+        @NotNull ServerIconCache<Favicon> serverIcon
+    ) {
         this.api = api;
         this.config = config;
+        this.serverIcon = serverIcon;
     }
     
     @EventHandler(priority = EventPriority.HIGHEST)
@@ -30,31 +49,81 @@ public void onProxyPing(@NotNull ProxyPingEvent event) {
             return;
         }
         
-        if (!config.isCustomMOTDEnabled()) {
+        ConfigSnapshot settings = config.snapshot();
+        if (!settings.isCustomMOTDEnabled()) {
             return;
         }
         
         ServerPing ping = event.getResponse();
         ServerPing.Protocol version = ping.getVersion();
+        PingResponse response = responses.get(
+            settings,
+            version.getProtocol(),
+            PingResponseCache.countdownSecond(settings, api)
+        );
         
         // Custom MOTD
-        String line1 = config.getMaintenanceMOTDLine1();
-        String line2 = config.getMaintenanceMOTDLine2();
-        String motd = ComponentSerializer.toLegacy(line1) + "\n" + ComponentSerializer.toLegacy(line2);
-        ping.setDescriptionComponent(new TextComponent(motd));
+        ping.setDescriptionComponent(response.description);
         
         // Custom version
-        if (config.isCustomVersionEnabled()) {
-            version.setName(config.getMaintenanceVersionText());
+        if (response.versionName != null) {
+            version.setName(response.versionName);
         }
         
         // Custom max players
-        if (config.isCustomMaxPlayersEnabled()) {
+        if (settings.isCustomMaxPlayersEnabled()) {
             ServerPing.Players players = ping.getPlayers();
-            players.setMax(config.getMaintenanceMaxPlayers());
+            players.setMax(settings.getMaintenanceMaxPlayers());
             players.setOnline(0);
         }
         
+        // Custom server icon
+        if (settings.isCustomIconEnabled()) {
+            Favicon favicon = serverIcon.get();
+            if (favicon != null) {
+                ping.setFavicon(favicon);
+            }
+        }
+        
         event.setResponse(ping);
     }
+    
+    /**
+     * Drops cached responses. Called when maintenance is toggled and after config reloads.
+     */
+    public void invalidate() {
+        responses.invalidate();
+    }
+    
+    @NotNull
+    private PingResponse buildResponse(@NotNull ConfigSnapshot settings, int protocol, long countdownSecond) {
+        String line1 = applyPlaceholders(settings.getMaintenanceMOTDLine1(), countdownSecond);
+        String line2 = applyPlaceholders(settings.getMaintenanceMOTDLine2(), countdownSecond);
+        String motd = ComponentSerializer.toLegacy(line1) + "\n" + ComponentSerializer.toLegacy(line2);
+        
+        String versionName = settings.isCustomVersionEnabled()
+            ? applyPlaceholders(settings.getMaintenanceVersionText(), countdownSecond)
+            : null;
+        
+        return new PingResponse(new TextComponent(motd), versionName);
+    }
+    
+    @NotNull
+    private String applyPlaceholders(@NotNull String text, long countdownSecond) {
+        String reason = api.getMaintenanceReason();
+        String duration = countdownSecond >= 0 ? TimeUtil.format(Duration.ofSeconds(countdownSecond)) : "Unknown";
+        return text
+            .replace("{reason}", reason != null ? reason : "Maintenance")
+            .replace("{duration}", duration);
+    }
+    
+    private static final class PingResponse {
+        private final TextComponent description;
+        private final String versionName;
+        
+        private PingResponse(@NotNull TextComponent description, @Nullable String versionName) {
+            this.description = description;
+            this.versionName = versionName;
+        }
+    }
 }
\ No newline at end of file
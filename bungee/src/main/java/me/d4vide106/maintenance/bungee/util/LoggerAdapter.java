@@ -0,0 +1,44 @@
+package me.d4vide106.maintenance.bungee.util;
+
+import me.d4vide106.maintenance.util.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.logging.Level;
+
+/**
+ * Adapts the plugin's logger to the cross-platform {@link Logger} used by
+ * the common module.
+ */
+public class LoggerAdapter implements Logger {
+    
+    private final java.util.logging.Logger logger;
+    
+    public LoggerAdapter(@NotNull java.util.logging.Logger logger) {
+        this.logger = logger;
+    }
+    
+    @Override
+    public void info(@NotNull String message) {
+        logger.info(message);
+    }
+    
+    @Override
+    public void warn(@NotNull String message) {
+        logger.warning(message);
+    }
+    
+    @Override
+    public void error(@NotNull String message) {
+        logger.severe(message);
+    }
+    
+    @Override
+    public void error(@NotNull String message, @NotNull Throwable throwable) {
+        logger.log(Level.SEVERE, message, throwable);
+    }
+    
+    @Override
+    public void debug(@NotNull String message) {
+        logger.fine(message);
+    }
+}
\ No newline at end of file
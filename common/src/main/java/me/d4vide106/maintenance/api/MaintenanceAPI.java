@@ -4,7 +4,9 @@
 import org.jetbrains.annotations.Nullable;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -43,6 +45,11 @@ static MaintenanceAPI getInstance() {
      */
     @Nullable String getMaintenanceReason();
     
+    /**
+     * Gets the servers under maintenance in {@link MaintenanceMode#SERVER_SPECIFIC} mode.
+     */
+    @NotNull Set<String> getMaintenanceServers();
+    
     // ============================================
     // MAINTENANCE CONTROL
     // ============================================
@@ -52,6 +59,16 @@ static MaintenanceAPI getInstance() {
      */
     @NotNull CompletableFuture<Boolean> enableMaintenance(@NotNull MaintenanceMode mode, @Nullable String reason);
     
+    /**
+     * Enables maintenance of the given servers only, replacing the servers
+     * previously under maintenance.
+     * <p>
+     * Players can still join the network; only connections to these
+     * servers are refused or sent to the fallback server.
+     * </p>
+     */
+    @NotNull CompletableFuture<Boolean> enableServerMaintenance(@NotNull Collection<String> servers, @Nullable String reason);
+    
     /**
      * Disables maintenance mode.
      */
@@ -68,9 +85,25 @@ static MaintenanceAPI getInstance() {
     
     /**
      * Gets all whitelisted players.
+     * <p>
+     * Served from memory; players just added on another server show up
+     * once their details were fetched.
+     * </p>
      */
     @NotNull List<WhitelistedPlayer> getWhitelistedPlayers();
     
+    /**
+     * Gets all whitelisted players, completing once their details are loaded.
+     */
+    @NotNull CompletableFuture<List<WhitelistedPlayer>> getWhitelistedPlayersAsync();
+    
+    /**
+     * Gets the number of whitelisted players.
+     */
+    default int getWhitelistSize() {
+        return getWhitelistedPlayers().size();
+    }
+    
     /**
      * Adds a player to the whitelist.
      */
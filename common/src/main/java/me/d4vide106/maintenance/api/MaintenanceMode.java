@@ -46,5 +46,14 @@ public enum MaintenanceMode {
      * Used for critical issues requiring immediate attention.
      * </p>
      */
-    EMERGENCY
+    EMERGENCY,
+    
+    /**
+     * Gradual reopen after maintenance.
+     * <p>
+     * A growing percentage of players may join again, selected by UUID,
+     * until everybody is let in and maintenance is disabled.
+     * </p>
+     */
+    RAMP
 }
\ No newline at end of file
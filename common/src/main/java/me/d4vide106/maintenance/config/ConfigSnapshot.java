@@ -0,0 +1,623 @@
+package me.d4vide106.maintenance.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, fully resolved view of the configuration.
+ * <p>
+ * All values are read from the Configurate tree and defaulted exactly once
+ * when the configuration is loaded. Hot paths (logins, pings) should grab
+ * the current snapshot once per event via {@link MaintenanceConfig#snapshot()}
+ * and read plain fields from it.
+ * </p>
+ *
+ * @author D4vide106
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class ConfigSnapshot {
+    
+    private static final int[] DEFAULT_WARNINGS = {300, 180, 60, 30, 10};
+    private static final int[] DEFAULT_RAMP = {5, 25, 100};
+    
+    // Database
+    private final String databaseType;
+    private final String databaseHost;
+    private final int databasePort;
+    private final String databaseName;
+    private final String databaseUsername;
+    private final String databasePassword;
+    private final int databasePoolSize;
+    private final String databaseTablePrefix;
+    private final int statsFlushInterval;
+    private final int historyRetentionDays;
+    
+    // Redis
+    private final boolean redisEnabled;
+    private final String redisHost;
+    private final int redisPort;
+    private final String redisPassword;
+    private final int redisDatabase;
+    private final String redisChannel;
+    private final String redisNodeId;
+    private final String redisTransport;
+    private final int redisStreamMaxLength;
+    private final boolean redisJsonMessages;
+    
+    // Threads
+    private final String ioThreads;
+    
+    // Maintenance
+    private final boolean kickOnEnable;
+    private final int kickDelay;
+    private final String kickMessage;
+    private final boolean customMOTDEnabled;
+    private final String maintenanceMOTD;
+    private final String maintenanceMOTDLine1;
+    private final String maintenanceMOTDLine2;
+    private final boolean maintenanceMOTDCountdown;
+    private final boolean customVersionEnabled;
+    private final String maintenanceVersionText;
+    private final boolean customMaxPlayersEnabled;
+    private final int maintenanceMaxPlayers;
+    private final boolean customIconEnabled;
+    private final String customIconPath;
+    private final String bypassJoinMessage;
+    
+    // Connection throttle
+    private final boolean throttleEnabled;
+    private final int throttleBurst;
+    private final long throttleRefillMillis;
+    private final int throttleGlobalPerSecond;
+    
+    // Reopen queue
+    private final boolean reopenQueueEnabled;
+    private final int reopenQueueRate;
+    private final int reopenQueueMaxDuration;
+    private final String reopenQueueMessage;
+    private final boolean reopenQueueHoldOnFallback;
+    
+    // Reopen ramp
+    private final boolean reopenRampEnabled;
+    private final int[] reopenRampPercents;
+    private final int reopenRampStepSeconds;
+    
+    // Velocity
+    private final boolean proxyMode;
+    private final String fallbackServer;
+    private final boolean kickToFallback;
+    
+    // Timer
+    private final int[] warningIntervals;
+    private final String warningMessage;
+    private final boolean titleEnabled;
+    private final int titleFadeIn;
+    private final int titleStay;
+    private final int titleFadeOut;
+    private final String titleText;
+    private final String subtitleText;
+    private final boolean soundEnabled;
+    private final String soundType;
+    private final float soundVolume;
+    private final float soundPitch;
+    
+    // Misc
+    private final boolean bStatsEnabled;
+    private final boolean debugEnabled;
+    
+    private ConfigSnapshot(@NotNull ConfigurationNode root) {
+        this.databaseType = root.node("database", "type").getString("sqlite");
+        this.databaseHost = root.node("database", "host").getString("localhost");
+        this.databasePort = root.node("database", "port").getInt(3306);
+        this.databaseName = root.node("database", "database").getString("maintenance");
+        this.databaseUsername = root.node("database", "username").getString("root");
+        this.databasePassword = root.node("database", "password").getString("password");
+        this.databasePoolSize = root.node("database", "pool-size").getInt(10);
+        this.databaseTablePrefix = root.node("database", "table-prefix").getString("maintenance_");
+        this.statsFlushInterval = root.node("database", "stats-flush-interval").getInt(5);
+        this.historyRetentionDays = root.node("database", "history-retention-days").getInt(0);
+        
+        this.redisEnabled = root.node("redis", "enabled").getBoolean(false);
+        this.redisHost = root.node("redis", "host").getString("localhost");
+        this.redisPort = root.node("redis", "port").getInt(6379);
+        this.redisPassword = emptyToNull(root.node("redis", "password").getString(""));
+        this.redisDatabase = root.node("redis", "database").getInt(0);
+        this.redisChannel = root.node("redis", "channel").getString("maintenance");
+        this.redisNodeId = emptyToNull(root.node("redis", "node-id").getString(""));
+        this.redisTransport = root.node("redis", "transport").getString("pubsub");
+        this.redisStreamMaxLength = root.node("redis", "stream-max-length").getInt(10000);
+        this.redisJsonMessages = root.node("redis", "json-messages").getBoolean(false);
+        
+        this.ioThreads = root.node("io-threads").getString("auto");
+        
+        this.kickOnEnable = root.node("maintenance", "kick-on-enable").getBoolean(true);
+        this.kickDelay = root.node("maintenance", "kick-delay").getInt(5);
+        this.kickMessage = root.node("maintenance", "kick-message")
+            .getString("<red><bold>Server Under Maintenance</bold></red>\n\n<gray>Please check back later!</gray>");
+        this.customMOTDEnabled = root.node("maintenance", "motd", "enabled").getBoolean(true);
+        this.maintenanceMOTD = root.node("maintenance", "motd", "text").getString("<red><bold>⚠ MAINTENANCE MODE ⚠</bold></red>");
+        this.maintenanceMOTDLine1 = root.node("maintenance", "motd", "line1").getString("<red><bold>⚠ MAINTENANCE MODE ⚠</bold></red>");
+        this.maintenanceMOTDLine2 = root.node("maintenance", "motd", "line2").getString("<gray>Scheduled maintenance in progress</gray>");
+        this.customVersionEnabled = root.node("maintenance", "version", "enabled").getBoolean(false);
+        this.maintenanceVersionText = root.node("maintenance", "version", "text").getString("Maintenance");
+        this.customMaxPlayersEnabled = root.node("maintenance", "max-players", "enabled").getBoolean(false);
+        this.maintenanceMaxPlayers = root.node("maintenance", "max-players", "value").getInt(0);
+        this.customIconEnabled = root.node("maintenance", "icon", "enabled").getBoolean(false);
+        this.customIconPath = root.node("maintenance", "icon", "path").getString("maintenance-icon.png");
+        this.bypassJoinMessage = root.node("maintenance", "bypass-join-message")
+            .getString("<green><bold>✓</bold> You have bypass permission!</green>");
+        this.maintenanceMOTDCountdown = maintenanceMOTDLine1.contains("{duration}")
+            || maintenanceMOTDLine2.contains("{duration}")
+            || maintenanceVersionText.contains("{duration}");
+        
+        this.throttleEnabled = root.node("connection-throttle", "enabled").getBoolean(false);
+        this.throttleBurst = Math.max(1, root.node("connection-throttle", "burst").getInt(3));
+        this.throttleRefillMillis = Math.max(1, root.node("connection-throttle", "refill-seconds").getInt(10)) * 1000L;
+        this.throttleGlobalPerSecond = root.node("connection-throttle", "global-per-second").getInt(50);
+        
+        this.reopenQueueEnabled = root.node("reopen-queue", "enabled").getBoolean(false);
+        this.reopenQueueRate = Math.max(1, root.node("reopen-queue", "rate").getInt(10));
+        this.reopenQueueMaxDuration = root.node("reopen-queue", "max-duration").getInt(300);
+        this.reopenQueueMessage = root.node("reopen-queue", "message")
+            .getString("<yellow><bold>The server is reopening</bold></yellow>\n\n<gray>You are number <white>{position}</white> in the queue.</gray>\n<gray>Please reconnect in a few seconds!</gray>");
+        this.reopenQueueHoldOnFallback = root.node("reopen-queue", "hold-on-fallback").getBoolean(true);
+        
+        this.reopenRampEnabled = root.node("reopen-ramp", "enabled").getBoolean(false);
+        this.reopenRampPercents = readRampPercents(root);
+        this.reopenRampStepSeconds = Math.max(1, root.node("reopen-ramp", "step-seconds").getInt(60));
+        
+        this.proxyMode = root.node("velocity", "proxy-mode").getBoolean(true);
+        this.fallbackServer = emptyToNull(root.node("velocity", "fallback-server").getString(""));
+        this.kickToFallback = root.node("velocity", "kick-to-fallback").getBoolean(false);
+        
+        this.warningIntervals = readWarningIntervals(root);
+        this.warningMessage = root.node("timer", "warning-message")
+            .getString("<yellow><bold>⚠ Maintenance Alert</bold></yellow>\n<gray>Maintenance starts in {time}</gray>");
+        this.titleEnabled = root.node("timer", "title", "enabled").getBoolean(true);
+        this.titleFadeIn = root.node("timer", "title", "fade-in").getInt(10);
+        this.titleStay = root.node("timer", "title", "stay").getInt(40);
+        this.titleFadeOut = root.node("timer", "title", "fade-out").getInt(10);
+        this.titleText = root.node("timer", "title", "text").getString("<red><bold>MAINTENANCE</bold></red>");
+        this.subtitleText = root.node("timer", "title", "subtitle").getString("<yellow>Starts in {time}</yellow>");
+        this.soundEnabled = root.node("timer", "sound", "enabled").getBoolean(true);
+        this.soundType = root.node("timer", "sound", "type").getString("BLOCK_NOTE_BLOCK_PLING");
+        this.soundVolume = root.node("timer", "sound", "volume").getFloat(1.0f);
+        this.soundPitch = root.node("timer", "sound", "pitch").getFloat(1.0f);
+        
+        this.bStatsEnabled = root.node("bstats", "enabled").getBoolean(true);
+        this.debugEnabled = root.node("debug").getBoolean(false);
+    }
+    
+    /**
+     * Resolves every configuration value from the given root node.
+     */
+    @NotNull
+    public static ConfigSnapshot of(@NotNull ConfigurationNode root) {
+        return new ConfigSnapshot(root);
+    }
+    
+    @Nullable
+    private static String emptyToNull(@NotNull String value) {
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static int[] readWarningIntervals(@NotNull ConfigurationNode root) {
+        try {
+            List<?> list = root.node("timer", "warnings")
+                .getList(Object.class, Arrays.asList(300, 180, 60, 30, 10));
+            return list.stream().mapToInt(o -> ((Number) o).intValue()).toArray();
+        } catch (SerializationException | ClassCastException e) {
+            return DEFAULT_WARNINGS.clone();
+        }
+    }
+    
+    /**
+     * Reads the ramp percentages as increasing values from 1 to 100, always
+     * ending at 100.
+     */
+    private static int[] readRampPercents(@NotNull ConfigurationNode root) {
+        int[] percents;
+        try {
+            List<?> list = root.node("reopen-ramp", "percents")
+                .getList(Object.class, Arrays.asList(5, 25, 100));
+            percents = list.stream()
+                .mapToInt(o -> ((Number) o).intValue())
+                .filter(p -> p > 0 && p < 100)
+                .sorted()
+                .distinct()
+                .toArray();
+        } catch (SerializationException | ClassCastException e) {
+            return DEFAULT_RAMP.clone();
+        }
+        int[] withEnd = Arrays.copyOf(percents, percents.length + 1);
+        withEnd[percents.length] = 100;
+        return withEnd;
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Database Configuration
+    // ═══════════════════════════════════════════════════════════════
+    
+    @NotNull
+    public String getDatabaseType() {
+        return databaseType;
+    }
+    
+    @NotNull
+    public String getDatabaseHost() {
+        return databaseHost;
+    }
+    
+    public int getDatabasePort() {
+        return databasePort;
+    }
+    
+    @NotNull
+    public String getDatabaseName() {
+        return databaseName;
+    }
+    
+    @NotNull
+    public String getDatabaseUsername() {
+        return databaseUsername;
+    }
+    
+    @NotNull
+    public String getDatabasePassword() {
+        return databasePassword;
+    }
+    
+    public int getDatabasePoolSize() {
+        return databasePoolSize;
+    }
+    
+    @NotNull
+    public String getDatabaseTablePrefix() {
+        return databaseTablePrefix;
+    }
+    
+    /**
+     * Gets how often buffered statistics are written to the database, in seconds.
+     */
+    public int getStatsFlushInterval() {
+        return statsFlushInterval;
+    }
+    
+    /**
+     * Gets after how many days history sessions are deleted, 0 to keep them forever.
+     */
+    public int getHistoryRetentionDays() {
+        return historyRetentionDays;
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Redis Configuration
+    // ═══════════════════════════════════════════════════════════════
+    
+    public boolean isRedisEnabled() {
+        return redisEnabled;
+    }
+    
+    @NotNull
+    public String getRedisHost() {
+        return redisHost;
+    }
+    
+    public int getRedisPort() {
+        return redisPort;
+    }
+    
+    @Nullable
+    public String getRedisPassword() {
+        return redisPassword;
+    }
+    
+    public int getRedisDatabase() {
+        return redisDatabase;
+    }
+    
+    @NotNull
+    public String getRedisChannel() {
+        return redisChannel;
+    }
+    
+    /**
+     * Gets the configured node id, or null to generate one at startup.
+     */
+    @Nullable
+    public String getRedisNodeId() {
+        return redisNodeId;
+    }
+    
+    /**
+     * Gets the Redis transport: pubsub or streams.
+     */
+    @NotNull
+    public String getRedisTransport() {
+        return redisTransport;
+    }
+    
+    public int getRedisStreamMaxLength() {
+        return redisStreamMaxLength;
+    }
+    
+    /**
+     * Checks if Redis messages are sent as JSON, for servers on earlier versions.
+     */
+    public boolean isRedisJsonMessages() {
+        return redisJsonMessages;
+    }
+    
+    /**
+     * Gets the thread strategy for blocking I/O: auto, virtual or platform.
+     */
+    @NotNull
+    public String getIoThreads() {
+        return ioThreads;
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Maintenance Configuration
+    // ═══════════════════════════════════════════════════════════════
+    
+    public boolean shouldKickOnEnable() {
+        return kickOnEnable;
+    }
+    
+    public int getKickDelay() {
+        return kickDelay;
+    }
+    
+    @NotNull
+    public String getKickMessage() {
+        return kickMessage;
+    }
+    
+    public boolean isCustomMOTDEnabled() {
+        return customMOTDEnabled;
+    }
+    
+    @NotNull
+    public String getMaintenanceMOTD() {
+        return maintenanceMOTD;
+    }
+    
+    @NotNull
+    public String getMaintenanceMOTDLine1() {
+        return maintenanceMOTDLine1;
+    }
+    
+    @NotNull
+    public String getMaintenanceMOTDLine2() {
+        return maintenanceMOTDLine2;
+    }
+    
+    /**
+     * Whether the ping MOTD or version text shows the {duration} countdown,
+     * i.e. whether ping responses change every second while a timer runs.
+     */
+    public boolean isMaintenanceMOTDCountdown() {
+        return maintenanceMOTDCountdown;
+    }
+    
+    public boolean isCustomVersionEnabled() {
+        return customVersionEnabled;
+    }
+    
+    @NotNull
+    public String getMaintenanceVersionText() {
+        return maintenanceVersionText;
+    }
+    
+    public boolean isCustomMaxPlayersEnabled() {
+        return customMaxPlayersEnabled;
+    }
+    
+    public int getMaintenanceMaxPlayers() {
+        return maintenanceMaxPlayers;
+    }
+    
+    public boolean isCustomIconEnabled() {
+        return customIconEnabled;
+    }
+    
+    @NotNull
+    public String getCustomIconPath() {
+        return customIconPath;
+    }
+    
+    @NotNull
+    public String getBypassJoinMessage() {
+        return bypassJoinMessage;
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Connection Throttle Configuration
+    // ═══════════════════════════════════════════════════════════════
+    
+    public boolean isThrottleEnabled() {
+        return throttleEnabled;
+    }
+    
+    /**
+     * Gets how many rejected logins an address gets before it is throttled.
+     */
+    public int getThrottleBurst() {
+        return throttleBurst;
+    }
+    
+    /**
+     * Gets how long it takes a throttled address to earn one more attempt.
+     */
+    public long getThrottleRefillMillis() {
+        return throttleRefillMillis;
+    }
+    
+    /**
+     * Gets how many rejections per second, across all addresses, are
+     * allowed before every recently rejected address is throttled; 0 for
+     * no global limit.
+     */
+    public int getThrottleGlobalPerSecond() {
+        return throttleGlobalPerSecond;
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Reopen Queue Configuration
+    // ═══════════════════════════════════════════════════════════════
+    
+    public boolean isReopenQueueEnabled() {
+        return reopenQueueEnabled;
+    }
+    
+    /**
+     * Gets how many queued players may join per second after maintenance ends.
+     */
+    public int getReopenQueueRate() {
+        return reopenQueueRate;
+    }
+    
+    /**
+     * Gets how long joins are paced at most after maintenance ends, in seconds.
+     */
+    public int getReopenQueueMaxDuration() {
+        return reopenQueueMaxDuration;
+    }
+    
+    /**
+     * Gets the message shown to queued players, with a {position} placeholder.
+     */
+    @NotNull
+    public String getReopenQueueMessage() {
+        return reopenQueueMessage;
+    }
+    
+    /**
+     * Whether proxies keep queued players on the fallback server instead of
+     * disconnecting them.
+     */
+    public boolean shouldReopenQueueHoldOnFallback() {
+        return reopenQueueHoldOnFallback;
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Reopen Ramp Configuration
+    // ═══════════════════════════════════════════════════════════════
+    
+    /**
+     * Whether disabling maintenance reopens gradually instead of at once.
+     */
+    public boolean isReopenRampEnabled() {
+        return reopenRampEnabled;
+    }
+    
+    /**
+     * Gets the percentage of players let in at each ramp step, increasing
+     * and ending at 100.
+     */
+    @NotNull
+    public int[] getReopenRampPercents() {
+        return reopenRampPercents.clone();
+    }
+    
+    /**
+     * Gets how long each ramp step lasts, in seconds.
+     */
+    public int getReopenRampStepSeconds() {
+        return reopenRampStepSeconds;
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Velocity-Specific Configuration
+    // ═══════════════════════════════════════════════════════════════
+    
+    public boolean isProxyMode() {
+        return proxyMode;
+    }
+    
+    @Nullable
+    public String getFallbackServer() {
+        return fallbackServer;
+    }
+    
+    public boolean shouldKickToFallback() {
+        return kickToFallback;
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Timer Configuration
+    // ═══════════════════════════════════════════════════════════════
+    
+    /**
+     * Gets the warning intervals (a copy, the snapshot itself never changes).
+     */
+    public int[] getWarningIntervals() {
+        return warningIntervals.clone();
+    }
+    
+    @NotNull
+    public String getWarningMessage() {
+        return warningMessage;
+    }
+    
+    public boolean isTitleEnabled() {
+        return titleEnabled;
+    }
+    
+    public int getTitleFadeIn() {
+        return titleFadeIn;
+    }
+    
+    public int getTitleStay() {
+        return titleStay;
+    }
+    
+    public int getTitleFadeOut() {
+        return titleFadeOut;
+    }
+    
+    @NotNull
+    public String getTitleText() {
+        return titleText;
+    }
+    
+    @NotNull
+    public String getSubtitleText() {
+        return subtitleText;
+    }
+    
+    public boolean isSoundEnabled() {
+        return soundEnabled;
+    }
+    
+    @NotNull
+    public String getSoundType() {
+        return soundType;
+    }
+    
+    public float getSoundVolume() {
+        return soundVolume;
+    }
+    
+    public float getSoundPitch() {
+        return soundPitch;
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Misc Configuration
+    // ═══════════════════════════════════════════════════════════════
+    
+    public boolean isBStatsEnabled() {
+        return bStatsEnabled;
+    }
+    
+    public boolean isDebugEnabled() {
+        return debugEnabled;
+    }
+}
\ No newline at end of file
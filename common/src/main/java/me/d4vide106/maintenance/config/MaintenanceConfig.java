@@ -3,18 +3,23 @@
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.spongepowered.configurate.CommentedConfigurationNode;
-import org.spongepowered.configurate.serialize.SerializationException;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Configuration manager for MaintenanceUniversal.
  * Universal configuration for all platforms (Paper, Velocity, Fabric, Forge).
+ * <p>
+ * Values are resolved once per load into an immutable {@link ConfigSnapshot},
+ * published through a single volatile reference. The getters below delegate
+ * to the current snapshot; hot paths should call {@link #snapshot()} once and
+ * read from it directly.
+ * </p>
  * 
  * @author D4vide106
  * @version 1.0.0
@@ -23,7 +28,9 @@
 public class MaintenanceConfig {
     
     private final Path configPath;
-    private CommentedConfigurationNode root;
+    private volatile CommentedConfigurationNode root;
+    private volatile ConfigSnapshot snapshot;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
     
     public MaintenanceConfig(@NotNull Path dataFolder) throws IOException {
         Files.createDirectories(dataFolder);
@@ -42,11 +49,20 @@ public void load() throws IOException {
             .path(configPath)
             .build();
         
-        root = loader.load();
+        CommentedConfigurationNode loaded = loader.load();
+        ConfigSnapshot resolved = ConfigSnapshot.of(loaded);
+        
+        root = loaded;
+        snapshot = resolved;
+        fireReloaded();
     }
     
     /**
      * Reloads the configuration from disk.
+     * <p>
+     * The new snapshot replaces the old one atomically; readers either see
+     * the previous values or the new ones, never a mix.
+     * </p>
      */
     public void reload() throws IOException {
         load();
@@ -60,6 +76,29 @@ public void save() throws IOException {
             .path(configPath)
             .build();
         loader.save(root);
+        snapshot = ConfigSnapshot.of(root);
+        fireReloaded();
+    }
+    
+    /**
+     * Registers a callback run after every (re)load, once the new snapshot is published.
+     */
+    public void addReloadListener(@NotNull Runnable listener) {
+        reloadListeners.add(listener);
+    }
+    
+    private void fireReloaded() {
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+    
+    /**
+     * Gets the current immutable configuration snapshot.
+     */
+    @NotNull
+    public ConfigSnapshot snapshot() {
+        return snapshot;
     }
     
     private void createDefault() throws IOException {
@@ -79,7 +118,9 @@ private void createDefault() throws IOException {
         sb.append("  username: 'root'\n");
         sb.append("  password: 'password'\n");
         sb.append("  pool-size: 10\n");
-        sb.append("  table-prefix: 'maintenance_'\n\n");
+        sb.append("  table-prefix: 'maintenance_'\n");
+        sb.append("  stats-flush-interval: 5  # seconds between statistics writes\n");
+        sb.append("  history-retention-days: 0  # delete older history sessions, 0 keeps everything\n\n");
         
         sb.append("# Redis multi-server sync\n");
         sb.append("redis:\n");
@@ -88,7 +129,16 @@ private void createDefault() throws IOException {
         sb.append("  port: 6379\n");
         sb.append("  password: ''\n");
         sb.append("  database: 0\n");
-        sb.append("  channel: 'maintenance'\n\n");
+        sb.append("  channel: 'maintenance'\n");
+        sb.append("  node-id: ''  # unique per server, a new one is generated at every start if empty\n");
+        sb.append("  transport: 'pubsub'  # pubsub, or streams to replay messages missed while disconnected\n");
+        sb.append("  stream-max-length: 10000  # approximate number of messages kept in the stream\n");
+        sb.append("  json-messages: false  # send messages as JSON while servers on earlier versions are on the network\n\n");
+        
+        sb.append("# Threads for blocking database and Redis calls\n");
+        sb.append("# auto: virtual threads on Java 21+, a bounded thread pool otherwise\n");
+        sb.append("# virtual, platform: force one of the two\n");
+        sb.append("io-threads: 'auto'\n\n");
         
         sb.append("# Maintenance settings\n");
         sb.append("maintenance:\n");
@@ -129,6 +179,28 @@ private void createDefault() throws IOException {
         sb.append("  # Kick players to fallback server instead of disconnecting\n");
         sb.append("  kick-to-fallback: false\n\n");
         
+        sb.append("# Rate limit players rejected during maintenance, per IP address\n");
+        sb.append("# Left to the proxy on servers behind one\n");
+        sb.append("connection-throttle:\n");
+        sb.append("  enabled: false\n");
+        sb.append("  burst: 3  # rejections allowed before an address is throttled\n");
+        sb.append("  refill-seconds: 10  # seconds for an address to get one rejection back\n");
+        sb.append("  global-per-second: 50  # rejections per second across all addresses, 0 for no limit\n\n");
+        
+        sb.append("# Let players back in gradually when maintenance ends\n");
+        sb.append("reopen-queue:\n");
+        sb.append("  enabled: false\n");
+        sb.append("  rate: 10  # players let in per second\n");
+        sb.append("  max-duration: 300  # seconds before the queue is dropped and everyone may join\n");
+        sb.append("  hold-on-fallback: true  # proxies: wait on the fallback server instead of being disconnected\n");
+        sb.append("  message: '<yellow><bold>The server is reopening</bold></yellow>\\n\\n<gray>You are number <white>{position}</white> in the queue.</gray>\\n<gray>Please reconnect in a few seconds!</gray>'\n\n");
+        
+        sb.append("# Reopen in steps: only a share of players may join at each step\n");
+        sb.append("reopen-ramp:\n");
+        sb.append("  enabled: false\n");
+        sb.append("  percents: [5, 25, 100]  # share of players let in at each step\n");
+        sb.append("  step-seconds: 60  # seconds between steps\n\n");
+        
         sb.append("# Timer and scheduling settings\n");
         sb.append("timer:\n");
         sb.append("  warnings: [300, 180, 60, 30, 10]  # seconds before start\n");
@@ -165,35 +237,43 @@ private void createDefault() throws IOException {
     // ═══════════════════════════════════════════════════════════════
     
     public String getDatabaseType() {
-        return root.node("database", "type").getString("sqlite");
+        return snapshot.getDatabaseType();
     }
     
     public String getDatabaseHost() {
-        return root.node("database", "host").getString("localhost");
+        return snapshot.getDatabaseHost();
     }
     
     public int getDatabasePort() {
-        return root.node("database", "port").getInt(3306);
+        return snapshot.getDatabasePort();
     }
     
     public String getDatabaseName() {
-        return root.node("database", "database").getString("maintenance");
+        return snapshot.getDatabaseName();
     }
     
     public String getDatabaseUsername() {
-        return root.node("database", "username").getString("root");
+        return snapshot.getDatabaseUsername();
     }
     
     public String getDatabasePassword() {
-        return root.node("database", "password").getString("password");
+        return snapshot.getDatabasePassword();
     }
     
     public int getDatabasePoolSize() {
-        return root.node("database", "pool-size").getInt(10);
+        return snapshot.getDatabasePoolSize();
     }
     
     public String getDatabaseTablePrefix() {
-        return root.node("database", "table-prefix").getString("maintenance_");
+        return snapshot.getDatabaseTablePrefix();
+    }
+    
+    public int getStatsFlushInterval() {
+        return snapshot.getStatsFlushInterval();
+    }
+    
+    public int getHistoryRetentionDays() {
+        return snapshot.getHistoryRetentionDays();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -201,29 +281,48 @@ public String getDatabaseTablePrefix() {
     // ═══════════════════════════════════════════════════════════════
     
     public boolean isRedisEnabled() {
-        return root.node("redis", "enabled").getBoolean(false);
+        return snapshot.isRedisEnabled();
     }
     
     public String getRedisHost() {
-        return root.node("redis", "host").getString("localhost");
+        return snapshot.getRedisHost();
     }
     
     public int getRedisPort() {
-        return root.node("redis", "port").getInt(6379);
+        return snapshot.getRedisPort();
     }
     
     @Nullable
     public String getRedisPassword() {
-        String pwd = root.node("redis", "password").getString("");
-        return pwd.isEmpty() ? null : pwd;
+        return snapshot.getRedisPassword();
     }
     
     public int getRedisDatabase() {
-        return root.node("redis", "database").getInt(0);
+        return snapshot.getRedisDatabase();
     }
     
     public String getRedisChannel() {
-        return root.node("redis", "channel").getString("maintenance");
+        return snapshot.getRedisChannel();
+    }
+    
+    public String getRedisNodeId() {
+        return snapshot.getRedisNodeId();
+    }
+    
+    public String getRedisTransport() {
+        return snapshot.getRedisTransport();
+    }
+    
+    public int getRedisStreamMaxLength() {
+        return snapshot.getRedisStreamMaxLength();
+    }
+    
+    public boolean isRedisJsonMessages() {
+        return snapshot.isRedisJsonMessages();
+    }
+    
+    public String getIoThreads() {
+        return snapshot.getIoThreads();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -231,16 +330,15 @@ public String getRedisChannel() {
     // ═══════════════════════════════════════════════════════════════
     
     public boolean shouldKickOnEnable() {
-        return root.node("maintenance", "kick-on-enable").getBoolean(true);
+        return snapshot.shouldKickOnEnable();
     }
     
     public int getKickDelay() {
-        return root.node("maintenance", "kick-delay").getInt(5);
+        return snapshot.getKickDelay();
     }
     
     public String getKickMessage() {
-        return root.node("maintenance", "kick-message")
-            .getString("<red><bold>Server Under Maintenance</bold></red>\n\n<gray>Please check back later!</gray>");
+        return snapshot.getKickMessage();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -248,19 +346,19 @@ public String getKickMessage() {
     // ═══════════════════════════════════════════════════════════════
     
     public boolean isCustomMOTDEnabled() {
-        return root.node("maintenance", "motd", "enabled").getBoolean(true);
+        return snapshot.isCustomMOTDEnabled();
     }
     
     public String getMaintenanceMOTD() {
-        return root.node("maintenance", "motd", "text").getString("<red><bold>⚠ MAINTENANCE MODE ⚠</bold></red>");
+        return snapshot.getMaintenanceMOTD();
     }
     
     public String getMaintenanceMOTDLine1() {
-        return root.node("maintenance", "motd", "line1").getString("<red><bold>⚠ MAINTENANCE MODE ⚠</bold></red>");
+        return snapshot.getMaintenanceMOTDLine1();
     }
     
     public String getMaintenanceMOTDLine2() {
-        return root.node("maintenance", "motd", "line2").getString("<gray>Scheduled maintenance in progress</gray>");
+        return snapshot.getMaintenanceMOTDLine2();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -268,11 +366,11 @@ public String getMaintenanceMOTDLine2() {
     // ═══════════════════════════════════════════════════════════════
     
     public boolean isCustomVersionEnabled() {
-        return root.node("maintenance", "version", "enabled").getBoolean(false);
+        return snapshot.isCustomVersionEnabled();
     }
     
     public String getMaintenanceVersionText() {
-        return root.node("maintenance", "version", "text").getString("Maintenance");
+        return snapshot.getMaintenanceVersionText();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -280,11 +378,11 @@ public String getMaintenanceVersionText() {
     // ═══════════════════════════════════════════════════════════════
     
     public boolean isCustomMaxPlayersEnabled() {
-        return root.node("maintenance", "max-players", "enabled").getBoolean(false);
+        return snapshot.isCustomMaxPlayersEnabled();
     }
     
     public int getMaintenanceMaxPlayers() {
-        return root.node("maintenance", "max-players", "value").getInt(0);
+        return snapshot.getMaintenanceMaxPlayers();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -292,11 +390,11 @@ public int getMaintenanceMaxPlayers() {
     // ═══════════════════════════════════════════════════════════════
     
     public boolean isCustomIconEnabled() {
-        return root.node("maintenance", "icon", "enabled").getBoolean(false);
+        return snapshot.isCustomIconEnabled();
     }
     
     public String getCustomIconPath() {
-        return root.node("maintenance", "icon", "path").getString("maintenance-icon.png");
+        return snapshot.getCustomIconPath();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -304,8 +402,7 @@ public String getCustomIconPath() {
     // ═══════════════════════════════════════════════════════════════
     
     public String getBypassJoinMessage() {
-        return root.node("maintenance", "bypass-join-message")
-            .getString("<green><bold>✓</bold> You have bypass permission!</green>");
+        return snapshot.getBypassJoinMessage();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -316,7 +413,7 @@ public String getBypassJoinMessage() {
      * Gets whether proxy-level maintenance is enabled (Velocity).
      */
     public boolean isProxyMode() {
-        return root.node("velocity", "proxy-mode").getBoolean(true);
+        return snapshot.isProxyMode();
     }
     
     /**
@@ -325,15 +422,14 @@ public boolean isProxyMode() {
      */
     @Nullable
     public String getFallbackServer() {
-        String server = root.node("velocity", "fallback-server").getString("");
-        return server.isEmpty() ? null : server;
+        return snapshot.getFallbackServer();
     }
     
     /**
      * Gets whether to kick players to fallback server instead of disconnecting (Velocity).
      */
     public boolean shouldKickToFallback() {
-        return root.node("velocity", "kick-to-fallback").getBoolean(false);
+        return snapshot.shouldKickToFallback();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -341,18 +437,11 @@ public boolean shouldKickToFallback() {
     // ═══════════════════════════════════════════════════════════════
     
     public int[] getWarningIntervals() {
-        try {
-            List<?> list = root.node("timer", "warnings")
-                .getList(Object.class, Arrays.asList(300, 180, 60, 30, 10));
-            return list.stream().mapToInt(o -> ((Number)o).intValue()).toArray();
-        } catch (SerializationException e) {
-            return new int[]{300, 180, 60, 30, 10};
-        }
+        return snapshot.getWarningIntervals();
     }
     
     public String getWarningMessage() {
-        return root.node("timer", "warning-message")
-            .getString("<yellow><bold>⚠ Maintenance Alert</bold></yellow>\n<gray>Maintenance starts in {time}</gray>");
+        return snapshot.getWarningMessage();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -360,27 +449,27 @@ public String getWarningMessage() {
     // ═══════════════════════════════════════════════════════════════
     
     public boolean isTitleEnabled() {
-        return root.node("timer", "title", "enabled").getBoolean(true);
+        return snapshot.isTitleEnabled();
     }
     
     public int getTitleFadeIn() {
-        return root.node("timer", "title", "fade-in").getInt(10);
+        return snapshot.getTitleFadeIn();
     }
     
     public int getTitleStay() {
-        return root.node("timer", "title", "stay").getInt(40);
+        return snapshot.getTitleStay();
     }
     
     public int getTitleFadeOut() {
-        return root.node("timer", "title", "fade-out").getInt(10);
+        return snapshot.getTitleFadeOut();
     }
     
     public String getTitleText() {
-        return root.node("timer", "title", "text").getString("<red><bold>MAINTENANCE</bold></red>");
+        return snapshot.getTitleText();
     }
     
     public String getSubtitleText() {
-        return root.node("timer", "title", "subtitle").getString("<yellow>Starts in {time}</yellow>");
+        return snapshot.getSubtitleText();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -388,19 +477,19 @@ public String getSubtitleText() {
     // ═══════════════════════════════════════════════════════════════
     
     public boolean isSoundEnabled() {
-        return root.node("timer", "sound", "enabled").getBoolean(true);
+        return snapshot.isSoundEnabled();
     }
     
     public String getSoundType() {
-        return root.node("timer", "sound", "type").getString("BLOCK_NOTE_BLOCK_PLING");
+        return snapshot.getSoundType();
     }
     
     public float getSoundVolume() {
-        return root.node("timer", "sound", "volume").getFloat(1.0f);
+        return snapshot.getSoundVolume();
     }
     
     public float getSoundPitch() {
-        return root.node("timer", "sound", "pitch").getFloat(1.0f);
+        return snapshot.getSoundPitch();
     }
     
     // ═══════════════════════════════════════════════════════════════
@@ -408,11 +497,11 @@ public float getSoundPitch() {
     // ═══════════════════════════════════════════════════════════════
     
     public boolean isBStatsEnabled() {
-        return root.node("bstats", "enabled").getBoolean(true);
+        return snapshot.isBStatsEnabled();
     }
     
     public boolean isDebugEnabled() {
-        return root.node("debug").getBoolean(false);
+        return snapshot.isDebugEnabled();
     }
     
     /**
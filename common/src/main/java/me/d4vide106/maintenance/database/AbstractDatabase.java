@@ -4,6 +4,8 @@
 import com.zaxxer.hikari.HikariDataSource;
 import me.d4vide106.maintenance.api.MaintenanceStats;
 import me.d4vide106.maintenance.api.WhitelistedPlayer;
+import me.d4vide106.maintenance.util.IoExecutors;
+import me.d4vide106.maintenance.util.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -18,45 +20,109 @@
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Abstract base class for database implementations.
+ * <p>
+ * Queries run on an {@link IoExecutors} executor that allows as many
+ * concurrent tasks as the connection pool has connections.
+ * </p>
+ * <p>
+ * SQL comes precomputed from the provider's {@link SqlDialect}. Unless the
+ * driver caches prepared statements itself, statements are also kept
+ * prepared per connection by a {@link StatementCache}.
+ * </p>
  */
 public abstract class AbstractDatabase implements DatabaseProvider {
     
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final int RETENTION_BATCH_SIZE = 500;
+    private static final Duration RETENTION_INTERVAL = Duration.ofHours(1);
+    // Keeps pruning off the startup path; the jitter spreads nodes sharing a database
+    private static final Duration PRUNE_STARTUP_DELAY = Duration.ofMinutes(5);
+    private static final Duration PRUNE_STARTUP_JITTER = Duration.ofMinutes(10);
+    // Well past the whitelist's full resync interval, so no server can still need these changes
+    private static final Duration WHITELIST_CHANGES_RETENTION = Duration.ofHours(1);
+    
     protected HikariDataSource dataSource;
-    protected final ExecutorService executor;
+    protected volatile ExecutorService executor;
+    protected final SqlDialect dialect;
     protected final String tablePrefix;
-    
-    public AbstractDatabase(@NotNull String tablePrefix) {
-        this.tablePrefix = tablePrefix;
-        this.executor = Executors.newFixedThreadPool(
-            4,
-            r -> {
-                Thread thread = new Thread(r);
-                thread.setName("MaintenanceDB-" + thread.getId());
-                thread.setDaemon(true);
-                return thread;
-            }
-        );
+    protected final StatsAccumulator stats = new StatsAccumulator();
+    private final Duration statsFlushInterval;
+    private final Duration historyRetention;
+    private final IoExecutors.Mode ioMode;
+    private final ScheduledExecutorService scheduler;
+    private final Logger logger;
+    private StatementCache statementCache;
+    
+    public AbstractDatabase(
+        @NotNull SqlDialect dialect,
+        @NotNull Duration statsFlushInterval,
+        @NotNull Duration historyRetention,
+        @NotNull IoExecutors.Mode ioMode,
+        @NotNull Logger logger
+    ) {
+        this.dialect = dialect;
+        this.tablePrefix = dialect.getTablePrefix();
+        this.statsFlushInterval = statsFlushInterval;
+        this.historyRetention = historyRetention;
+        this.ioMode = ioMode;
+        this.logger = logger;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MaintenanceDB-Tasks");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
     protected abstract HikariConfig getHikariConfig();
-    protected abstract String[] getCreateTableStatements();
+    
+    /**
+     * Gets the provider's schema migrations in increasing version order.
+     */
+    protected abstract List<Migration> getMigrations();
+    
+    /**
+     * Whether statements should be cached by {@link StatementCache}.
+     * <p>
+     * Providers whose driver already caches prepared statements return false.
+     * </p>
+     */
+    protected boolean isStatementCacheEnabled() {
+        return true;
+    }
     
     @Override
     public @NotNull CompletableFuture<Void> initialize() {
+        HikariConfig config = getHikariConfig();
+        executor = IoExecutors.create("MaintenanceDB", config.getMaximumPoolSize(), ioMode);
+        statementCache = isStatementCacheEnabled() ? new StatementCache(STATEMENT_CACHE_SIZE) : null;
+        
         return CompletableFuture.runAsync(() -> {
             try {
-                HikariConfig config = getHikariConfig();
                 dataSource = new HikariDataSource(config);
                 
                 try (Connection conn = dataSource.getConnection()) {
-                    for (String sql : getCreateTableStatements()) {
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.execute();
-                        }
-                    }
+                    new SchemaMigrator(dialect, getMigrations()).migrate(conn);
+                }
+                
+                long interval = Math.max(1L, statsFlushInterval.toMillis());
+                scheduler.scheduleWithFixedDelay(
+                    () -> flushStats().exceptionally(e -> null).join(),
+                    interval,
+                    interval,
+                    TimeUnit.MILLISECONDS
+                );
+                
+                schedulePrune("whitelist changes", this::pruneWhitelistChanges, startupPruneDelay());
+                
+                if (!historyRetention.isZero() && !historyRetention.isNegative()) {
+                    schedulePrune("session history", this::pruneHistory, startupPruneDelay());
                 }
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to initialize database", e);
@@ -66,12 +132,32 @@ public AbstractDatabase(@NotNull String tablePrefix) {
     
     @Override
     public @NotNull CompletableFuture<Void> shutdown() {
+        scheduler.shutdown();
+        if (executor == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
         return CompletableFuture.runAsync(() -> {
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, executor).thenCompose(v -> {
+            if (!isConnected()) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            // Deltas that could not be written are lost on shutdown
+            return flushStats().exceptionally(e -> null);
+        }).thenRunAsync(() -> {
+            if (statementCache != null) {
+                statementCache.close();
+            }
             if (dataSource != null && !dataSource.isClosed()) {
                 dataSource.close();
             }
             executor.shutdown();
-        });
+        }, executor);
     }
     
     @Override
@@ -80,7 +166,18 @@ public boolean isConnected() {
     }
     
     protected String table(String name) {
-        return tablePrefix + name;
+        return dialect.table(name);
+    }
+    
+    /**
+     * Prepares a statement, reusing a cached one when the cache is enabled.
+     * <p>
+     * Close the returned statement as usual; cached statements stay prepared.
+     * </p>
+     */
+    protected PreparedStatement prepare(@NotNull Connection conn, @NotNull String sql) throws SQLException {
+        StatementCache cache = statementCache;
+        return cache != null ? cache.prepare(conn, sql) : conn.prepareStatement(sql);
     }
     
     protected <T> CompletableFuture<T> supplyAsync(DatabaseTask<T> task) {
@@ -103,6 +200,36 @@ protected CompletableFuture<Void> runAsync(DatabaseRunnable runnable) {
         }, executor);
     }
     
+    /**
+     * Runs a single-statement write.
+     * <p>
+     * Providers that need to serialise writes (SQLite) override this and
+     * {@link #runInTransaction(DatabaseRunnable)}.
+     * </p>
+     */
+    protected CompletableFuture<Void> runWrite(DatabaseRunnable runnable) {
+        return runAsync(runnable);
+    }
+    
+    /**
+     * Runs a multi-statement write atomically.
+     */
+    protected CompletableFuture<Void> runInTransaction(DatabaseRunnable runnable) {
+        return runAsync(conn -> {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                runnable.run(conn);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        });
+    }
+    
     @FunctionalInterface
     protected interface DatabaseTask<T> {
         T execute(Connection conn) throws SQLException;
@@ -118,8 +245,7 @@ protected interface DatabaseRunnable {
     @Override
     public @NotNull CompletableFuture<Boolean> isMaintenanceEnabled() {
         return supplyAsync(conn -> {
-            String sql = "SELECT value FROM " + table("settings") + " WHERE key = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = prepare(conn, dialect.selectSetting)) {
                 stmt.setString(1, "enabled");
                 ResultSet rs = stmt.executeQuery();
                 return rs.next() && "true".equals(rs.getString("value"));
@@ -129,9 +255,8 @@ protected interface DatabaseRunnable {
     
     @Override
     public @NotNull CompletableFuture<Void> setMaintenanceEnabled(boolean enabled) {
-        return runAsync(conn -> {
-            String sql = "REPLACE INTO " + table("settings") + " (key, value) VALUES (?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.upsertSetting)) {
                 stmt.setString(1, "enabled");
                 stmt.setString(2, String.valueOf(enabled));
                 stmt.executeUpdate();
@@ -142,8 +267,7 @@ protected interface DatabaseRunnable {
     @Override
     public @NotNull CompletableFuture<String> getMaintenanceMode() {
         return supplyAsync(conn -> {
-            String sql = "SELECT value FROM " + table("settings") + " WHERE key = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = prepare(conn, dialect.selectSetting)) {
                 stmt.setString(1, "mode");
                 ResultSet rs = stmt.executeQuery();
                 return rs.next() ? rs.getString("value") : "DISABLED";
@@ -153,9 +277,8 @@ protected interface DatabaseRunnable {
     
     @Override
     public @NotNull CompletableFuture<Void> setMaintenanceMode(@NotNull String mode) {
-        return runAsync(conn -> {
-            String sql = "REPLACE INTO " + table("settings") + " (key, value) VALUES (?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.upsertSetting)) {
                 stmt.setString(1, "mode");
                 stmt.setString(2, mode);
                 stmt.executeUpdate();
@@ -166,8 +289,7 @@ protected interface DatabaseRunnable {
     @Override
     public @NotNull CompletableFuture<String> getMaintenanceReason() {
         return supplyAsync(conn -> {
-            String sql = "SELECT value FROM " + table("settings") + " WHERE key = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = prepare(conn, dialect.selectSetting)) {
                 stmt.setString(1, "reason");
                 ResultSet rs = stmt.executeQuery();
                 return rs.next() ? rs.getString("value") : null;
@@ -177,9 +299,8 @@ protected interface DatabaseRunnable {
     
     @Override
     public @NotNull CompletableFuture<Void> setMaintenanceReason(@Nullable String reason) {
-        return runAsync(conn -> {
-            String sql = "REPLACE INTO " + table("settings") + " (key, value) VALUES (?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.upsertSetting)) {
                 stmt.setString(1, "reason");
                 stmt.setString(2, reason);
                 stmt.executeUpdate();
@@ -187,13 +308,70 @@ protected interface DatabaseRunnable {
         });
     }
     
+    @Override
+    public @NotNull CompletableFuture<MaintenanceState> loadState() {
+        return supplyAsync(conn -> {
+            boolean enabled = false;
+            String mode = "DISABLED";
+            String reason = null;
+            try (PreparedStatement stmt = prepare(conn, dialect.selectSettings)) {
+                stmt.setString(1, "enabled");
+                stmt.setString(2, "mode");
+                stmt.setString(3, "reason");
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    String value = rs.getString(2);
+                    switch (rs.getString(1)) {
+                        case "enabled":
+                            enabled = "true".equals(value);
+                            break;
+                        case "mode":
+                            mode = value;
+                            break;
+                        case "reason":
+                            reason = value;
+                            break;
+                    }
+                }
+            }
+            return new MaintenanceState(enabled, mode, reason);
+        });
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<Void> saveState(@NotNull MaintenanceState state) {
+        return runInTransaction(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.upsertSetting)) {
+                stmt.setString(1, "enabled");
+                stmt.setString(2, String.valueOf(state.isEnabled()));
+                stmt.addBatch();
+                stmt.setString(1, "mode");
+                stmt.setString(2, state.getMode());
+                stmt.addBatch();
+                if (state.getReason() != null) {
+                    stmt.setString(1, "reason");
+                    stmt.setString(2, state.getReason());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            
+            // value is NOT NULL, so a missing reason is stored as a missing row
+            if (state.getReason() == null) {
+                try (PreparedStatement stmt = prepare(conn, dialect.deleteSetting)) {
+                    stmt.setString(1, "reason");
+                    stmt.executeUpdate();
+                }
+            }
+        });
+    }
+    
     // Whitelist
     
     @Override
     public @NotNull CompletableFuture<Boolean> isWhitelisted(@NotNull UUID uuid) {
         return supplyAsync(conn -> {
-            String sql = "SELECT COUNT(*) FROM " + table("whitelist") + " WHERE uuid = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = prepare(conn, dialect.countWhitelisted)) {
                 stmt.setString(1, uuid.toString());
                 ResultSet rs = stmt.executeQuery();
                 return rs.next() && rs.getInt(1) > 0;
@@ -204,30 +382,65 @@ protected interface DatabaseRunnable {
     @Override
     public @NotNull CompletableFuture<List<WhitelistedPlayer>> getWhitelistedPlayers() {
         return supplyAsync(conn -> {
-            String sql = "SELECT * FROM " + table("whitelist");
             List<WhitelistedPlayer> players = new ArrayList<>();
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = prepare(conn, dialect.selectWhitelist)) {
                 ResultSet rs = stmt.executeQuery();
                 while (rs.next()) {
-                    players.add(new WhitelistedPlayer(
-                        UUID.fromString(rs.getString("uuid")),
-                        rs.getString("name"),
-                        rs.getString("reason"),
-                        rs.getLong("added_at"),
-                        rs.getString("added_by")
-                    ));
+                    players.add(readWhitelistedPlayer(rs));
                 }
             }
             return players;
         });
     }
     
+    @Override
+    public @NotNull CompletableFuture<WhitelistedPlayer> getWhitelistedPlayer(@NotNull UUID uuid) {
+        return supplyAsync(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.selectWhitelisted)) {
+                stmt.setString(1, uuid.toString());
+                ResultSet rs = stmt.executeQuery();
+                return rs.next() ? readWhitelistedPlayer(rs) : null;
+            }
+        });
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<List<UUID>> getWhitelistedUuids() {
+        return supplyAsync(conn -> {
+            List<UUID> uuids = new ArrayList<>();
+            try (PreparedStatement stmt = prepare(conn, dialect.selectWhitelistUuids)) {
+                stmt.setFetchSize(1000);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    uuids.add(UUID.fromString(rs.getString(1)));
+                }
+            }
+            return uuids;
+        });
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<List<String>> getWhitelistedNames() {
+        return supplyAsync(conn -> {
+            List<String> names = new ArrayList<>();
+            try (PreparedStatement stmt = prepare(conn, dialect.selectWhitelistNames)) {
+                stmt.setFetchSize(1000);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    if (name != null) {
+                        names.add(name);
+                    }
+                }
+            }
+            return names;
+        });
+    }
+    
     @Override
     public @NotNull CompletableFuture<Void> addToWhitelist(@NotNull WhitelistedPlayer player) {
-        return runAsync(conn -> {
-            String sql = "REPLACE INTO " + table("whitelist") + 
-                        " (uuid, name, reason, added_at, added_by) VALUES (?, ?, ?, ?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runInTransaction(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.upsertWhitelisted)) {
                 stmt.setString(1, player.getUuid().toString());
                 stmt.setString(2, player.getName());
                 stmt.setString(3, player.getReason());
@@ -235,98 +448,214 @@ protected interface DatabaseRunnable {
                 stmt.setString(5, player.getAddedBy());
                 stmt.executeUpdate();
             }
+            recordWhitelistChange(conn, WhitelistChange.Type.ADDED, player.getUuid(), player.getName());
+        });
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<Void> renameWhitelisted(@NotNull UUID uuid, @NotNull String name) {
+        return runInTransaction(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.renameWhitelisted)) {
+                stmt.setString(1, name);
+                stmt.setString(2, uuid.toString());
+                if (stmt.executeUpdate() == 0) {
+                    return;
+                }
+            }
+            recordWhitelistChange(conn, WhitelistChange.Type.RENAMED, uuid, name);
         });
     }
     
     @Override
     public @NotNull CompletableFuture<Void> removeFromWhitelist(@NotNull UUID uuid) {
-        return runAsync(conn -> {
-            String sql = "DELETE FROM " + table("whitelist") + " WHERE uuid = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runInTransaction(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.deleteWhitelisted)) {
                 stmt.setString(1, uuid.toString());
                 stmt.executeUpdate();
             }
+            recordWhitelistChange(conn, WhitelistChange.Type.REMOVED, uuid, null);
         });
     }
     
     @Override
     public @NotNull CompletableFuture<Void> clearWhitelist() {
-        return runAsync(conn -> {
-            String sql = "DELETE FROM " + table("whitelist");
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runInTransaction(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.deleteWhitelist)) {
                 stmt.executeUpdate();
             }
+            
+            // Older changes are superseded by the clear, so the log is compacted here
+            try (PreparedStatement stmt = prepare(conn, dialect.deleteWhitelistChanges)) {
+                stmt.executeUpdate();
+            }
+            recordWhitelistChange(conn, WhitelistChange.Type.CLEARED, null, null);
         });
     }
     
-    // Statistics - Using simplified constructor (4 params)
+    @Override
+    public @NotNull CompletableFuture<Long> getWhitelistVersion() {
+        return supplyAsync(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.selectWhitelistVersion)) {
+                ResultSet rs = stmt.executeQuery();
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<List<WhitelistChange>> getWhitelistChangesSince(long version) {
+        return supplyAsync(conn -> {
+            List<WhitelistChange> changes = new ArrayList<>();
+            try (PreparedStatement stmt = prepare(conn, dialect.selectWhitelistChangesSince)) {
+                stmt.setLong(1, version);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    String uuid = rs.getString("uuid");
+                    changes.add(new WhitelistChange(
+                        rs.getLong("id"),
+                        WhitelistChange.Type.valueOf(rs.getString("action")),
+                        uuid != null ? UUID.fromString(uuid) : null,
+                        rs.getString("name")
+                    ));
+                }
+            }
+            return changes;
+        });
+    }
+    
+    /**
+     * Deletes up to {@code limit} changes older than the given time, always
+     * keeping the latest one: its id is the whitelist version, and MySQL
+     * may reuse ids after a restart once the table is empty.
+     */
+    private CompletableFuture<Integer> deleteWhitelistChangesBefore(long changedAt, long latest, int limit) {
+        int[] deleted = new int[1];
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.deleteWhitelistChangesBefore)) {
+                stmt.setLong(1, changedAt);
+                stmt.setLong(2, latest);
+                stmt.setInt(3, limit);
+                deleted[0] = stmt.executeUpdate();
+            }
+        }).thenApply(v -> deleted[0]);
+    }
+    
+    /**
+     * Deletes whitelist changes older than {@link #WHITELIST_CHANGES_RETENTION}
+     * in small batches; servers that were offline meanwhile reload the
+     * whole whitelist anyway.
+     */
+    private CompletableFuture<Void> pruneWhitelistChanges() {
+        long cutoff = System.currentTimeMillis() - WHITELIST_CHANGES_RETENTION.toMillis();
+        return getWhitelistVersion().thenCompose(latest ->
+            pruneBatches(() -> deleteWhitelistChangesBefore(cutoff, latest, RETENTION_BATCH_SIZE))
+        );
+    }
+    
+    private void recordWhitelistChange(
+        @NotNull Connection conn,
+        @NotNull WhitelistChange.Type type,
+        @Nullable UUID uuid,
+        @Nullable String name
+    ) throws SQLException {
+        try (PreparedStatement stmt = prepare(conn, dialect.insertWhitelistChange)) {
+            stmt.setString(1, uuid != null ? uuid.toString() : null);
+            stmt.setString(2, name);
+            stmt.setString(3, type.name());
+            stmt.setLong(4, System.currentTimeMillis());
+            stmt.executeUpdate();
+        }
+    }
+    
+    // Statistics - counters are buffered in memory and flushed periodically
     
     @Override
     public @NotNull CompletableFuture<MaintenanceStats> getStats() {
         return supplyAsync(conn -> {
-            String sql = "SELECT * FROM " + table("stats") + " WHERE id = 1";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            StatsAccumulator.Delta pending = stats.pending();
+            try (PreparedStatement stmt = prepare(conn, dialect.selectStats)) {
                 ResultSet rs = stmt.executeQuery();
                 if (rs.next()) {
                     return new MaintenanceStats(
-                        rs.getInt("total_sessions"),
-                        Duration.ofMillis(rs.getLong("total_duration")),
-                        rs.getInt("players_kicked"),
-                        rs.getInt("connections_blocked")
+                        (int) (rs.getInt("total_sessions") + pending.getSessions()),
+                        Duration.ofMillis(rs.getLong("total_duration") + pending.getDuration()),
+                        (int) (rs.getInt("players_kicked") + pending.getPlayersKicked()),
+                        (int) (rs.getInt("connections_blocked") + pending.getConnectionsBlocked())
                     );
                 }
-                return new MaintenanceStats(0, Duration.ZERO, 0, 0);
+                return new MaintenanceStats(
+                    (int) pending.getSessions(),
+                    Duration.ofMillis(pending.getDuration()),
+                    (int) pending.getPlayersKicked(),
+                    (int) pending.getConnectionsBlocked()
+                );
             }
         });
     }
     
     @Override
     public @NotNull CompletableFuture<Void> incrementSessions() {
-        return runAsync(conn -> {
-            String sql = "UPDATE " + table("stats") + " SET total_sessions = total_sessions + 1 WHERE id = 1";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.executeUpdate();
-            }
-        });
+        stats.addSessions(1);
+        return CompletableFuture.completedFuture(null);
     }
     
     @Override
     public @NotNull CompletableFuture<Void> addDuration(long milliseconds) {
-        return runAsync(conn -> {
-            String sql = "UPDATE " + table("stats") + " SET total_duration = total_duration + ? WHERE id = 1";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setLong(1, milliseconds);
-                stmt.executeUpdate();
-            }
-        });
+        stats.addDuration(milliseconds);
+        return CompletableFuture.completedFuture(null);
     }
     
     @Override
     public @NotNull CompletableFuture<Void> incrementPlayersKicked(int count) {
-        return runAsync(conn -> {
-            String sql = "UPDATE " + table("stats") + " SET players_kicked = players_kicked + ? WHERE id = 1";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, count);
-                stmt.executeUpdate();
-            }
-        });
+        stats.addPlayersKicked(count);
+        return CompletableFuture.completedFuture(null);
     }
     
     @Override
     public @NotNull CompletableFuture<Void> incrementConnectionsBlocked() {
-        return runAsync(conn -> {
-            String sql = "UPDATE " + table("stats") + " SET connections_blocked = connections_blocked + 1 WHERE id = 1";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        stats.addConnectionsBlocked(1);
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<Void> incrementConnectionsBlocked(int count) {
+        stats.addConnectionsBlocked(count);
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    /**
+     * Writes the buffered counter deltas in a single UPDATE.
+     * <p>
+     * Deltas are put back if the write fails and retried on the next flush.
+     * </p>
+     */
+    protected CompletableFuture<Void> flushStats() {
+        StatsAccumulator.Delta delta = stats.drain();
+        if (delta.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        CompletableFuture<Void> future = runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.addStats)) {
+                stmt.setLong(1, delta.getSessions());
+                stmt.setLong(2, delta.getDuration());
+                stmt.setLong(3, delta.getPlayersKicked());
+                stmt.setLong(4, delta.getConnectionsBlocked());
                 stmt.executeUpdate();
             }
         });
+        future.whenComplete((v, e) -> {
+            if (e != null) {
+                stats.restore(delta);
+            }
+        });
+        return future;
     }
     
     @Override
     public @NotNull CompletableFuture<Void> setLastStarted(long timestamp) {
-        return runAsync(conn -> {
-            String sql = "UPDATE " + table("stats") + " SET last_started = ? WHERE id = 1";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.updateLastStarted)) {
                 stmt.setLong(1, timestamp);
                 stmt.executeUpdate();
             }
@@ -335,9 +664,8 @@ protected interface DatabaseRunnable {
     
     @Override
     public @NotNull CompletableFuture<Void> setLastEnded(long timestamp) {
-        return runAsync(conn -> {
-            String sql = "UPDATE " + table("stats") + " SET last_ended = ? WHERE id = 1";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.updateLastEnded)) {
                 stmt.setLong(1, timestamp);
                 stmt.executeUpdate();
             }
@@ -355,10 +683,8 @@ protected interface DatabaseRunnable {
         @Nullable String startedBy,
         int playersKicked
     ) {
-        return runAsync(conn -> {
-            String sql = "INSERT INTO " + table("history") + 
-                        " (start_time, end_time, mode, reason, started_by, players_kicked) VALUES (?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.insertSession)) {
                 stmt.setLong(1, startTime);
                 stmt.setLong(2, endTime);
                 stmt.setString(3, mode);
@@ -373,34 +699,182 @@ protected interface DatabaseRunnable {
     @Override
     public @NotNull CompletableFuture<List<MaintenanceSession>> getRecentSessions(int limit) {
         return supplyAsync(conn -> {
-            String sql = "SELECT * FROM " + table("history") + " ORDER BY start_time DESC LIMIT ?";
             List<MaintenanceSession> sessions = new ArrayList<>();
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = prepare(conn, dialect.selectRecentSessions)) {
                 stmt.setInt(1, limit);
                 ResultSet rs = stmt.executeQuery();
                 while (rs.next()) {
-                    sessions.add(new MaintenanceSession(
-                        rs.getInt("id"),
-                        rs.getLong("start_time"),
-                        rs.getLong("end_time"),
-                        rs.getString("mode"),
-                        rs.getString("reason"),
-                        rs.getString("started_by"),
-                        rs.getInt("players_kicked")
-                    ));
+                    sessions.add(readSession(rs));
                 }
             }
             return sessions;
         });
     }
     
+    @Override
+    public @NotNull CompletableFuture<List<MaintenanceSession>> getSessionsBefore(long startTime, int id, int pageSize) {
+        return supplyAsync(conn -> {
+            List<MaintenanceSession> sessions = new ArrayList<>();
+            try (PreparedStatement stmt = prepare(conn, dialect.selectSessionsBefore)) {
+                stmt.setLong(1, startTime);
+                stmt.setLong(2, startTime);
+                stmt.setInt(3, id);
+                stmt.setInt(4, pageSize);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    sessions.add(readSession(rs));
+                }
+            }
+            return sessions;
+        });
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<List<MaintenanceSession>> getSessionsBetween(long from, long to, int limit) {
+        return supplyAsync(conn -> {
+            List<MaintenanceSession> sessions = new ArrayList<>();
+            try (PreparedStatement stmt = prepare(conn, dialect.selectSessionsBetween)) {
+                stmt.setLong(1, from);
+                stmt.setLong(2, to);
+                stmt.setInt(3, limit);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    sessions.add(readSession(rs));
+                }
+            }
+            return sessions;
+        });
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<Integer> visitSessions(long from, long to, @NotNull SessionVisitor visitor) {
+        return supplyAsync(conn -> {
+            // Drivers only stream rows inside a transaction (PostgreSQL) or with a fetch size hint
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            int visited = 0;
+            try (PreparedStatement stmt = prepare(conn, dialect.selectSessionsAscending)) {
+                stmt.setFetchSize(dialect.streamFetchSize);
+                stmt.setLong(1, from);
+                stmt.setLong(2, to);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    visited++;
+                    if (!visitor.visit(readSession(rs))) {
+                        break;
+                    }
+                }
+            } finally {
+                conn.commit();
+                conn.setAutoCommit(autoCommit);
+            }
+            return visited;
+        });
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<Integer> deleteSessionsBefore(long startTime, int limit) {
+        int[] deleted = new int[1];
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.deleteSessionsBefore)) {
+                stmt.setLong(1, startTime);
+                stmt.setInt(2, limit);
+                deleted[0] = stmt.executeUpdate();
+            }
+        }).thenApply(v -> deleted[0]);
+    }
+    
+    /**
+     * Deletes sessions older than the retention period in small batches.
+     * <p>
+     * Each batch is a separate short write, so pruning a large backlog
+     * never holds locks (or the SQLite writer) for long.
+     * </p>
+     */
+    private CompletableFuture<Void> pruneHistory() {
+        long cutoff = System.currentTimeMillis() - historyRetention.toMillis();
+        return pruneBatches(() -> deleteSessionsBefore(cutoff, RETENTION_BATCH_SIZE));
+    }
+    
+    /**
+     * Runs delete batches back to back until one comes back short.
+     * <p>
+     * Batches are chained rather than joined, so the scheduler thread that
+     * also flushes stats is never held while they run.
+     * </p>
+     */
+    private CompletableFuture<Void> pruneBatches(@NotNull Supplier<CompletableFuture<Integer>> batch) {
+        return batch.get().thenCompose(deleted ->
+            deleted >= RETENTION_BATCH_SIZE && !scheduler.isShutdown()
+                ? pruneBatches(batch)
+                : CompletableFuture.completedFuture(null)
+        );
+    }
+    
+    /**
+     * Schedules a pruning task, re-arming it {@link #RETENTION_INTERVAL}
+     * after each run completes so runs never overlap.
+     */
+    private void schedulePrune(
+        @NotNull String name,
+        @NotNull Supplier<CompletableFuture<Void>> task,
+        long delayMillis
+    ) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            CompletableFuture<Void> run;
+            try {
+                run = task.get();
+            } catch (RuntimeException e) {
+                run = CompletableFuture.failedFuture(e);
+            }
+            run.whenComplete((v, e) -> {
+                if (e != null) {
+                    logger.warn("Failed to prune " + name + ", retrying in "
+                        + RETENTION_INTERVAL.toMinutes() + " minutes: " + e.getMessage());
+                }
+                schedulePrune(name, task, RETENTION_INTERVAL.toMillis());
+            });
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    private static long startupPruneDelay() {
+        return PRUNE_STARTUP_DELAY.toMillis()
+            + ThreadLocalRandom.current().nextLong(PRUNE_STARTUP_JITTER.toMillis());
+    }
+    
+    @NotNull
+    private static WhitelistedPlayer readWhitelistedPlayer(@NotNull ResultSet rs) throws SQLException {
+        return new WhitelistedPlayer(
+            UUID.fromString(rs.getString("uuid")),
+            rs.getString("name"),
+            rs.getString("reason"),
+            rs.getLong("added_at"),
+            rs.getString("added_by")
+        );
+    }
+    
+    @NotNull
+    private static MaintenanceSession readSession(@NotNull ResultSet rs) throws SQLException {
+        return new MaintenanceSession(
+            rs.getInt("id"),
+            rs.getLong("start_time"),
+            rs.getLong("end_time"),
+            rs.getString("mode"),
+            rs.getString("reason"),
+            rs.getString("started_by"),
+            rs.getInt("players_kicked")
+        );
+    }
+    
     // Scheduled Maintenance
     
     @Override
     public @NotNull CompletableFuture<Long> getScheduledStart() {
         return supplyAsync(conn -> {
-            String sql = "SELECT scheduled_start FROM " + table("schedule") + " ORDER BY id DESC LIMIT 1";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = prepare(conn, dialect.selectScheduledStart)) {
                 ResultSet rs = stmt.executeQuery();
                 return rs.next() ? rs.getLong("scheduled_start") : 0L;
             }
@@ -409,9 +883,8 @@ protected interface DatabaseRunnable {
     
     @Override
     public @NotNull CompletableFuture<Void> setScheduledStart(long timestamp) {
-        return runAsync(conn -> {
-            String sql = "REPLACE INTO " + table("schedule") + " (id, scheduled_start, scheduled_end) VALUES (1, ?, (SELECT scheduled_end FROM " + table("schedule") + " WHERE id = 1))";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.upsertScheduledStart)) {
                 stmt.setLong(1, timestamp);
                 stmt.executeUpdate();
             }
@@ -421,8 +894,7 @@ protected interface DatabaseRunnable {
     @Override
     public @NotNull CompletableFuture<Long> getScheduledEnd() {
         return supplyAsync(conn -> {
-            String sql = "SELECT scheduled_end FROM " + table("schedule") + " ORDER BY id DESC LIMIT 1";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = prepare(conn, dialect.selectScheduledEnd)) {
                 ResultSet rs = stmt.executeQuery();
                 return rs.next() ? rs.getLong("scheduled_end") : 0L;
             }
@@ -431,9 +903,8 @@ protected interface DatabaseRunnable {
     
     @Override
     public @NotNull CompletableFuture<Void> setScheduledEnd(long timestamp) {
-        return runAsync(conn -> {
-            String sql = "REPLACE INTO " + table("schedule") + " (id, scheduled_start, scheduled_end) VALUES (1, (SELECT scheduled_start FROM " + table("schedule") + " WHERE id = 1), ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.upsertScheduledEnd)) {
                 stmt.setLong(1, timestamp);
                 stmt.executeUpdate();
             }
@@ -442,9 +913,8 @@ protected interface DatabaseRunnable {
     
     @Override
     public @NotNull CompletableFuture<Void> clearSchedule() {
-        return runAsync(conn -> {
-            String sql = "DELETE FROM " + table("schedule");
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return runWrite(conn -> {
+            try (PreparedStatement stmt = prepare(conn, dialect.deleteSchedule)) {
                 stmt.executeUpdate();
             }
         });
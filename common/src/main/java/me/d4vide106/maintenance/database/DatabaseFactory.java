@@ -1,9 +1,12 @@
 package me.d4vide106.maintenance.database;
 
 import me.d4vide106.maintenance.config.MaintenanceConfig;
+import me.d4vide106.maintenance.util.IoExecutors;
+import me.d4vide106.maintenance.util.Logger;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.file.Path;
+import java.time.Duration;
 
 /**
  * Factory for creating database providers.
@@ -14,13 +17,20 @@ public class DatabaseFactory {
      * Creates a database provider based on configuration.
      */
     @NotNull
-    public static DatabaseProvider create(@NotNull MaintenanceConfig config, @NotNull Path dataFolder) {
+    public static DatabaseProvider create(
+        @NotNull MaintenanceConfig config,
+        @NotNull Path dataFolder,
+        @NotNull Logger logger
+    ) {
         String type = config.getDatabaseType().toLowerCase();
         String tablePrefix = config.getDatabaseTablePrefix();
+        Duration statsFlushInterval = Duration.ofSeconds(config.getStatsFlushInterval());
+        Duration historyRetention = Duration.ofDays(Math.max(0, config.getHistoryRetentionDays()));
+        IoExecutors.Mode ioMode = IoExecutors.Mode.parse(config.getIoThreads());
         
         switch (type) {
             case "sqlite":
-                return new SQLiteDatabase(dataFolder.toFile(), tablePrefix);
+                return new SQLiteDatabase(dataFolder.toFile(), tablePrefix, statsFlushInterval, historyRetention, ioMode, logger);
             
             case "mysql":
                 return new MySQLDatabase(
@@ -31,12 +41,29 @@ public static DatabaseProvider create(@NotNull MaintenanceConfig config, @NotNul
                     config.getDatabasePassword(),
                     false, // useSSL - can be added to config later
                     config.getDatabasePoolSize(),
-                    tablePrefix
+                    tablePrefix,
+                    statsFlushInterval,
+                    historyRetention,
+                    ioMode,
+                    logger
                 );
             
             case "postgresql":
             case "postgres":
-                throw new UnsupportedOperationException("PostgreSQL support coming in v1.1.0");
+                return new PostgreSQLDatabase(
+                    config.getDatabaseHost(),
+                    config.getDatabasePort(),
+                    config.getDatabaseName(),
+                    config.getDatabaseUsername(),
+                    config.getDatabasePassword(),
+                    false, // useSSL - can be added to config later
+                    config.getDatabasePoolSize(),
+                    tablePrefix,
+                    statsFlushInterval,
+                    historyRetention,
+                    ioMode,
+                    logger
+                );
             
             default:
                 throw new IllegalArgumentException("Unknown database type: " + type);
@@ -76,6 +76,17 @@ public interface DatabaseProvider {
      */
     @NotNull CompletableFuture<Void> setMaintenanceReason(@Nullable String reason);
     
+    /**
+     * Loads the enabled flag, mode and reason in a single query.
+     */
+    @NotNull CompletableFuture<MaintenanceState> loadState();
+    
+    /**
+     * Saves the enabled flag, mode and reason in a single transaction,
+     * so other servers never observe a partially written state.
+     */
+    @NotNull CompletableFuture<Void> saveState(@NotNull MaintenanceState state);
+    
     // ============================================
     // WHITELIST
     // ============================================
@@ -90,11 +101,40 @@ public interface DatabaseProvider {
      */
     @NotNull CompletableFuture<List<WhitelistedPlayer>> getWhitelistedPlayers();
     
+    /**
+     * Gets a whitelisted player with their metadata.
+     *
+     * @return the player, or null if not whitelisted
+     */
+    @NotNull CompletableFuture<WhitelistedPlayer> getWhitelistedPlayer(@NotNull UUID uuid);
+    
+    /**
+     * Gets the UUIDs of all whitelisted players, without their metadata.
+     * <p>
+     * Used to warm the in-memory whitelist in a single pass at startup.
+     * </p>
+     */
+    @NotNull CompletableFuture<List<UUID>> getWhitelistedUuids();
+    
+    /**
+     * Gets the names of all whitelisted players, as they were added.
+     * <p>
+     * Used to reject connections by name before they are authenticated.
+     * </p>
+     */
+    @NotNull CompletableFuture<List<String>> getWhitelistedNames();
+    
     /**
      * Adds a player to the whitelist.
      */
     @NotNull CompletableFuture<Void> addToWhitelist(@NotNull WhitelistedPlayer player);
     
+    /**
+     * Updates the stored name of a whitelisted player; does nothing if the
+     * player is not whitelisted.
+     */
+    @NotNull CompletableFuture<Void> renameWhitelisted(@NotNull UUID uuid, @NotNull String name);
+    
     /**
      * Removes a player from the whitelist.
      */
@@ -105,6 +145,24 @@ public interface DatabaseProvider {
      */
     @NotNull CompletableFuture<Void> clearWhitelist();
     
+    /**
+     * Gets the current whitelist version.
+     * 
+     * @return the version of the newest change log entry, or 0 if there is none
+     */
+    @NotNull CompletableFuture<Long> getWhitelistVersion();
+    
+    /**
+     * Gets the whitelist changes made after the given version, oldest first.
+     * <p>
+     * Lets each server apply only the deltas since its last sync instead of
+     * reloading the whole whitelist.
+     * </p>
+     * 
+     * @param version the last version the caller has applied
+     */
+    @NotNull CompletableFuture<List<WhitelistChange>> getWhitelistChangesSince(long version);
+    
     // ============================================
     // STATISTICS
     // ============================================
@@ -134,6 +192,11 @@ public interface DatabaseProvider {
      */
     @NotNull CompletableFuture<Void> incrementConnectionsBlocked();
     
+    /**
+     * Increments connections blocked count by a batch of connections.
+     */
+    @NotNull CompletableFuture<Void> incrementConnectionsBlocked(int count);
+    
     /**
      * Sets the last started timestamp.
      */
@@ -167,6 +230,55 @@ public interface DatabaseProvider {
      */
     @NotNull CompletableFuture<List<MaintenanceSession>> getRecentSessions(int limit);
     
+    /**
+     * Gets one page of sessions ordered before a cursor, newest first.
+     * <p>
+     * Sessions are ordered by start time, then id. Pass the start time and
+     * id of the last session of a page to get the next one; the query seeks
+     * through the start time index instead of skipping rows, so every page
+     * costs the same, and sessions sharing a start time are neither skipped
+     * nor repeated.
+     * </p>
+     * 
+     * @param startTime start time of the cursor, {@link Long#MAX_VALUE} for the first page
+     * @param id id of the cursor, {@link Integer#MAX_VALUE} for the first page
+     * @param pageSize maximum number of sessions to retrieve
+     */
+    @NotNull CompletableFuture<List<MaintenanceSession>> getSessionsBefore(long startTime, int id, int pageSize);
+    
+    /**
+     * Gets the sessions that started in a time range, newest first.
+     * 
+     * @param from inclusive lower bound of the start time
+     * @param to exclusive upper bound of the start time
+     * @param limit maximum number of sessions to retrieve
+     */
+    @NotNull CompletableFuture<List<MaintenanceSession>> getSessionsBetween(long from, long to, int limit);
+    
+    /**
+     * Streams the sessions that started in a time range to a visitor, oldest first.
+     * <p>
+     * Rows are read with a cursor and handed over one at a time, so exports
+     * never hold the whole history in memory. The visitor runs on a
+     * database thread.
+     * </p>
+     * 
+     * @param from inclusive lower bound of the start time
+     * @param to exclusive upper bound of the start time
+     * @return the number of sessions visited
+     */
+    @NotNull CompletableFuture<Integer> visitSessions(long from, long to, @NotNull SessionVisitor visitor);
+    
+    /**
+     * Deletes up to {@code limit} of the oldest sessions that started before a point in time.
+     * <p>
+     * Lifetime totals live in the stats table and are not affected.
+     * </p>
+     * 
+     * @return the number of sessions deleted
+     */
+    @NotNull CompletableFuture<Integer> deleteSessionsBefore(long startTime, int limit);
+    
     // ============================================
     // SCHEDULED MAINTENANCE
     // ============================================
@@ -0,0 +1,58 @@
+package me.d4vide106.maintenance.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Persisted maintenance state, read and written as one unit.
+ */
+public final class MaintenanceState {
+    
+    private final boolean enabled;
+    private final String mode;
+    private final String reason;
+    
+    public MaintenanceState(boolean enabled, @NotNull String mode, @Nullable String reason) {
+        this.enabled = enabled;
+        this.mode = Objects.requireNonNull(mode, "Mode cannot be null");
+        this.reason = reason;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @NotNull
+    public String getMode() {
+        return mode;
+    }
+    
+    @Nullable
+    public String getReason() {
+        return reason;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MaintenanceState)) return false;
+        MaintenanceState that = (MaintenanceState) o;
+        return enabled == that.enabled && mode.equals(that.mode) && Objects.equals(reason, that.reason);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, mode, reason);
+    }
+    
+    @Override
+    public String toString() {
+        return "MaintenanceState{" +
+               "enabled=" + enabled +
+               ", mode='" + mode + '\'' +
+               ", reason='" + reason + '\'' +
+               '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package me.d4vide106.maintenance.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One versioned step of a provider's schema.
+ * <p>
+ * Versions start at 1 and increase by provider; a step is applied once
+ * and recorded in the {@code schema_version} table. Steps should stay
+ * idempotent ({@code IF NOT EXISTS}) because databases without
+ * transactional DDL (MySQL) cannot roll a half-applied step back.
+ * Adding a column has no portable {@code IF NOT EXISTS}, so such steps
+ * are built with {@link #addColumn} and skipped when the column exists.
+ * </p>
+ */
+public final class Migration {
+    
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+    private final String table;
+    private final String column;
+    
+    public Migration(int version, @NotNull String description, @NotNull String... statements) {
+        this(version, description, null, null, statements);
+    }
+    
+    private Migration(
+        int version,
+        @NotNull String description,
+        @Nullable String table,
+        @Nullable String column,
+        @NotNull String[] statements
+    ) {
+        if (version < 1) {
+            throw new IllegalArgumentException("Migration version must be positive: " + version);
+        }
+        this.version = version;
+        this.description = Objects.requireNonNull(description, "Description cannot be null");
+        this.statements = Collections.unmodifiableList(Arrays.asList(statements.clone()));
+        this.table = table;
+        this.column = column;
+    }
+    
+    /**
+     * Creates a step that adds a column, and is only recorded if the
+     * column already exists.
+     *
+     * @param table the full table name
+     * @param column the column name
+     * @param definition the column type and constraints
+     */
+    @NotNull
+    public static Migration addColumn(
+        int version,
+        @NotNull String description,
+        @NotNull String table,
+        @NotNull String column,
+        @NotNull String definition
+    ) {
+        return new Migration(version, description, table, column, new String[] {
+            "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition
+        });
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    @NotNull
+    public String getDescription() {
+        return description;
+    }
+    
+    @NotNull
+    public List<String> getStatements() {
+        return statements;
+    }
+    
+    /**
+     * Gets the table of the column this step adds, or null if it adds none.
+     */
+    @Nullable
+    public String getTable() {
+        return table;
+    }
+    
+    /**
+     * Gets the column this step adds, or null if it adds none.
+     */
+    @Nullable
+    public String getColumn() {
+        return column;
+    }
+}
\ No newline at end of file
@@ -1,8 +1,14 @@
 package me.d4vide106.maintenance.database;
 
 import com.zaxxer.hikari.HikariConfig;
+import me.d4vide106.maintenance.util.IoExecutors;
+import me.d4vide106.maintenance.util.Logger;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * MySQL/MariaDB database implementation.
  * <p>
@@ -31,9 +37,13 @@ public MySQLDatabase(
         @NotNull String password,
         boolean useSSL,
         int poolSize,
-        @NotNull String tablePrefix
+        @NotNull String tablePrefix,
+        @NotNull Duration statsFlushInterval,
+        @NotNull Duration historyRetention,
+        @NotNull IoExecutors.Mode ioMode,
+        @NotNull Logger logger
     ) {
-        super(tablePrefix);
+        super(new MySQLDialect(tablePrefix), statsFlushInterval, historyRetention, ioMode, logger);
         this.host = host;
         this.port = port;
         this.database = database;
@@ -76,57 +86,76 @@ protected HikariConfig getHikariConfig() {
     }
     
     @Override
-    protected String[] getCreateTableStatements() {
-        return new String[] {
-            // Settings table
-            "CREATE TABLE IF NOT EXISTS " + table("settings") + " (" +
-            "  `key` VARCHAR(255) PRIMARY KEY," +
-            "  `value` TEXT NOT NULL" +
-            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
-            
-            // Whitelist table
-            "CREATE TABLE IF NOT EXISTS " + table("whitelist") + " (" +
-            "  uuid VARCHAR(36) PRIMARY KEY," +
-            "  name VARCHAR(16) NOT NULL," +
-            "  reason TEXT," +
-            "  added_at BIGINT NOT NULL," +
-            "  added_by VARCHAR(255)," +
-            "  INDEX idx_name (name)" +
-            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
-            
-            // Statistics table
-            "CREATE TABLE IF NOT EXISTS " + table("stats") + " (" +
-            "  id INT PRIMARY KEY AUTO_INCREMENT," +
-            "  total_sessions INT DEFAULT 0," +
-            "  total_duration BIGINT DEFAULT 0," +
-            "  last_started BIGINT DEFAULT 0," +
-            "  last_ended BIGINT DEFAULT 0," +
-            "  current_whitelisted INT DEFAULT 0," +
-            "  players_kicked INT DEFAULT 0," +
-            "  connections_blocked INT DEFAULT 0" +
-            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
-            
-            // History table
-            "CREATE TABLE IF NOT EXISTS " + table("history") + " (" +
-            "  id INT PRIMARY KEY AUTO_INCREMENT," +
-            "  start_time BIGINT NOT NULL," +
-            "  end_time BIGINT NOT NULL," +
-            "  mode VARCHAR(50) NOT NULL," +
-            "  reason TEXT," +
-            "  started_by VARCHAR(255)," +
-            "  players_kicked INT DEFAULT 0," +
-            "  INDEX idx_start_time (start_time)" +
-            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
-            
-            // Schedule table
-            "CREATE TABLE IF NOT EXISTS " + table("schedule") + " (" +
-            "  id INT PRIMARY KEY AUTO_INCREMENT," +
-            "  scheduled_start BIGINT NOT NULL," +
-            "  scheduled_end BIGINT NOT NULL" +
-            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
-            
-            // Initialize default stats row
-            "INSERT IGNORE INTO " + table("stats") + " (id) VALUES (1)"
-        };
+    protected boolean isStatementCacheEnabled() {
+        // Connector/J caches statements itself (cachePrepStmts)
+        return false;
+    }
+    
+    @Override
+    protected List<Migration> getMigrations() {
+        return Arrays.asList(
+            new Migration(1, "Initial schema",
+                // Settings table
+                "CREATE TABLE IF NOT EXISTS " + table("settings") + " (" +
+                "  `key` VARCHAR(255) PRIMARY KEY," +
+                "  `value` TEXT NOT NULL" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+                
+                // Whitelist table
+                "CREATE TABLE IF NOT EXISTS " + table("whitelist") + " (" +
+                "  uuid VARCHAR(36) PRIMARY KEY," +
+                "  name VARCHAR(16) NOT NULL," +
+                "  reason TEXT," +
+                "  added_at BIGINT NOT NULL," +
+                "  added_by VARCHAR(255)," +
+                "  INDEX idx_name (name)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+                
+                // Whitelist change log, id is the whitelist version
+                "CREATE TABLE IF NOT EXISTS " + table("whitelist_changes") + " (" +
+                "  id BIGINT PRIMARY KEY AUTO_INCREMENT," +
+                "  uuid VARCHAR(36)," +
+                "  action VARCHAR(16) NOT NULL," +
+                "  changed_at BIGINT NOT NULL" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+                
+                // Statistics table
+                "CREATE TABLE IF NOT EXISTS " + table("stats") + " (" +
+                "  id INT PRIMARY KEY AUTO_INCREMENT," +
+                "  total_sessions INT DEFAULT 0," +
+                "  total_duration BIGINT DEFAULT 0," +
+                "  last_started BIGINT DEFAULT 0," +
+                "  last_ended BIGINT DEFAULT 0," +
+                "  current_whitelisted INT DEFAULT 0," +
+                "  players_kicked INT DEFAULT 0," +
+                "  connections_blocked INT DEFAULT 0" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+                
+                // History table
+                "CREATE TABLE IF NOT EXISTS " + table("history") + " (" +
+                "  id INT PRIMARY KEY AUTO_INCREMENT," +
+                "  start_time BIGINT NOT NULL," +
+                "  end_time BIGINT NOT NULL," +
+                "  mode VARCHAR(50) NOT NULL," +
+                "  reason TEXT," +
+                "  started_by VARCHAR(255)," +
+                "  players_kicked INT DEFAULT 0," +
+                "  INDEX idx_start_time (start_time)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+                
+                // Schedule table
+                "CREATE TABLE IF NOT EXISTS " + table("schedule") + " (" +
+                "  id INT PRIMARY KEY AUTO_INCREMENT," +
+                "  scheduled_start BIGINT NOT NULL," +
+                "  scheduled_end BIGINT NOT NULL" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+                
+                // Initialize default stats row
+                "INSERT IGNORE INTO " + table("stats") + " (id) VALUES (1)"
+            ),
+            Migration.addColumn(2, "Record names in the whitelist change log",
+                table("whitelist_changes"), "name", "VARCHAR(16)"
+            )
+        );
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package me.d4vide106.maintenance.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * MySQL/MariaDB syntax: backtick quoting, ON DUPLICATE KEY UPDATE and
+ * GET_LOCK for named locks.
+ */
+class MySQLDialect extends SqlDialect {
+    
+    MySQLDialect(@NotNull String tablePrefix) {
+        super(tablePrefix);
+    }
+    
+    @Override
+    protected @NotNull String quote(@NotNull String identifier) {
+        return "`" + identifier + "`";
+    }
+    
+    @Override
+    protected @Nullable String acquireLock(@NotNull String name) {
+        return "SELECT GET_LOCK('" + name.replace("'", "''") + "', 60)";
+    }
+    
+    @Override
+    protected @Nullable String releaseLock(@NotNull String name) {
+        return "SELECT RELEASE_LOCK('" + name.replace("'", "''") + "')";
+    }
+    
+    @Override
+    protected @NotNull String countColumn() {
+        return "SELECT COUNT(*) FROM information_schema.COLUMNS" +
+               " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+    }
+    
+    @Override
+    protected @NotNull String deleteOldest(@NotNull String table, @NotNull String condition, @NotNull String orderBy) {
+        // MySQL supports neither LIMIT in an IN subquery nor selecting from the target table
+        return "DELETE FROM " + table + " WHERE " + condition + " ORDER BY " + orderBy + " LIMIT ?";
+    }
+    
+    @Override
+    protected int streamingFetchSize() {
+        // Connector/J only streams rows with this exact value
+        return Integer.MIN_VALUE;
+    }
+    
+    @Override
+    protected @NotNull String upsert(
+        @NotNull String table,
+        @NotNull String[] columns,
+        @NotNull String[] values,
+        @NotNull String key,
+        @NotNull String... updated
+    ) {
+        StringBuilder sql = insert(table, columns, values);
+        sql.append(" ON DUPLICATE KEY UPDATE ");
+        for (int i = 0; i < updated.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(updated[i]).append(" = VALUES(").append(updated[i]).append(")");
+        }
+        return sql.toString();
+    }
+}
\ No newline at end of file
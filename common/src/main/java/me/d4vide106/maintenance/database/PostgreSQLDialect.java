@@ -0,0 +1,39 @@
+package me.d4vide106.maintenance.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * PostgreSQL syntax: ANSI quoting and ON CONFLICT upserts as in the base
+ * dialect, with UUIDs bound to native {@code uuid} columns and advisory
+ * locks for named locks.
+ */
+class PostgreSQLDialect extends SqlDialect {
+    
+    PostgreSQLDialect(@NotNull String tablePrefix) {
+        super(tablePrefix);
+    }
+    
+    @Override
+    protected @Nullable String acquireLock(@NotNull String name) {
+        // Advisory locks are keyed by number; 1 keeps the MySQL success convention
+        return "SELECT 1 FROM pg_advisory_lock(" + name.hashCode() + ")";
+    }
+    
+    @Override
+    protected @Nullable String releaseLock(@NotNull String name) {
+        return "SELECT pg_advisory_unlock(" + name.hashCode() + ")";
+    }
+    
+    @Override
+    protected @NotNull String countColumn() {
+        return "SELECT COUNT(*) FROM information_schema.columns" +
+               // Unquoted names are folded to lower case
+               " WHERE table_schema = current_schema() AND table_name = lower(?) AND column_name = ?";
+    }
+    
+    @Override
+    protected @NotNull String uuidParameter() {
+        return "CAST(? AS uuid)";
+    }
+}
\ No newline at end of file
@@ -1,15 +1,28 @@
 package me.d4vide106.maintenance.database;
 
 import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import me.d4vide106.maintenance.util.IoExecutors;
+import me.d4vide106.maintenance.util.Logger;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * SQLite database implementation.
  * <p>
  * Recommended for single servers without shared database needs.
  * </p>
+ * <p>
+ * The database runs in WAL mode so reads never wait for writes. Reads use
+ * a small connection pool; all writes go through one {@link SQLiteWriter}
+ * thread that owns a dedicated connection and groups queued writes into a
+ * single transaction.
+ * </p>
  * 
  * @author D4vide106
  * @version 1.0.0
@@ -17,77 +30,147 @@
  */
 public class SQLiteDatabase extends AbstractDatabase {
     
+    private static final int READ_POOL_SIZE = 4;
+    
     private final File databaseFile;
+    private SQLiteWriter writer;
     
-    public SQLiteDatabase(@NotNull File dataFolder, @NotNull String tablePrefix) {
-        super(tablePrefix);
+    public SQLiteDatabase(
+        @NotNull File dataFolder,
+        @NotNull String tablePrefix,
+        @NotNull Duration statsFlushInterval,
+        @NotNull Duration historyRetention,
+        @NotNull IoExecutors.Mode ioMode,
+        @NotNull Logger logger
+    ) {
+        super(new SqlDialect(tablePrefix), statsFlushInterval, historyRetention, ioMode, logger);
         this.databaseFile = new File(dataFolder, "maintenance.db");
     }
     
     @Override
     protected HikariConfig getHikariConfig() {
+        HikariConfig config = createConfig("MaintenanceDB-SQLite");
+        config.setMaximumPoolSize(READ_POOL_SIZE);
+        config.setMinimumIdle(1);
+        return config;
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<Void> initialize() {
+        HikariConfig config = createConfig("MaintenanceDB-SQLite-Writer");
+        config.setMaximumPoolSize(1);
+        config.setMinimumIdle(1);
+        writer = new SQLiteWriter(new HikariDataSource(config));
+        return super.initialize();
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<Void> shutdown() {
+        // The superclass flushes pending stats through the writer before closing
+        return super.shutdown().whenComplete((v, e) -> {
+            if (writer != null) {
+                writer.close();
+            }
+        });
+    }
+    
+    @Override
+    protected CompletableFuture<Void> runWrite(DatabaseRunnable runnable) {
+        return writer.submit(runnable);
+    }
+    
+    @Override
+    protected CompletableFuture<Void> runInTransaction(DatabaseRunnable runnable) {
+        // Every writer batch already runs in a transaction, with a savepoint per write
+        return writer.submit(runnable);
+    }
+    
+    @NotNull
+    private HikariConfig createConfig(@NotNull String poolName) {
         HikariConfig config = new HikariConfig();
-        config.setPoolName("MaintenanceDB-SQLite");
+        config.setPoolName(poolName);
         config.setDriverClassName("org.sqlite.JDBC");
         config.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
         config.setConnectionTestQuery("SELECT 1");
-        config.setMaximumPoolSize(1); // SQLite doesn't support concurrent writes
-        config.setMinimumIdle(1);
-        config.setMaxLifetime(60000);
+        config.setMaxLifetime(0); // Local file, no reason to recycle connections
         config.setConnectionTimeout(5000);
+        
+        // Pragmas applied by the driver to every new connection
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        config.addDataSourceProperty("busy_timeout", "5000");
+        config.addDataSourceProperty("mmap_size", String.valueOf(64L * 1024 * 1024));
+        config.addDataSourceProperty("temp_store", "MEMORY");
+        config.addDataSourceProperty("foreign_keys", "true");
         return config;
     }
     
     @Override
-    protected String[] getCreateTableStatements() {
-        return new String[] {
-            // Settings table
-            "CREATE TABLE IF NOT EXISTS " + table("settings") + " (" +
-            "  key TEXT PRIMARY KEY," +
-            "  value TEXT NOT NULL" +
-            ")",
-            
-            // Whitelist table
-            "CREATE TABLE IF NOT EXISTS " + table("whitelist") + " (" +
-            "  uuid TEXT PRIMARY KEY," +
-            "  name TEXT NOT NULL," +
-            "  reason TEXT," +
-            "  added_at INTEGER NOT NULL," +
-            "  added_by TEXT" +
-            ")",
-            
-            // Statistics table
-            "CREATE TABLE IF NOT EXISTS " + table("stats") + " (" +
-            "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
-            "  total_sessions INTEGER DEFAULT 0," +
-            "  total_duration INTEGER DEFAULT 0," +
-            "  last_started INTEGER DEFAULT 0," +
-            "  last_ended INTEGER DEFAULT 0," +
-            "  current_whitelisted INTEGER DEFAULT 0," +
-            "  players_kicked INTEGER DEFAULT 0," +
-            "  connections_blocked INTEGER DEFAULT 0" +
-            ")",
-            
-            // History table
-            "CREATE TABLE IF NOT EXISTS " + table("history") + " (" +
-            "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
-            "  start_time INTEGER NOT NULL," +
-            "  end_time INTEGER NOT NULL," +
-            "  mode TEXT NOT NULL," +
-            "  reason TEXT," +
-            "  started_by TEXT," +
-            "  players_kicked INTEGER DEFAULT 0" +
-            ")",
-            
-            // Schedule table
-            "CREATE TABLE IF NOT EXISTS " + table("schedule") + " (" +
-            "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
-            "  scheduled_start INTEGER NOT NULL," +
-            "  scheduled_end INTEGER NOT NULL" +
-            ")",
-            
-            // Initialize default stats row
-            "INSERT OR IGNORE INTO " + table("stats") + " (id) VALUES (1)"
-        };
+    protected List<Migration> getMigrations() {
+        return Arrays.asList(
+            new Migration(1, "Initial schema",
+                // Settings table
+                "CREATE TABLE IF NOT EXISTS " + table("settings") + " (" +
+                "  key TEXT PRIMARY KEY," +
+                "  value TEXT NOT NULL" +
+                ")",
+                
+                // Whitelist table
+                "CREATE TABLE IF NOT EXISTS " + table("whitelist") + " (" +
+                "  uuid TEXT PRIMARY KEY," +
+                "  name TEXT NOT NULL," +
+                "  reason TEXT," +
+                "  added_at INTEGER NOT NULL," +
+                "  added_by TEXT" +
+                ")",
+                
+                // Whitelist change log, id is the whitelist version
+                "CREATE TABLE IF NOT EXISTS " + table("whitelist_changes") + " (" +
+                "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "  uuid TEXT," +
+                "  action TEXT NOT NULL," +
+                "  changed_at INTEGER NOT NULL" +
+                ")",
+                
+                // Statistics table
+                "CREATE TABLE IF NOT EXISTS " + table("stats") + " (" +
+                "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "  total_sessions INTEGER DEFAULT 0," +
+                "  total_duration INTEGER DEFAULT 0," +
+                "  last_started INTEGER DEFAULT 0," +
+                "  last_ended INTEGER DEFAULT 0," +
+                "  current_whitelisted INTEGER DEFAULT 0," +
+                "  players_kicked INTEGER DEFAULT 0," +
+                "  connections_blocked INTEGER DEFAULT 0" +
+                ")",
+                
+                // History table
+                "CREATE TABLE IF NOT EXISTS " + table("history") + " (" +
+                "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "  start_time INTEGER NOT NULL," +
+                "  end_time INTEGER NOT NULL," +
+                "  mode TEXT NOT NULL," +
+                "  reason TEXT," +
+                "  started_by TEXT," +
+                "  players_kicked INTEGER DEFAULT 0" +
+                ")",
+                
+                // Schedule table
+                "CREATE TABLE IF NOT EXISTS " + table("schedule") + " (" +
+                "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "  scheduled_start INTEGER NOT NULL," +
+                "  scheduled_end INTEGER NOT NULL" +
+                ")",
+                
+                // Initialize default stats row
+                "INSERT OR IGNORE INTO " + table("stats") + " (id) VALUES (1)"
+            ),
+            new Migration(2, "Index history by start time",
+                "CREATE INDEX IF NOT EXISTS " + table("history_start_time_idx") + " ON " + table("history") + " (start_time)"
+            ),
+            Migration.addColumn(3, "Record names in the whitelist change log",
+                table("whitelist_changes"), "name", "TEXT"
+            )
+        );
     }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package me.d4vide106.maintenance.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Single ordered writer for SQLite.
+ * <p>
+ * SQLite allows one writer at a time, so every write is queued to one
+ * thread that owns the write connection. Writes queued while a batch is
+ * running are applied together in the next transaction; each write gets
+ * its own savepoint, so one failing write does not roll back the others.
+ * </p>
+ */
+class SQLiteWriter {
+    
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final Write STOP = new Write(conn -> {});
+    
+    private final HikariDataSource dataSource;
+    private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private boolean running = true;
+    
+    SQLiteWriter(@NotNull HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+        this.thread = new Thread(this::run, "MaintenanceDB-SQLiteWriter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    
+    /**
+     * Queues a write. Writes are applied in submission order.
+     */
+    CompletableFuture<Void> submit(@NotNull AbstractDatabase.DatabaseRunnable runnable) {
+        Write write = new Write(runnable);
+        synchronized (queue) {
+            if (!running) {
+                write.future.completeExceptionally(new IllegalStateException("SQLite writer is closed"));
+                return write.future;
+            }
+            queue.add(write);
+        }
+        return write.future;
+    }
+    
+    /**
+     * Applies all queued writes, then stops the writer and closes its connection.
+     */
+    void close() {
+        synchronized (queue) {
+            running = false;
+            queue.add(STOP);
+        }
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dataSource.close();
+    }
+    
+    private void run() {
+        List<Write> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            // Everything queued before close() precedes STOP
+            stopped = batch.remove(STOP);
+            if (!batch.isEmpty()) {
+                apply(batch);
+            }
+            batch.clear();
+        }
+    }
+    
+    private void apply(@NotNull List<Write> batch) {
+        List<Write> applied = new ArrayList<>(batch.size());
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Write write : batch) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        write.runnable.run(conn);
+                        conn.releaseSavepoint(savepoint);
+                        applied.add(write);
+                    } catch (SQLException | RuntimeException e) {
+                        conn.rollback(savepoint);
+                        write.future.completeExceptionally(new RuntimeException("Database operation failed", e));
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            RuntimeException failure = new RuntimeException("Database operation failed", e);
+            for (Write write : batch) {
+                write.future.completeExceptionally(failure);
+            }
+            return;
+        }
+        
+        for (Write write : applied) {
+            write.future.complete(null);
+        }
+    }
+    
+    private static final class Write {
+        private final AbstractDatabase.DatabaseRunnable runnable;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        private Write(AbstractDatabase.DatabaseRunnable runnable) {
+            this.runnable = runnable;
+        }
+    }
+}
\ No newline at end of file
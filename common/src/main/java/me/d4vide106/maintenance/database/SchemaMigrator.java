@@ -0,0 +1,149 @@
+package me.d4vide106.maintenance.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Brings a database schema up to the latest {@link Migration}.
+ * <p>
+ * The current version is read with a single query; when it is already
+ * the latest, startup runs no DDL at all. Otherwise the migrator takes the
+ * dialect's schema lock, so only one server migrates a shared database,
+ * re-reads the version (another server may have finished meanwhile) and
+ * applies each pending step in its own transaction together with its
+ * {@code schema_version} row. A step adding a column that already exists
+ * (left behind by a step MySQL could not roll back) is only recorded.
+ * </p>
+ */
+final class SchemaMigrator {
+    
+    private final SqlDialect dialect;
+    private final List<Migration> migrations;
+    
+    SchemaMigrator(@NotNull SqlDialect dialect, @NotNull List<Migration> migrations) {
+        int previous = 0;
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= previous) {
+                throw new IllegalArgumentException("Migrations must be in increasing version order, found "
+                    + migration.getVersion() + " after " + previous);
+            }
+            previous = migration.getVersion();
+        }
+        this.dialect = dialect;
+        this.migrations = new ArrayList<>(migrations);
+    }
+    
+    /**
+     * Applies all pending migrations.
+     *
+     * @return the number of migrations applied
+     */
+    int migrate(@NotNull Connection conn) throws SQLException {
+        int latest = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+        if (currentVersion(conn) >= latest) {
+            return 0;
+        }
+        
+        lock(conn);
+        try {
+            execute(conn, dialect.createSchemaVersion);
+            
+            int current = currentVersion(conn);
+            int applied = 0;
+            for (Migration migration : migrations) {
+                if (migration.getVersion() > current) {
+                    apply(conn, migration);
+                    applied++;
+                }
+            }
+            return applied;
+        } finally {
+            unlock(conn);
+        }
+    }
+    
+    private int currentVersion(@NotNull Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement(dialect.selectSchemaVersion)) {
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            // No schema_version table yet: a new install or one from before migrations
+            return 0;
+        }
+    }
+    
+    private void apply(@NotNull Connection conn, @NotNull Migration migration) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            if (!columnExists(conn, migration)) {
+                for (String sql : migration.getStatements()) {
+                    execute(conn, sql);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(dialect.insertSchemaVersion)) {
+                stmt.setInt(1, migration.getVersion());
+                stmt.setString(2, migration.getDescription());
+                stmt.setLong(3, System.currentTimeMillis());
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw new SQLException("Failed to apply schema migration " + migration.getVersion()
+                + " (" + migration.getDescription() + ")", e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+    
+    private boolean columnExists(@NotNull Connection conn, @NotNull Migration migration) throws SQLException {
+        if (migration.getColumn() == null) {
+            return false;
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(dialect.countColumn)) {
+            stmt.setString(1, migration.getTable());
+            stmt.setString(2, migration.getColumn());
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+    
+    private void lock(@NotNull Connection conn) throws SQLException {
+        if (dialect.acquireSchemaLock == null) {
+            return;
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(dialect.acquireSchemaLock)) {
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next() || rs.getInt(1) != 1) {
+                throw new SQLException("Timed out waiting for the schema migration lock");
+            }
+        }
+    }
+    
+    private void unlock(@NotNull Connection conn) {
+        if (dialect.releaseSchemaLock == null) {
+            return;
+        }
+        
+        try {
+            execute(conn, dialect.releaseSchemaLock);
+        } catch (SQLException ignored) {
+            // A lock left behind is released when the pool retires the connection
+        }
+    }
+    
+    private static void execute(@NotNull Connection conn, @NotNull String sql) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.execute();
+        }
+    }
+}
\ No newline at end of file
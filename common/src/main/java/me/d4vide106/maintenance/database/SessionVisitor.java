@@ -0,0 +1,19 @@
+package me.d4vide106.maintenance.database;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives history sessions one at a time.
+ *
+ * @see DatabaseProvider#visitSessions(long, long, SessionVisitor)
+ */
+@FunctionalInterface
+public interface SessionVisitor {
+    
+    /**
+     * Visits one session.
+     * 
+     * @return false to stop the iteration
+     */
+    boolean visit(@NotNull MaintenanceSession session);
+}
\ No newline at end of file
@@ -0,0 +1,268 @@
+package me.d4vide106.maintenance.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * All SQL statements used by {@link AbstractDatabase}, built once per provider.
+ * <p>
+ * Statements are computed in the constructor from the table prefix and the
+ * dialect hooks ({@link #quote(String)}, {@link #upsert},
+ * {@link #uuidParameter()}), so queries never
+ * concatenate strings at runtime and identical SQL strings can be matched
+ * by statement caches. The base class produces SQLite syntax, which is
+ * also valid ANSI SQL for PostgreSQL; other databases override the hooks.
+ * Hooks are called from the constructor and must not depend on subclass
+ * state.
+ * </p>
+ */
+public class SqlDialect {
+    
+    private final String tablePrefix;
+    
+    // Schema
+    final String createSchemaVersion;
+    final String selectSchemaVersion;
+    final String insertSchemaVersion;
+    final String acquireSchemaLock;
+    final String releaseSchemaLock;
+    final String countColumn;
+    
+    // Settings
+    final String selectSetting;
+    final String selectSettings;
+    final String upsertSetting;
+    final String deleteSetting;
+    
+    // Whitelist
+    final String countWhitelisted;
+    final String selectWhitelist;
+    final String selectWhitelisted;
+    final String selectWhitelistUuids;
+    final String selectWhitelistNames;
+    final String upsertWhitelisted;
+    final String renameWhitelisted;
+    final String deleteWhitelisted;
+    final String deleteWhitelist;
+    final String deleteWhitelistChanges;
+    final String deleteWhitelistChangesBefore;
+    final String selectWhitelistVersion;
+    final String selectWhitelistChangesSince;
+    final String insertWhitelistChange;
+    
+    // Statistics
+    final String selectStats;
+    final String addStats;
+    final String updateLastStarted;
+    final String updateLastEnded;
+    
+    // History
+    final String insertSession;
+    final String selectRecentSessions;
+    final String selectSessionsBefore;
+    final String selectSessionsBetween;
+    final String selectSessionsAscending;
+    final String deleteSessionsBefore;
+    final int streamFetchSize;
+    
+    // Schedule
+    final String selectScheduledStart;
+    final String selectScheduledEnd;
+    final String upsertScheduledStart;
+    final String upsertScheduledEnd;
+    final String deleteSchedule;
+    
+    public SqlDialect(@NotNull String tablePrefix) {
+        this.tablePrefix = tablePrefix;
+        
+        String schemaVersion = table("schema_version");
+        this.createSchemaVersion = "CREATE TABLE IF NOT EXISTS " + schemaVersion + " (" +
+                                  "version INT PRIMARY KEY, " +
+                                  "description VARCHAR(255) NOT NULL, " +
+                                  "applied_at BIGINT NOT NULL)";
+        this.selectSchemaVersion = "SELECT MAX(version) FROM " + schemaVersion;
+        this.insertSchemaVersion = "INSERT INTO " + schemaVersion + " (version, description, applied_at) VALUES (?, ?, ?)";
+        this.acquireSchemaLock = acquireLock(schemaVersion);
+        this.releaseSchemaLock = releaseLock(schemaVersion);
+        this.countColumn = countColumn();
+        
+        String settings = table("settings");
+        String key = quote("key");
+        String value = quote("value");
+        this.selectSetting = "SELECT " + value + " FROM " + settings + " WHERE " + key + " = ?";
+        this.selectSettings = "SELECT " + key + ", " + value + " FROM " + settings + " WHERE " + key + " IN (?, ?, ?)";
+        this.upsertSetting = upsert(settings, new String[] {key, value}, new String[] {"?", "?"}, key, value);
+        this.deleteSetting = "DELETE FROM " + settings + " WHERE " + key + " = ?";
+        
+        String whitelist = table("whitelist");
+        String changes = table("whitelist_changes");
+        String uuid = uuidParameter();
+        this.countWhitelisted = "SELECT COUNT(*) FROM " + whitelist + " WHERE uuid = " + uuid;
+        this.selectWhitelist = "SELECT uuid, name, reason, added_at, added_by FROM " + whitelist;
+        this.selectWhitelisted = selectWhitelist + " WHERE uuid = " + uuid;
+        this.selectWhitelistUuids = "SELECT uuid FROM " + whitelist;
+        this.selectWhitelistNames = "SELECT name FROM " + whitelist;
+        this.upsertWhitelisted = upsert(
+            whitelist,
+            new String[] {"uuid", "name", "reason", "added_at", "added_by"},
+            new String[] {uuid, "?", "?", "?", "?"},
+            "uuid",
+            "name", "reason", "added_at", "added_by"
+        );
+        this.renameWhitelisted = "UPDATE " + whitelist + " SET name = ? WHERE uuid = " + uuid;
+        this.deleteWhitelisted = "DELETE FROM " + whitelist + " WHERE uuid = " + uuid;
+        this.deleteWhitelist = "DELETE FROM " + whitelist;
+        this.deleteWhitelistChanges = "DELETE FROM " + changes;
+        this.deleteWhitelistChangesBefore = deleteOldest(changes, "changed_at < ? AND id < ?", "id");
+        this.selectWhitelistVersion = "SELECT MAX(id) FROM " + changes;
+        this.selectWhitelistChangesSince = "SELECT id, action, uuid, name FROM " + changes + " WHERE id > ? ORDER BY id";
+        this.insertWhitelistChange = "INSERT INTO " + changes + " (uuid, name, action, changed_at) VALUES (" + uuid + ", ?, ?, ?)";
+        
+        String stats = table("stats");
+        this.selectStats = "SELECT total_sessions, total_duration, players_kicked, connections_blocked FROM " +
+                          stats + " WHERE id = 1";
+        this.addStats = "UPDATE " + stats + " SET" +
+                       " total_sessions = total_sessions + ?," +
+                       " total_duration = total_duration + ?," +
+                       " players_kicked = players_kicked + ?," +
+                       " connections_blocked = connections_blocked + ?" +
+                       " WHERE id = 1";
+        this.updateLastStarted = "UPDATE " + stats + " SET last_started = ? WHERE id = 1";
+        this.updateLastEnded = "UPDATE " + stats + " SET last_ended = ? WHERE id = 1";
+        
+        String history = table("history");
+        this.insertSession = "INSERT INTO " + history +
+                            " (start_time, end_time, mode, reason, started_by, players_kicked) VALUES (?, ?, ?, ?, ?, ?)";
+        String sessionColumns = "SELECT id, start_time, end_time, mode, reason, started_by, players_kicked FROM " + history;
+        this.selectRecentSessions = sessionColumns + " ORDER BY start_time DESC, id DESC LIMIT ?";
+        // Sessions can share a start time; the id breaks ties so no row is skipped or repeated across pages
+        this.selectSessionsBefore = sessionColumns + " WHERE start_time < ? OR (start_time = ? AND id < ?)" +
+                                   " ORDER BY start_time DESC, id DESC LIMIT ?";
+        this.selectSessionsBetween = sessionColumns + " WHERE start_time >= ? AND start_time < ? ORDER BY start_time DESC LIMIT ?";
+        this.selectSessionsAscending = sessionColumns + " WHERE start_time >= ? AND start_time < ? ORDER BY start_time";
+        this.deleteSessionsBefore = deleteOldest(history, "start_time < ?", "start_time");
+        this.streamFetchSize = streamingFetchSize();
+        
+        String schedule = table("schedule");
+        String[] scheduleColumns = {"id", "scheduled_start", "scheduled_end"};
+        this.selectScheduledStart = "SELECT scheduled_start FROM " + schedule + " ORDER BY id DESC LIMIT 1";
+        this.selectScheduledEnd = "SELECT scheduled_end FROM " + schedule + " ORDER BY id DESC LIMIT 1";
+        // The other bound starts at 0, which reads back as "not scheduled"
+        this.upsertScheduledStart = upsert(schedule, scheduleColumns, new String[] {"1", "?", "0"}, "id", "scheduled_start");
+        this.upsertScheduledEnd = upsert(schedule, scheduleColumns, new String[] {"1", "0", "?"}, "id", "scheduled_end");
+        this.deleteSchedule = "DELETE FROM " + schedule;
+    }
+    
+    @NotNull
+    public String getTablePrefix() {
+        return tablePrefix;
+    }
+    
+    /**
+     * Gets the full name of a table, including the prefix.
+     */
+    @NotNull
+    public String table(@NotNull String name) {
+        return tablePrefix + name;
+    }
+    
+    /**
+     * Quotes an identifier that may be a reserved word.
+     */
+    @NotNull
+    protected String quote(@NotNull String identifier) {
+        return "\"" + identifier + "\"";
+    }
+    
+    /**
+     * Gets the query that takes a named, database-wide lock, or null if
+     * the database cannot be shared between servers.
+     * <p>
+     * The query must block until the lock is held and return 1 on success.
+     * </p>
+     */
+    @Nullable
+    protected String acquireLock(@NotNull String name) {
+        return null;
+    }
+    
+    /**
+     * Gets the query that releases a lock taken by {@link #acquireLock(String)}.
+     */
+    @Nullable
+    protected String releaseLock(@NotNull String name) {
+        return null;
+    }
+    
+    /**
+     * Gets the query counting the columns with a name (second parameter)
+     * in a table (first parameter), used to keep schema changes that
+     * cannot say {@code IF NOT EXISTS} idempotent.
+     */
+    @NotNull
+    protected String countColumn() {
+        return "SELECT COUNT(*) FROM pragma_table_info(?) WHERE name = ?";
+    }
+    
+    /**
+     * Builds a delete of the first rows matching a condition, with the
+     * row count bound as the last parameter.
+     */
+    @NotNull
+    protected String deleteOldest(@NotNull String table, @NotNull String condition, @NotNull String orderBy) {
+        return "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table +
+               " WHERE " + condition + " ORDER BY " + orderBy + " LIMIT ?)";
+    }
+    
+    /**
+     * Gets the fetch size that makes the driver stream a result set
+     * instead of loading it whole.
+     */
+    protected int streamingFetchSize() {
+        return 500;
+    }
+    
+    /**
+     * Gets the parameter expression for a UUID bound as a string.
+     */
+    @NotNull
+    protected String uuidParameter() {
+        return "?";
+    }
+    
+    /**
+     * Builds an insert that updates the given columns when the key already exists.
+     *
+     * @param table the table name
+     * @param columns the inserted columns
+     * @param values the value expressions, one per column
+     * @param key the conflicting key column
+     * @param updated the columns overwritten on conflict
+     */
+    @NotNull
+    protected String upsert(
+        @NotNull String table,
+        @NotNull String[] columns,
+        @NotNull String[] values,
+        @NotNull String key,
+        @NotNull String... updated
+    ) {
+        StringBuilder sql = insert(table, columns, values);
+        sql.append(" ON CONFLICT (").append(key).append(") DO UPDATE SET ");
+        for (int i = 0; i < updated.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(updated[i]).append(" = excluded.").append(updated[i]);
+        }
+        return sql.toString();
+    }
+    
+    @NotNull
+    protected StringBuilder insert(@NotNull String table, @NotNull String[] columns, @NotNull String[] values) {
+        return new StringBuilder("INSERT INTO ")
+            .append(table)
+            .append(" (").append(String.join(", ", columns)).append(")")
+            .append(" VALUES (").append(String.join(", ", values)).append(")");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package me.d4vide106.maintenance.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-connection cache of prepared statements, for drivers without one.
+ * <p>
+ * Statements are cached against the physical connection behind the pool
+ * proxy, so they survive the connection being returned to and borrowed
+ * from the pool. Callers get the statement's {@link CachedStatement},
+ * whose {@code close()} closes the result sets and clears the parameters
+ * but keeps the statement prepared; usage stays the regular
+ * try-with-resources pattern. A statement that is
+ * still in use (nested use of the same SQL) is not shared: the second
+ * caller gets a regular, uncached statement.
+ * </p>
+ */
+final class StatementCache {
+    
+    private final int maxPerConnection;
+    private final Map<Connection, Map<String, CachedStatement>> connections = new IdentityHashMap<>();
+    
+    StatementCache(int maxPerConnection) {
+        this.maxPerConnection = maxPerConnection;
+    }
+    
+    /**
+     * Gets a prepared statement for the SQL on this connection.
+     */
+    @NotNull
+    PreparedStatement prepare(@NotNull Connection conn, @NotNull String sql) throws SQLException {
+        Connection physical = conn.unwrap(Connection.class);
+        Map<String, CachedStatement> statements = statements(physical);
+        
+        synchronized (statements) {
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && cached.inUse) {
+                return conn.prepareStatement(sql);
+            }
+            if (cached != null && cached.delegate().isClosed()) {
+                statements.remove(sql);
+                cached = null;
+            }
+            if (cached == null) {
+                cached = new CachedStatement(physical.prepareStatement(sql), statements, sql);
+                statements.put(sql, cached);
+            }
+            cached.inUse = true;
+            return cached;
+        }
+    }
+    
+    /**
+     * Closes all cached statements.
+     */
+    void close() {
+        synchronized (connections) {
+            for (Map<String, CachedStatement> statements : connections.values()) {
+                synchronized (statements) {
+                    for (CachedStatement cached : statements.values()) {
+                        closeQuietly(cached.delegate());
+                    }
+                    statements.clear();
+                }
+            }
+            connections.clear();
+        }
+    }
+    
+    @NotNull
+    private Map<String, CachedStatement> statements(@NotNull Connection physical) throws SQLException {
+        synchronized (connections) {
+            Map<String, CachedStatement> statements = connections.get(physical);
+            if (statements != null) {
+                return statements;
+            }
+            
+            // A new physical connection: forget the ones the pool has closed since
+            Iterator<Map.Entry<Connection, Map<String, CachedStatement>>> it = connections.entrySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getKey().isClosed()) {
+                    it.remove();
+                }
+            }
+            
+            statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= maxPerConnection || eldest.getValue().inUse) {
+                        return false;
+                    }
+                    closeQuietly(eldest.getValue().delegate());
+                    return true;
+                }
+            };
+            connections.put(physical, statements);
+            return statements;
+        }
+    }
+    
+    static void closeQuietly(@NotNull PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {}
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package me.d4vide106.maintenance.database;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory buffer for statistics counters.
+ * <p>
+ * Increments land in striped {@link LongAdder}s and are written to the
+ * stats table as one aggregated UPDATE per flush, so a flood of blocked
+ * connections never turns into one database write per connection.
+ * </p>
+ */
+public class StatsAccumulator {
+    
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder duration = new LongAdder();
+    private final LongAdder playersKicked = new LongAdder();
+    private final LongAdder connectionsBlocked = new LongAdder();
+    
+    public void addSessions(long count) {
+        sessions.add(count);
+    }
+    
+    public void addDuration(long milliseconds) {
+        duration.add(milliseconds);
+    }
+    
+    public void addPlayersKicked(long count) {
+        playersKicked.add(count);
+    }
+    
+    public void addConnectionsBlocked(long count) {
+        connectionsBlocked.add(count);
+    }
+    
+    /**
+     * Gets the pending deltas without resetting them.
+     */
+    public Delta pending() {
+        return new Delta(sessions.sum(), duration.sum(), playersKicked.sum(), connectionsBlocked.sum());
+    }
+    
+    /**
+     * Takes the pending deltas and resets the counters.
+     * <p>
+     * If writing the result fails, hand it back through {@link #restore(Delta)}.
+     * </p>
+     */
+    public Delta drain() {
+        return new Delta(
+            sessions.sumThenReset(),
+            duration.sumThenReset(),
+            playersKicked.sumThenReset(),
+            connectionsBlocked.sumThenReset()
+        );
+    }
+    
+    /**
+     * Puts back deltas that could not be written.
+     */
+    public void restore(Delta delta) {
+        sessions.add(delta.sessions);
+        duration.add(delta.duration);
+        playersKicked.add(delta.playersKicked);
+        connectionsBlocked.add(delta.connectionsBlocked);
+    }
+    
+    /**
+     * Aggregated counter deltas.
+     */
+    public static final class Delta {
+        private final long sessions;
+        private final long duration;
+        private final long playersKicked;
+        private final long connectionsBlocked;
+        
+        private Delta(long sessions, long duration, long playersKicked, long connectionsBlocked) {
+            this.sessions = sessions;
+            this.duration = duration;
+            this.playersKicked = playersKicked;
+            this.connectionsBlocked = connectionsBlocked;
+        }
+        
+        public long getSessions() {
+            return sessions;
+        }
+        
+        public long getDuration() {
+            return duration;
+        }
+        
+        public long getPlayersKicked() {
+            return playersKicked;
+        }
+        
+        public long getConnectionsBlocked() {
+            return connectionsBlocked;
+        }
+        
+        public boolean isEmpty() {
+            return sessions == 0 && duration == 0 && playersKicked == 0 && connectionsBlocked == 0;
+        }
+    }
+}
\ No newline at end of file
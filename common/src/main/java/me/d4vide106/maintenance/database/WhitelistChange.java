@@ -0,0 +1,64 @@
+package me.d4vide106.maintenance.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Represents one entry of the whitelist change log.
+ * <p>
+ * Versions are assigned by the database and strictly increase, so applying
+ * changes in version order reproduces the whitelist table.
+ * </p>
+ */
+public class WhitelistChange {
+    
+    /**
+     * Kind of whitelist change.
+     */
+    public enum Type {
+        ADDED,
+        REMOVED,
+        CLEARED,
+        RENAMED
+    }
+    
+    private final long version;
+    private final Type type;
+    private final UUID uuid;
+    private final String name;
+    
+    public WhitelistChange(long version, @NotNull Type type, @Nullable UUID uuid, @Nullable String name) {
+        this.version = version;
+        this.type = type;
+        this.uuid = uuid;
+        this.name = name;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    @NotNull
+    public Type getType() {
+        return type;
+    }
+    
+    /**
+     * Gets the affected player, or null for {@link Type#CLEARED}.
+     */
+    @Nullable
+    public UUID getUuid() {
+        return uuid;
+    }
+    
+    /**
+     * Gets the player's name for {@link Type#ADDED} and {@link Type#RENAMED},
+     * or null if the change was logged without one.
+     */
+    @Nullable
+    public String getName() {
+        return name;
+    }
+}
\ No newline at end of file
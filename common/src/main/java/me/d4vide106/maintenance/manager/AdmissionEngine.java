@@ -0,0 +1,259 @@
+package me.d4vide106.maintenance.manager;
+
+import me.d4vide106.maintenance.api.MaintenanceMode;
+import me.d4vide106.maintenance.config.ConfigSnapshot;
+import me.d4vide106.maintenance.config.MaintenanceConfig;
+import me.d4vide106.maintenance.util.ComponentCache;
+import me.d4vide106.maintenance.util.TimeUtil;
+import me.d4vide106.maintenance.util.UuidSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Decides whether a connecting player may join, for every platform.
+ * <p>
+ * The maintenance state, per-server flags, whitelist, fallback server and
+ * the rendered kick message are compiled into one immutable policy, which
+ * is rebuilt whenever one of them changes and published through a
+ * volatile field. A check is then a single volatile read and a whitelist
+ * lookup, and returns a constant {@link Verdict}.
+ * </p>
+ * <p>
+ * During a reopen ramp, a player is let in when the bucket their UUID
+ * hashes to, out of 100, is below the ramp's current percentage. The
+ * bucket only depends on the UUID, so every server agrees on it and a
+ * player let in at one step stays in at the next ones.
+ * </p>
+ * <p>
+ * Platforms that can see a login before the player is authenticated call
+ * {@link #checkName} there, so repeat offenders the
+ * {@link ConnectionThrottle} holds back are dropped before encryption and
+ * the session server lookup. Logins are only ever denied by UUID.
+ * </p>
+ * <p>
+ * Permissions are platform specific and are not part of the policy:
+ * platforms let players holding {@link #BYPASS_PERMISSION} (or operators)
+ * in whenever the verdict is not {@link Verdict#ALLOW}.
+ * </p>
+ *
+ * @param <T> the platform message type the kick message is rendered to
+ */
+public final class AdmissionEngine<T> {
+    
+    public static final String BYPASS_PERMISSION = "maintenance.bypass";
+    
+    private static final String DEFAULT_REASON = "Maintenance";
+    private static final String UNKNOWN_DURATION = "Unknown";
+    
+    /**
+     * Outcome of an admission check.
+     */
+    public enum Verdict {
+        /** The player may join. */
+        ALLOW,
+        /** The player must be disconnected with {@link #kickMessage()}. */
+        DENY,
+        /** The player must be sent to {@link #getFallbackServer()} instead. */
+        FALLBACK
+    }
+    
+    private final MaintenanceConfig config;
+    private final MaintenanceManager maintenanceManager;
+    private final WhitelistManager whitelistManager;
+    private final TimerManager timerManager;
+    private final ComponentCache<T> kickMessages;
+    private volatile Policy<T> policy;
+    
+    public AdmissionEngine(
+        @NotNull MaintenanceConfig config,
+        @NotNull MaintenanceManager maintenanceManager,
+        @NotNull WhitelistManager whitelistManager,
+        @NotNull TimerManager timerManager,
+        @NotNull Function<String, T> renderer
+    ) {
+        this.config = config;
+        this.maintenanceManager = maintenanceManager;
+        this.whitelistManager = whitelistManager;
+        this.timerManager = timerManager;
+        this.kickMessages = new ComponentCache<>(renderer, "reason", "duration");
+        
+        maintenanceManager.addListener(this::recompile);
+        whitelistManager.addListener(this::recompile);
+        timerManager.addRampListener(this::recompile);
+        config.addReloadListener(() -> {
+            kickMessages.invalidate();
+            recompile();
+        });
+        recompile();
+    }
+    
+    /**
+     * Checks a player logging in.
+     * <p>
+     * During server-specific maintenance of named servers, logins are
+     * allowed and the servers are guarded by {@link #checkServer}.
+     * </p>
+     */
+    @NotNull
+    public Verdict check(@NotNull UUID uuid) {
+        Policy<T> current = policy;
+        if (!current.restrictsLogin || current.whitelist.contains(uuid) || current.ramped(uuid)) {
+            return Verdict.ALLOW;
+        }
+        return Verdict.DENY;
+    }
+    
+    /**
+     * Checks a player by name, before they are authenticated.
+     * <p>
+     * Neither verdict is final. An allowed name may belong to a player
+     * removed from the whitelist, or be claimed by someone else; a denied
+     * one may be the new name of a whitelisted player or an operator. A
+     * denied name only lets platforms drop a throttled address early, and
+     * every login is decided with {@link #check} once the UUID is known.
+     * During a reopen ramp every name is allowed, as only the UUID tells
+     * whether the player is let in.
+     * </p>
+     */
+    @NotNull
+    public Verdict checkName(@NotNull String name) {
+        Policy<T> current = policy;
+        if (!current.restrictsLogin || current.rampPercent > 0 || current.names.contains(name.toLowerCase(Locale.ROOT))) {
+            return Verdict.ALLOW;
+        }
+        return Verdict.DENY;
+    }
+    
+    /**
+     * Checks a player connecting to a server behind a proxy.
+     *
+     * @param server the target server
+     */
+    @NotNull
+    public Verdict checkServer(@NotNull UUID uuid, @NotNull String server) {
+        Policy<T> current = policy;
+        if (!current.enabled || current.whitelist.contains(uuid) || current.ramped(uuid)) {
+            return Verdict.ALLOW;
+        }
+        if (!current.restrictsLogin && !current.servers.contains(server)) {
+            return Verdict.ALLOW;
+        }
+        if (current.fallbackServer == null) {
+            return Verdict.DENY;
+        }
+        return current.fallbackServer.equals(server) ? Verdict.ALLOW : Verdict.FALLBACK;
+    }
+    
+    /**
+     * Checks if maintenance is enabled, as of the current policy.
+     */
+    public boolean isActive() {
+        return policy.enabled;
+    }
+    
+    /**
+     * Gets the server denied players are sent to, or null to disconnect them.
+     */
+    @Nullable
+    public String getFallbackServer() {
+        return policy.fallbackServer;
+    }
+    
+    /**
+     * Gets the message denied players are disconnected with.
+     * <p>
+     * Without a running timer this is the message rendered when the policy
+     * was compiled; with one, it is rendered at most once per second of
+     * the countdown.
+     * </p>
+     */
+    @NotNull
+    public T kickMessage() {
+        Policy<T> current = policy;
+        long remaining = timerManager.getEndTime() - System.currentTimeMillis();
+        if (remaining > 0) {
+            return kickMessages.render(current.template, current.reason, TimeUtil.format(Duration.ofMillis(remaining)));
+        }
+        return current.kickMessage != null
+            ? current.kickMessage
+            : kickMessages.render(current.template, current.reason, UNKNOWN_DURATION);
+    }
+    
+    private synchronized void recompile() {
+        ConfigSnapshot settings = config.snapshot();
+        boolean enabled = maintenanceManager.isEnabled();
+        Set<String> servers = maintenanceManager.getServers();
+        boolean perServer = maintenanceManager.getMode() == MaintenanceMode.SERVER_SPECIFIC && !servers.isEmpty();
+        String reason = maintenanceManager.getReason();
+        String template = settings.getKickMessage();
+        String resolvedReason = reason != null ? reason : DEFAULT_REASON;
+        
+        policy = new Policy<>(
+            enabled,
+            enabled && !perServer,
+            servers,
+            whitelistManager.getSnapshot(),
+            whitelistManager.getNames(),
+            enabled && maintenanceManager.getMode() == MaintenanceMode.RAMP ? timerManager.getRampPercent() : 0,
+            settings.shouldKickToFallback() ? settings.getFallbackServer() : null,
+            template,
+            resolvedReason,
+            // Rendered ahead so the first denied login is already a cache hit
+            enabled ? kickMessages.render(template, resolvedReason, UNKNOWN_DURATION) : null
+        );
+    }
+    
+    private static final class Policy<T> {
+        private final boolean enabled;
+        private final boolean restrictsLogin;
+        private final Set<String> servers;
+        private final UuidSet whitelist;
+        private final Set<String> names;
+        private final int rampPercent;
+        private final String fallbackServer;
+        private final String template;
+        private final String reason;
+        private final T kickMessage;
+        
+        private Policy(
+            boolean enabled,
+            boolean restrictsLogin,
+            Set<String> servers,
+            UuidSet whitelist,
+            Set<String> names,
+            int rampPercent,
+            String fallbackServer,
+            String template,
+            String reason,
+            T kickMessage
+        ) {
+            this.enabled = enabled;
+            this.restrictsLogin = restrictsLogin;
+            this.servers = servers;
+            this.whitelist = whitelist;
+            this.names = names;
+            this.rampPercent = rampPercent;
+            this.fallbackServer = fallbackServer;
+            this.template = template;
+            this.reason = reason;
+            this.kickMessage = kickMessage;
+        }
+        
+        /**
+         * Checks if the reopen ramp lets a player in.
+         */
+        private boolean ramped(UUID uuid) {
+            if (rampPercent <= 0) {
+                return false;
+            }
+            long h = (uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits()) * 0x9E3779B97F4A7C15L;
+            return (h >>> 32) % 100 < rampPercent;
+        }
+    }
+}
\ No newline at end of file
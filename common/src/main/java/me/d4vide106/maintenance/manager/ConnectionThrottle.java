@@ -0,0 +1,271 @@
+package me.d4vide106.maintenance.manager;
+
+import me.d4vide106.maintenance.config.ConfigSnapshot;
+import me.d4vide106.maintenance.config.MaintenanceConfig;
+import me.d4vide106.maintenance.database.DatabaseProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limits the maintenance rejection path per IP address.
+ * <p>
+ * Every rejected login spends a token of its address's bucket; once an
+ * address has none left, its next attempts are throttled: platforms check
+ * {@link #throttle} once a login is known not to be allowed, before any
+ * further work, and drop it with the pre-rendered kick message. Allowed
+ * players are never throttled, even when they share an address (NAT, an
+ * IPv6 /64) with repeat offenders. Backends behind a proxy, where every
+ * login comes from the proxy's address, leave throttling to the proxy.
+ * Tokens refill at a fixed rate, so a client that stops reconnecting for
+ * a while gets its full burst back.
+ * </p>
+ * <p>
+ * Off by default: it only takes effect once enabled in the
+ * {@code connection-throttle} section.
+ * </p>
+ * <p>
+ * Buckets are kept as a theoretical arrival time (GCRA), one {@code long}
+ * per address next to a {@code long} key, in fixed-size open-addressing
+ * tables split into independently locked stripes. An entry whose time has
+ * passed is equivalent to a full bucket and its slot is simply reused, so
+ * the tables never need sweeping and never grow; when a probe window is
+ * full, the entry closest to expiring is evicted. IPv4 addresses are kept
+ * whole, IPv6 addresses by their /64 prefix.
+ * </p>
+ * <p>
+ * A global bucket bounds rejections across all addresses: while it is
+ * empty, every address rejected recently is throttled even if it still
+ * has tokens, which flattens floods spread over many addresses. Addresses
+ * never rejected are not affected.
+ * </p>
+ * <p>
+ * Throttled connections are counted in memory and added to the statistics
+ * in one batch every few seconds.
+ * </p>
+ */
+public final class ConnectionThrottle {
+    
+    private static final int STRIPES = 16;
+    private static final int SLOTS = 1024;
+    private static final int PROBES = 8;
+    private static final long FLUSH_INTERVAL_MILLIS = 5000;
+    
+    private final MaintenanceConfig config;
+    private final MaintenanceManager maintenanceManager;
+    private final DatabaseProvider database;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong globalArrival = new AtomicLong();
+    private final LongAdder throttled = new LongAdder();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Maintenance-Throttle");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public ConnectionThrottle(
+        @NotNull MaintenanceConfig config,
+        @NotNull MaintenanceManager maintenanceManager,
+        @NotNull DatabaseProvider database
+    ) {
+        this.config = config;
+        this.maintenanceManager = maintenanceManager;
+        this.database = database;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        scheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stops the flush task and writes the remaining count.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flush();
+    }
+    
+    /**
+     * Checks if a connection must be dropped without being checked, and
+     * counts it if so.
+     * <p>
+     * Never throttles while maintenance is disabled.
+     * </p>
+     *
+     * @param address the remote address; anything but an IP address is never throttled
+     */
+    public boolean throttle(@NotNull SocketAddress address) {
+        if (!(address instanceof InetSocketAddress inet) || inet.getAddress() == null) {
+            return false;
+        }
+        return throttle(inet.getAddress());
+    }
+    
+    /**
+     * Checks if a connection from the given address must be dropped without
+     * being checked, and counts it if so.
+     */
+    public boolean throttle(@NotNull InetAddress address) {
+        ConfigSnapshot settings = config.snapshot();
+        if (!settings.isThrottleEnabled() || !maintenanceManager.isEnabled()) {
+            return false;
+        }
+        
+        long now = System.currentTimeMillis();
+        long interval = settings.getThrottleRefillMillis();
+        long tolerance = interval * (settings.getThrottleBurst() - 1);
+        boolean globalExhausted = globalExhausted(now, settings);
+        
+        long key = key(address);
+        int hash = mix(key);
+        Stripe stripe = stripes[hash & (STRIPES - 1)];
+        boolean limited;
+        synchronized (stripe) {
+            int slot = stripe.find(key, hash >>> 4, now);
+            if (slot < 0) {
+                return false;
+            }
+            long arrival = stripe.arrivals[slot];
+            limited = arrival - now > tolerance || globalExhausted;
+        }
+        
+        if (limited) {
+            throttled.increment();
+        }
+        return limited;
+    }
+    
+    /**
+     * Records a connection rejected by the admission check.
+     */
+    public void recordRejection(@NotNull SocketAddress address) {
+        if (address instanceof InetSocketAddress inet && inet.getAddress() != null) {
+            recordRejection(inet.getAddress());
+        }
+    }
+    
+    /**
+     * Records a connection from the given address rejected by the admission check.
+     */
+    public void recordRejection(@NotNull InetAddress address) {
+        ConfigSnapshot settings = config.snapshot();
+        if (!settings.isThrottleEnabled()) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        long interval = settings.getThrottleRefillMillis();
+        long tolerance = interval * (settings.getThrottleBurst() - 1);
+        spendGlobal(now, settings);
+        
+        long key = key(address);
+        int hash = mix(key);
+        Stripe stripe = stripes[hash & (STRIPES - 1)];
+        synchronized (stripe) {
+            int slot = stripe.findOrInsert(key, hash >>> 4, now);
+            // An empty bucket stays empty; it does not go into debt
+            stripe.arrivals[slot] = Math.min(Math.max(stripe.arrivals[slot], now) + interval, now + tolerance + interval);
+        }
+    }
+    
+    private boolean globalExhausted(long now, @NotNull ConfigSnapshot settings) {
+        int perSecond = settings.getThrottleGlobalPerSecond();
+        // The global bucket holds one second worth of rejections
+        return perSecond > 0 && globalArrival.get() - now > 1000;
+    }
+    
+    private void spendGlobal(long now, @NotNull ConfigSnapshot settings) {
+        int perSecond = settings.getThrottleGlobalPerSecond();
+        if (perSecond <= 0) {
+            return;
+        }
+        long interval = Math.max(1, 1000 / perSecond);
+        globalArrival.accumulateAndGet(now, (arrival, time) -> Math.min(Math.max(arrival, time) + interval, time + 1000 + interval));
+    }
+    
+    private void flush() {
+        long count = throttled.sumThenReset();
+        if (count > 0) {
+            database.incrementConnectionsBlocked((int) Math.min(count, Integer.MAX_VALUE));
+        }
+    }
+    
+    /**
+     * Packs an address into a non-zero key: IPv4 addresses whole, IPv6
+     * addresses by their /64 prefix, which is what one subscriber gets.
+     */
+    private static long key(@NotNull InetAddress address) {
+        if (address instanceof Inet4Address) {
+            // The hash code of an IPv4 address is the address itself
+            return (address.hashCode() & 0xFFFFFFFFL) | (1L << 32);
+        }
+        byte[] bytes = address.getAddress();
+        long key = 0;
+        for (int i = 0; i < 8; i++) {
+            key = (key << 8) | (bytes[i] & 0xFF);
+        }
+        return key != 0 ? key : 1;
+    }
+    
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    /**
+     * One lock stripe: parallel key and arrival time arrays, where 0 marks
+     * an empty key slot.
+     */
+    private static final class Stripe {
+        private final long[] keys = new long[SLOTS];
+        private final long[] arrivals = new long[SLOTS];
+        
+        /**
+         * Finds the live entry of a key, or returns -1.
+         */
+        private int find(long key, int hash, long now) {
+            for (int i = 0; i < PROBES; i++) {
+                int slot = (hash + i) & (SLOTS - 1);
+                if (keys[slot] == key) {
+                    return arrivals[slot] > now ? slot : -1;
+                }
+            }
+            return -1;
+        }
+        
+        /**
+         * Finds the entry of a key, or takes over a free, expired or the
+         * soonest expiring slot of its probe window.
+         */
+        private int findOrInsert(long key, int hash, long now) {
+            int free = -1;
+            int soonest = hash & (SLOTS - 1);
+            for (int i = 0; i < PROBES; i++) {
+                int slot = (hash + i) & (SLOTS - 1);
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                if (arrivals[slot] <= now) {
+                    if (free < 0) {
+                        free = slot;
+                    }
+                } else if (arrivals[slot] < arrivals[soonest]) {
+                    soonest = slot;
+                }
+            }
+            
+            int slot = free >= 0 ? free : soonest;
+            keys[slot] = key;
+            arrivals[slot] = now;
+            return slot;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package me.d4vide106.maintenance.manager;
+
+import me.d4vide106.maintenance.config.ConfigSnapshot;
+import me.d4vide106.maintenance.config.MaintenanceConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Paces joins right after maintenance ends, so the players waiting for the
+ * server to reopen do not all connect in the same second.
+ * <p>
+ * When maintenance is disabled and the reopen queue is enabled, every
+ * player gets a ticket on their first attempt, in arrival order. Tickets
+ * are released at the configured rate; a player whose ticket was released
+ * joins, the others are turned away with their position and reconnect.
+ * Whitelisted players and holders of {@link #PRIORITY_PERMISSION} skip the
+ * queue. Up to one second worth of tickets may be released ahead, so an
+ * empty queue admits arrivals immediately.
+ * </p>
+ * <p>
+ * The queue drains by itself: once nobody has waited for
+ * {@link #IDLE_MILLIS}, or the configured maximum duration has passed,
+ * every player joins normally again. The rate applies to each server or
+ * proxy separately.
+ * </p>
+ *
+ * @param <T> the platform message type the waiting message is rendered to
+ */
+public final class JoinQueue<T> {
+    
+    public static final String PRIORITY_PERMISSION = "maintenance.queue.priority";
+    
+    private static final long TICK_MILLIS = 100;
+    private static final long IDLE_MILLIS = 10_000;
+    private static final int EXACT_POSITIONS = 100;
+    
+    private final MaintenanceConfig config;
+    private final MaintenanceManager maintenanceManager;
+    private final WhitelistManager whitelistManager;
+    private final Function<String, T> renderer;
+    private final Map<UUID, Long> tickets = new ConcurrentHashMap<>();
+    private final Map<Integer, T> messages = new ConcurrentHashMap<>();
+    private final AtomicLong nextTicket = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Maintenance-JoinQueue");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean pacing;
+    private volatile long released;
+    private boolean wasEnabled;
+    private ScheduledFuture<?> task;
+    private double credit;
+    private long deadline;
+    private long idleSince;
+    
+    public JoinQueue(
+        @NotNull MaintenanceConfig config,
+        @NotNull MaintenanceManager maintenanceManager,
+        @NotNull WhitelistManager whitelistManager,
+        @NotNull Function<String, T> renderer
+    ) {
+        this.config = config;
+        this.maintenanceManager = maintenanceManager;
+        this.whitelistManager = whitelistManager;
+        this.renderer = renderer;
+        this.wasEnabled = maintenanceManager.isEnabled();
+        
+        maintenanceManager.addListener(this::onStateChanged);
+        config.addReloadListener(messages::clear);
+    }
+    
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * Checks if joins are being paced.
+     */
+    public boolean isPacing() {
+        return pacing;
+    }
+    
+    /**
+     * Gets a player's turn, taking a ticket on their first attempt.
+     *
+     * @param priority whether the player holds {@link #PRIORITY_PERMISSION}
+     *                 (or is an operator)
+     * @return 0 if the player may join now, otherwise their position in the queue
+     */
+    public int enqueue(@NotNull UUID uuid, boolean priority) {
+        if (!pacing || priority || whitelistManager.isWhitelisted(uuid)) {
+            return 0;
+        }
+        
+        long ticket = tickets.computeIfAbsent(uuid, k -> nextTicket.getAndIncrement());
+        long frontier = released;
+        if (ticket < frontier) {
+            tickets.remove(uuid);
+            return 0;
+        }
+        return (int) Math.min(ticket - frontier + 1, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Gets a player's current position without taking a ticket.
+     *
+     * @return 0 if the player holds no ticket or it was released
+     */
+    public int position(@NotNull UUID uuid) {
+        Long ticket = tickets.get(uuid);
+        if (!pacing || ticket == null) {
+            return 0;
+        }
+        long frontier = released;
+        return ticket < frontier ? 0 : (int) Math.min(ticket - frontier + 1, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Gives up a player's ticket, e.g. once they were moved off a holding server.
+     */
+    public void leave(@NotNull UUID uuid) {
+        tickets.remove(uuid);
+    }
+    
+    /**
+     * Gets the message shown to a queued player.
+     * <p>
+     * Positions past {@link #EXACT_POSITIONS} are shown rounded up to the
+     * next hundred, so each message is rendered once and then reused.
+     * </p>
+     */
+    @NotNull
+    public T waitingMessage(int position) {
+        int shown = position <= EXACT_POSITIONS ? position : (position + 99) / 100 * 100;
+        T cached = messages.get(shown);
+        if (cached != null) {
+            return cached;
+        }
+        String template = config.snapshot().getReopenQueueMessage();
+        return messages.computeIfAbsent(shown, key -> renderer.apply(template.replace("{position}", Integer.toString(key))));
+    }
+    
+    private synchronized void onStateChanged() {
+        boolean enabled = maintenanceManager.isEnabled();
+        if (wasEnabled && !enabled && config.snapshot().isReopenQueueEnabled()) {
+            start();
+        } else if (enabled) {
+            stop();
+        }
+        wasEnabled = enabled;
+    }
+    
+    private void start() {
+        ConfigSnapshot settings = config.snapshot();
+        long now = System.currentTimeMillis();
+        
+        stop();
+        tickets.clear();
+        nextTicket.set(0);
+        // The first tick's worth may join before the first tick
+        released = Math.max(1, settings.getReopenQueueRate() / 10);
+        credit = 0;
+        deadline = now + settings.getReopenQueueMaxDuration() * 1000L;
+        idleSince = now;
+        pacing = true;
+        task = scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    private void stop() {
+        pacing = false;
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        tickets.clear();
+    }
+    
+    private synchronized void tick() {
+        if (!pacing) {
+            return;
+        }
+        
+        ConfigSnapshot settings = config.snapshot();
+        long now = System.currentTimeMillis();
+        int rate = Math.max(1, settings.getReopenQueueRate());
+        
+        credit += rate * (TICK_MILLIS / 1000.0);
+        long release = (long) credit;
+        credit -= release;
+        
+        // Let at most one second worth of tickets be released ahead of arrivals
+        long issued = nextTicket.get();
+        released = Math.min(released + release, issued + rate);
+        
+        if (released < issued) {
+            idleSince = now;
+        }
+        if (now - idleSince >= IDLE_MILLIS || now >= deadline) {
+            stop();
+        }
+    }
+}
\ No newline at end of file
@@ -1,20 +1,83 @@
 package me.d4vide106.maintenance.manager;
 
 import me.d4vide106.maintenance.api.MaintenanceMode;
+import me.d4vide106.maintenance.config.ConfigSnapshot;
+import me.d4vide106.maintenance.database.DatabaseProvider;
+import me.d4vide106.maintenance.database.MaintenanceState;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Holds the maintenance state in memory and persists every change.
+ * <p>
+ * Reads never touch the database; enable/disable update memory first and
+ * write the whole state through {@link DatabaseProvider#saveState} in one
+ * transaction.
+ * </p>
+ * <p>
+ * When the state is shared between servers, a replicator is notified of
+ * every local change and states written by other servers come back
+ * through {@link #applyReplicated}, which only accepts versions newer than
+ * the one already applied.
+ * </p>
+ * <p>
+ * Maintenance may end through a reopen ramp: it then stays enabled in
+ * {@link MaintenanceMode#RAMP} mode while the {@link TimerManager} lets a
+ * growing share of players in, and is disabled when the ramp completes.
+ * </p>
+ * <p>
+ * In {@link MaintenanceMode#SERVER_SPECIFIC} mode, only the servers
+ * flagged through {@link #enable(MaintenanceMode, String, Collection)} are
+ * under maintenance. The flags are shared between servers but not
+ * persisted.
+ * </p>
+ */
 public class MaintenanceManager {
     
+    private final DatabaseProvider database;
     private final AtomicBoolean enabled = new AtomicBoolean(false);
     private final AtomicReference<MaintenanceMode> mode = new AtomicReference<>(MaintenanceMode.GLOBAL);
     private final AtomicReference<String> reason = new AtomicReference<>(null);
+    private final AtomicLong version = new AtomicLong(0);
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile Set<String> servers = Set.of();
+    private volatile Runnable replicator;
     
-    public MaintenanceManager() {
+    public MaintenanceManager(@NotNull DatabaseProvider database) {
+        this.database = database;
+    }
+    
+    /**
+     * Restores the persisted maintenance state.
+     */
+    public CompletableFuture<Void> initialize() {
+        return database.loadState().thenAccept(state -> {
+            MaintenanceMode loaded = parseMode(state.getMode());
+            // The ramp itself is not persisted: reopen rather than stay at 0%
+            boolean interruptedRamp = loaded == MaintenanceMode.RAMP;
+            this.mode.set(interruptedRamp ? MaintenanceMode.GLOBAL : loaded);
+            this.reason.set(state.getReason());
+            this.enabled.set(state.isEnabled() && !interruptedRamp);
+            fireChanged();
+        });
+    }
+    
+    /**
+     * Registers a callback run after every enable/disable.
+     * Used to rebuild caches derived from the maintenance state.
+     */
+    public void addListener(@NotNull Runnable listener) {
+        listeners.add(listener);
     }
     
     public boolean isEnabled() {
@@ -30,15 +93,173 @@ public String getReason() {
         return reason.get();
     }
     
+    /**
+     * Gets the servers flagged for server-specific maintenance.
+     */
+    @NotNull
+    public Set<String> getServers() {
+        return servers;
+    }
+    
+    /**
+     * Gets the shared version of the current state, 0 if it was never shared.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
+    /**
+     * Records the version the shared store assigned to the current state.
+     */
+    public void setVersion(long version) {
+        this.version.accumulateAndGet(version, Math::max);
+    }
+    
+    /**
+     * Sets the callback run after every local change, to share the new state.
+     */
+    public void setReplicator(@Nullable Runnable replicator) {
+        this.replicator = replicator;
+    }
+    
     public CompletableFuture<Void> enable(@NotNull MaintenanceMode mode, @Nullable String reason) {
-        this.enabled.set(true);
-        this.mode.set(mode);
-        this.reason.set(reason);
-        return CompletableFuture.completedFuture(null);
+        return enable(mode, reason, Set.of());
+    }
+    
+    /**
+     * Enables maintenance, flagging the given servers.
+     *
+     * @param servers the servers under maintenance in
+     *        {@link MaintenanceMode#SERVER_SPECIFIC} mode
+     */
+    public CompletableFuture<Void> enable(@NotNull MaintenanceMode mode, @Nullable String reason, @NotNull Collection<String> servers) {
+        synchronized (this) {
+            this.enabled.set(true);
+            this.mode.set(mode);
+            this.reason.set(reason);
+            this.servers = Set.copyOf(servers);
+        }
+        fireChanged();
+        replicate();
+        return database.saveState(currentState());
     }
     
     public CompletableFuture<Void> disable() {
-        this.enabled.set(false);
-        return CompletableFuture.completedFuture(null);
+        synchronized (this) {
+            this.enabled.set(false);
+            this.servers = Set.of();
+        }
+        fireChanged();
+        replicate();
+        return database.saveState(currentState());
+    }
+    
+    /**
+     * Disables maintenance, or starts a reopen ramp if one is configured.
+     * <p>
+     * Disabling again while the ramp runs reopens at once, and so does
+     * ending server-specific maintenance, which never closed the network.
+     * </p>
+     */
+    public CompletableFuture<Void> disable(@NotNull TimerManager timer, @NotNull ConfigSnapshot settings) {
+        MaintenanceMode current = mode.get();
+        if (!settings.isReopenRampEnabled() || !enabled.get()
+            || current == MaintenanceMode.RAMP || current == MaintenanceMode.SERVER_SPECIFIC) {
+            return disable();
+        }
+        // Started first, so the state shared by enable() already carries the ramp
+        timer.startRamp(settings.getReopenRampPercents(), Duration.ofSeconds(settings.getReopenRampStepSeconds()));
+        return enable(MaintenanceMode.RAMP, reason.get());
+    }
+    
+    /**
+     * Ties the timer's reopen ramp to this state: the ramp stops when
+     * maintenance leaves ramp mode, and maintenance is disabled when the
+     * ramp completes, by the server that started it.
+     */
+    public void bindRamp(@NotNull TimerManager timer) {
+        addListener(() -> {
+            if (!enabled.get() || mode.get() != MaintenanceMode.RAMP) {
+                timer.stopRamp();
+            }
+        });
+        timer.setRampCompletion(() -> {
+            if (enabled.get() && mode.get() == MaintenanceMode.RAMP) {
+                disable();
+            }
+        });
+    }
+    
+    /**
+     * Applies a state written by another server, unless the state already
+     * applied here is as recent.
+     * <p>
+     * The state is not saved to the database again: the server that made
+     * the change already did.
+     * </p>
+     *
+     * @return true if the state was newer and has been applied
+     */
+    public boolean applyReplicated(long version, @NotNull MaintenanceState state, @NotNull Collection<String> servers) {
+        synchronized (this) {
+            if (version <= this.version.get()) {
+                return false;
+            }
+            this.version.set(version);
+            this.mode.set(parseMode(state.getMode()));
+            this.reason.set(state.getReason());
+            this.enabled.set(state.isEnabled());
+            this.servers = Set.copyOf(servers);
+        }
+        fireChanged();
+        return true;
+    }
+    
+    /**
+     * Applies a state announced by a server running an older version,
+     * which shares no version with it.
+     * <p>
+     * The state is applied to this server only: it is neither shared again
+     * nor saved, as the server that made the change already saved it.
+     * </p>
+     */
+    public void applyUnversioned(@NotNull MaintenanceState state) {
+        synchronized (this) {
+            this.mode.set(parseMode(state.getMode()));
+            this.reason.set(state.getReason());
+            this.enabled.set(state.isEnabled());
+        }
+        fireChanged();
+    }
+    
+    /**
+     * Gets the current state as persisted.
+     */
+    @NotNull
+    public MaintenanceState currentState() {
+        return new MaintenanceState(enabled.get(), mode.get().name(), reason.get());
+    }
+    
+    @NotNull
+    private static MaintenanceMode parseMode(@NotNull String name) {
+        try {
+            MaintenanceMode parsed = MaintenanceMode.valueOf(name);
+            return parsed != MaintenanceMode.DISABLED ? parsed : MaintenanceMode.GLOBAL;
+        } catch (IllegalArgumentException e) {
+            return MaintenanceMode.GLOBAL;
+        }
+    }
+    
+    private void replicate() {
+        Runnable current = replicator;
+        if (current != null) {
+            current.run();
+        }
+    }
+    
+    private void fireChanged() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
     }
-}
+}
\ No newline at end of file
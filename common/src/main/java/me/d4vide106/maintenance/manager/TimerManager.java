@@ -1,18 +1,40 @@
 package me.d4vide106.maintenance.manager;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Runs the maintenance countdown and the reopen ramp.
+ * <p>
+ * The ramp lets a growing percentage of players back in after maintenance,
+ * one step at a time. It is defined by its start time, step length and
+ * percentages only, so every server sharing them computes the same
+ * percentage at the same time; listeners are notified at each step.
+ * </p>
+ * <p>
+ * Only the server that started the ramp runs its completion when the last
+ * step is reached. The others stay at the last step and only complete it
+ * one step later, in case that server went away meanwhile; by then its
+ * change has normally reached them and left ramp mode.
+ * </p>
+ */
 public class TimerManager {
     
     private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
     private final AtomicBoolean active = new AtomicBoolean(false);
     private final AtomicLong endTime = new AtomicLong(0);
+    private final List<Runnable> rampListeners = new CopyOnWriteArrayList<>();
     private ScheduledFuture<?> currentTask;
+    private ScheduledFuture<?> rampTask;
+    private volatile Ramp ramp;
+    private volatile Runnable rampCompletion;
+    private volatile Runnable replicator;
     
     public TimerManager() {
     }
@@ -21,29 +43,132 @@ public CompletableFuture<Void> schedule(
         @NotNull Duration startDelay,
         @NotNull Duration duration
     ) {
-        cancel();
-        
-        active.set(true);
-        endTime.set(System.currentTimeMillis() + startDelay.toMillis() + duration.toMillis());
-        
-        currentTask = executor.schedule(
-            () -> active.set(false),
-            startDelay.toMillis() + duration.toMillis(),
-            TimeUnit.MILLISECONDS
-        );
-        
+        start(System.currentTimeMillis() + startDelay.toMillis() + duration.toMillis());
+        replicate();
         return CompletableFuture.completedFuture(null);
     }
     
     public CompletableFuture<Void> cancel() {
-        active.set(false);
-        if (currentTask != null) {
-            currentTask.cancel(false);
-            currentTask = null;
-        }
+        stop();
+        replicate();
         return CompletableFuture.completedFuture(null);
     }
     
+    /**
+     * Gets when the timer ends, in epoch millis, or 0 if it is not active.
+     */
+    public long getEndTime() {
+        return active.get() ? endTime.get() : 0;
+    }
+    
+    /**
+     * Sets the callback run after the timer is scheduled or cancelled
+     * locally, to share the new end time.
+     */
+    public void setReplicator(@Nullable Runnable replicator) {
+        this.replicator = replicator;
+    }
+    
+    /**
+     * Applies an end time shared by another server; 0 or a past time
+     * cancels the timer.
+     */
+    public void applyReplicated(long endTime) {
+        if (endTime <= System.currentTimeMillis()) {
+            stop();
+        } else if (!active.get() || this.endTime.get() != endTime) {
+            start(endTime);
+        }
+    }
+    
+    /**
+     * Starts a reopen ramp now, on this server; like {@link #stopRamp()},
+     * the change is shared with the maintenance state.
+     *
+     * @param percents the percentage of players let in at each step, ending at 100
+     * @param step     how long each step lasts
+     */
+    public void startRamp(@NotNull int[] percents, @NotNull Duration step) {
+        startRamp(new Ramp(System.currentTimeMillis(), Math.max(1, step.toMillis()), percents.clone(), true));
+    }
+    
+    /**
+     * Stops the ramp on this server only, e.g. because maintenance left
+     * ramp mode; the change is shared with the maintenance state.
+     */
+    public synchronized void stopRamp() {
+        if (ramp == null) {
+            return;
+        }
+        ramp = null;
+        if (rampTask != null) {
+            rampTask.cancel(false);
+            rampTask = null;
+        }
+        fireRampChanged();
+    }
+    
+    /**
+     * Applies a ramp shared by another server; a start of 0 stops the ramp.
+     */
+    public void applyReplicatedRamp(long start, long step, @NotNull int[] percents) {
+        Ramp current = ramp;
+        if (start <= 0 || step <= 0 || percents.length == 0) {
+            stopRamp();
+        } else if (current == null || current.start != start) {
+            startRamp(new Ramp(start, step, percents.clone(), false));
+        }
+    }
+    
+    /**
+     * Gets the percentage of players currently let in by the ramp, or 0 if
+     * no ramp is running.
+     */
+    public int getRampPercent() {
+        Ramp current = ramp;
+        return current != null ? current.percents[current.stage(System.currentTimeMillis())] : 0;
+    }
+    
+    /**
+     * Gets when the ramp started, in epoch millis, or 0 if it is not running.
+     */
+    public long getRampStart() {
+        Ramp current = ramp;
+        return current != null ? current.start : 0;
+    }
+    
+    /**
+     * Gets how long each ramp step lasts, in millis, or 0 if it is not running.
+     */
+    public long getRampStep() {
+        Ramp current = ramp;
+        return current != null ? current.step : 0;
+    }
+    
+    /**
+     * Gets the percentages of the running ramp, or an empty array.
+     */
+    @NotNull
+    public int[] getRampPercents() {
+        Ramp current = ramp;
+        return current != null ? current.percents.clone() : new int[0];
+    }
+    
+    /**
+     * Registers a callback run whenever the ramp starts, steps or stops.
+     */
+    public void addRampListener(@NotNull Runnable listener) {
+        rampListeners.add(listener);
+    }
+    
+    /**
+     * Sets the callback run once the ramp reaches its last step, on the
+     * server that started it.
+     */
+    public void setRampCompletion(@Nullable Runnable completion) {
+        this.rampCompletion = completion;
+    }
+    
     public boolean isActive() {
         return active.get();
     }
@@ -57,7 +182,101 @@ public Duration getRemainingTime() {
     }
     
     public void shutdown() {
-        cancel();
+        stop();
+        stopRamp();
         executor.shutdown();
     }
-}
+    
+    private synchronized void start(long end) {
+        stop();
+        active.set(true);
+        endTime.set(end);
+        currentTask = executor.schedule(
+            () -> active.set(false),
+            end - System.currentTimeMillis(),
+            TimeUnit.MILLISECONDS
+        );
+    }
+    
+    private synchronized void stop() {
+        active.set(false);
+        if (currentTask != null) {
+            currentTask.cancel(false);
+            currentTask = null;
+        }
+    }
+    
+    private synchronized void startRamp(@NotNull Ramp next) {
+        if (rampTask != null) {
+            rampTask.cancel(false);
+        }
+        ramp = next;
+        // Run at every step boundary, starting with the next one
+        long now = System.currentTimeMillis();
+        long elapsed = Math.max(0, now - next.start);
+        long delay = next.completes(now) ? 0 : next.step - elapsed % next.step;
+        rampTask = executor.scheduleAtFixedRate(this::advanceRamp, delay, next.step, TimeUnit.MILLISECONDS);
+        fireRampChanged();
+    }
+    
+    private void advanceRamp() {
+        Ramp current = ramp;
+        if (current == null) {
+            return;
+        }
+        if (!current.completes(System.currentTimeMillis())) {
+            fireRampChanged();
+            return;
+        }
+        
+        stopRamp();
+        Runnable completion = rampCompletion;
+        if (completion != null) {
+            completion.run();
+        }
+    }
+    
+    private void fireRampChanged() {
+        for (Runnable listener : rampListeners) {
+            listener.run();
+        }
+    }
+    
+    private void replicate() {
+        Runnable current = replicator;
+        if (current != null) {
+            current.run();
+        }
+    }
+    
+    /**
+     * An immutable ramp definition.
+     */
+    private static final class Ramp {
+        private final long start;
+        private final long step;
+        private final int[] percents;
+        private final boolean owned;
+        
+        private Ramp(long start, long step, int[] percents, boolean owned) {
+            this.start = start;
+            this.step = step;
+            this.percents = percents;
+            this.owned = owned;
+        }
+        
+        private int stage(long now) {
+            long elapsed = now - start;
+            return elapsed <= 0 ? 0 : (int) Math.min(elapsed / step, percents.length - 1);
+        }
+        
+        /**
+         * Checks if this server completes the ramp now: at the last step if
+         * it started the ramp, one step later otherwise.
+         */
+        private boolean completes(long now) {
+            long last = start + step * (percents.length - 1);
+            return now >= (owned ? last : last + step);
+        }
+    }
+}
\ No newline at end of file
@@ -1,30 +1,160 @@
 package me.d4vide106.maintenance.manager;
 
 import me.d4vide106.maintenance.api.WhitelistedPlayer;
+import me.d4vide106.maintenance.database.DatabaseProvider;
+import me.d4vide106.maintenance.database.WhitelistChange;
+import me.d4vide106.maintenance.util.UuidSet;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+/**
+ * Database-backed whitelist with an in-memory lookup.
+ * <p>
+ * Login checks only consult {@link #whitelisted}, a compact {@link UuidSet}
+ * republished on every write, so persistence never adds login latency.
+ * Writes update memory first and are then written through to the database
+ * asynchronously, one after the other. Player metadata (name, reason, ...)
+ * is loaded along with the UUIDs at startup, patched with every change and
+ * reloaded in the background when a resync finds it out of date.
+ * </p>
+ * <p>
+ * Other servers' edits are picked up from the database change log:
+ * {@link #refresh()} applies only the changes newer than the last applied
+ * version, and a periodic {@link #resync()} reloads everything as a safety
+ * net.
+ * </p>
+ * <p>
+ * Versions are assigned when a change is inserted but become visible when
+ * its transaction commits, so on a shared database a lower version can
+ * show up after a higher one. The applied version therefore only advances
+ * over versions that were seen; changes past a gap are applied and
+ * remembered, and the gap is given up after {@link #GAP_TIMEOUT} (a
+ * rolled back insert leaves a version that never shows up).
+ * </p>
+ * <p>
+ * Connections can also be screened by name before they are authenticated,
+ * through {@link #getNames()}. The name set may still hold players removed
+ * since the last resync, so it only tells who is certainly not whitelisted;
+ * the UUID check after authentication has the final word. Names follow
+ * renames through {@link #updateName}, called on every authenticated login.
+ * </p>
+ */
 public class WhitelistManager {
     
-    private final Map<UUID, WhitelistedPlayer> cache = new ConcurrentHashMap<>();
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration FULL_RESYNC_INTERVAL = Duration.ofMinutes(10);
+    private static final Duration GAP_TIMEOUT = Duration.ofMinutes(1);
     
-    public WhitelistManager() {
+    private final DatabaseProvider database;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Maintenance-WhitelistSync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object writeLock = new Object();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile UuidSet whitelisted = UuidSet.empty();
+    private volatile Set<String> names = Collections.emptySet();
+    private volatile Map<UUID, WhitelistedPlayer> details;
+    private final NavigableSet<Long> appliedAhead = new TreeSet<>();
+    private CompletableFuture<Void> lastWrite = CompletableFuture.completedFuture(null);
+    private long writes;
+    private long version;
+    private long gapSince;
+    
+    public WhitelistManager(@NotNull DatabaseProvider database) {
+        this.database = database;
     }
     
+    /**
+     * Loads all whitelisted UUIDs from the database and starts the periodic sync.
+     */
     public CompletableFuture<Void> initialize() {
-        return CompletableFuture.completedFuture(null);
+        return resync().thenCompose(v -> loadDetails()).thenRun(() -> {
+            scheduler.scheduleWithFixedDelay(
+                this::refresh,
+                REFRESH_INTERVAL.toMillis(),
+                REFRESH_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS
+            );
+            scheduler.scheduleWithFixedDelay(
+                this::resync,
+                FULL_RESYNC_INTERVAL.toMillis(),
+                FULL_RESYNC_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS
+            );
+        });
+    }
+    
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * Registers a callback run after the whitelisted set changed.
+     * Used to rebuild lookups derived from {@link #getSnapshot()}.
+     */
+    public void addListener(@NotNull Runnable listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Gets the current set of whitelisted UUIDs; it never changes once returned.
+     */
+    @NotNull
+    public UuidSet getSnapshot() {
+        return whitelisted;
     }
     
     public boolean isWhitelisted(@NotNull UUID uuid) {
-        return cache.containsKey(uuid);
+        return whitelisted.contains(uuid);
+    }
+    
+    /**
+     * Gets the lowercase names of whitelisted players; it never changes once
+     * returned. May include players removed since the last resync.
+     */
+    @NotNull
+    public Set<String> getNames() {
+        return names;
     }
     
-    public List<WhitelistedPlayer> getWhitelistedPlayers() {
-        return new ArrayList<>(cache.values());
+    public int size() {
+        return whitelisted.size();
+    }
+    
+    /**
+     * Gets the whitelisted players whose metadata is in memory, without
+     * blocking. Empty until the startup load completed.
+     */
+    @NotNull
+    public List<WhitelistedPlayer> getLoadedPlayers() {
+        Map<UUID, WhitelistedPlayer> loaded = details;
+        if (loaded == null) {
+            loadDetails();
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(loaded.values());
+    }
+    
+    /**
+     * Gets all whitelisted players with their metadata.
+     * <p>
+     * Completes immediately once the metadata is loaded.
+     * </p>
+     */
+    public CompletableFuture<List<WhitelistedPlayer>> getWhitelistedPlayers() {
+        return loadDetails().thenApply(loaded -> new ArrayList<>(loaded.values()));
     }
     
     public CompletableFuture<Void> add(
@@ -39,21 +169,344 @@ public CompletableFuture<Void> add(
             System.currentTimeMillis(),
             null
         );
-        cache.put(uuid, player);
-        return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> written;
+        synchronized (writeLock) {
+            writes++;
+            whitelisted = whitelisted.with(uuid);
+            names = withName(names, name);
+            Map<UUID, WhitelistedPlayer> loaded = details;
+            if (loaded != null) {
+                loaded.put(uuid, player);
+            }
+            written = write(() -> database.addToWhitelist(player));
+        }
+        fireChanged();
+        return written;
+    }
+    
+    /**
+     * Records the name a whitelisted player logged in with, if it is not
+     * known yet, so a player who changed their name still passes the name
+     * check next time.
+     * <p>
+     * Cheap when nothing changed: the name is looked up in memory and only
+     * a new name is written to the database.
+     * </p>
+     */
+    public CompletableFuture<Void> updateName(@NotNull UUID uuid, @NotNull String name) {
+        if (!whitelisted.contains(uuid) || names.contains(name.toLowerCase(Locale.ROOT))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        CompletableFuture<Void> written;
+        synchronized (writeLock) {
+            writes++;
+            names = withName(names, name);
+            Map<UUID, WhitelistedPlayer> loaded = details;
+            WhitelistedPlayer player = loaded != null ? loaded.get(uuid) : null;
+            if (player != null) {
+                loaded.put(uuid, new WhitelistedPlayer(
+                    uuid,
+                    name,
+                    player.getReason(),
+                    player.getAddedAt(),
+                    player.getAddedBy()
+                ));
+            }
+            written = write(() -> database.renameWhitelisted(uuid, name));
+        }
+        fireChanged();
+        return written;
     }
     
     public CompletableFuture<Void> remove(@NotNull UUID uuid) {
-        cache.remove(uuid);
-        return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> written;
+        synchronized (writeLock) {
+            writes++;
+            whitelisted = whitelisted.without(uuid);
+            Map<UUID, WhitelistedPlayer> loaded = details;
+            if (loaded != null) {
+                loaded.remove(uuid);
+            }
+            written = write(() -> database.removeFromWhitelist(uuid));
+        }
+        fireChanged();
+        return written;
     }
     
     public CompletableFuture<Void> clearWhitelist() {
-        cache.clear();
-        return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> written;
+        synchronized (writeLock) {
+            writes++;
+            whitelisted = UuidSet.empty();
+            names = Collections.emptySet();
+            details = new ConcurrentHashMap<>();
+            written = write(database::clearWhitelist);
+        }
+        fireChanged();
+        return written;
+    }
+    
+    /**
+     * Runs a database write once the previous ones completed, so writes
+     * commit in the order they were applied in memory; separate pooled
+     * tasks could otherwise commit "add X" after "remove X". Must hold
+     * {@link #writeLock}.
+     */
+    private CompletableFuture<Void> write(@NotNull Supplier<CompletableFuture<Void>> task) {
+        CompletableFuture<Void> written = lastWrite.thenCompose(v -> task.get());
+        // A failed write must not hold back the ones after it
+        lastWrite = written.exceptionally(e -> null);
+        return written;
     }
     
+    /**
+     * Applies the whitelist changes made since the last sync, without blocking.
+     * <p>
+     * Changes are applied in version order, each one once; a change that
+     * shows up late is applied when it is seen. Replaying a change that is
+     * already reflected in memory is harmless. Names come with the changes;
+     * the metadata of added and renamed players is fetched one by one if
+     * it is loaded.
+     * </p>
+     */
     public CompletableFuture<Void> refresh() {
-        return CompletableFuture.completedFuture(null);
+        long since;
+        synchronized (writeLock) {
+            since = version;
+        }
+        
+        return database.getWhitelistChangesSince(since).thenCompose(changes -> {
+            if (changes.isEmpty()) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            
+            List<UUID> updatedPlayers = new ArrayList<>();
+            List<UUID> pendingAdds = new ArrayList<>();
+            List<String> addedNames = new ArrayList<>();
+            boolean missingNames = false;
+            boolean applied = false;
+            synchronized (writeLock) {
+                UuidSet updated = whitelisted;
+                for (WhitelistChange change : changes) {
+                    if (change.getVersion() <= version || !appliedAhead.add(change.getVersion())) {
+                        continue;
+                    }
+                    applied = true;
+                    
+                    UUID uuid = change.getUuid();
+                    switch (change.getType()) {
+                        case ADDED:
+                            pendingAdds.add(uuid);
+                            // falls through
+                        case RENAMED:
+                            updatedPlayers.add(uuid);
+                            if (change.getName() != null) {
+                                addedNames.add(change.getName());
+                            } else {
+                                missingNames = true;
+                            }
+                            break;
+                        
+                        case REMOVED:
+                            updated = updated.withAll(pendingAdds).without(uuid);
+                            pendingAdds.clear();
+                            Map<UUID, WhitelistedPlayer> cached = details;
+                            if (cached != null) {
+                                cached.remove(uuid);
+                            }
+                            break;
+                        
+                        case CLEARED:
+                            pendingAdds.clear();
+                            updated = UuidSet.empty();
+                            names = Collections.emptySet();
+                            details = new ConcurrentHashMap<>();
+                            break;
+                    }
+                }
+                if (applied) {
+                    // Runs of additions are copied in once instead of per player
+                    whitelisted = updated.withAll(pendingAdds);
+                    if (!addedNames.isEmpty()) {
+                        names = nameSet(names, addedNames);
+                    }
+                }
+                advanceVersion(System.currentTimeMillis());
+            }
+            if (applied) {
+                fireChanged();
+            }
+            if (updatedPlayers.isEmpty()) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            // Changes logged before names were recorded
+            CompletableFuture<Void> namesLoaded = missingNames ? reloadNames() : CompletableFuture.completedFuture(null);
+            return CompletableFuture.allOf(namesLoaded, loadUpdatedDetails(updatedPlayers));
+        });
+    }
+    
+    /**
+     * Reloads the whole whitelist from the database without blocking.
+     * <p>
+     * Only the UUID set is rebuilt; cached metadata of removed players is
+     * dropped and, if players are missing from it, the metadata is
+     * reloaded in the background.
+     * </p>
+     */
+    public CompletableFuture<Void> resync() {
+        long startWrites;
+        synchronized (writeLock) {
+            startWrites = writes;
+        }
+        
+        // Read the version first: changes made during the load are replayed by the next refresh
+        return database.getWhitelistVersion().thenCompose(loadedVersion ->
+            database.getWhitelistedUuids().thenAcceptBoth(database.getWhitelistedNames(), (uuids, loadedNames) -> {
+                UuidSet loaded = UuidSet.of(uuids);
+                boolean stale = false;
+                synchronized (writeLock) {
+                    // A local write raced the query; the next resync picks it up
+                    if (writes != startWrites) {
+                        return;
+                    }
+                    
+                    Map<UUID, WhitelistedPlayer> cached = details;
+                    if (cached != null) {
+                        cached.keySet().removeIf(uuid -> !loaded.contains(uuid));
+                        stale = cached.size() != loaded.size();
+                    }
+                    whitelisted = loaded;
+                    names = nameSet(Collections.emptySet(), loadedNames);
+                    version = loadedVersion;
+                    appliedAhead.headSet(loadedVersion, true).clear();
+                    advanceVersion(System.currentTimeMillis());
+                }
+                fireChanged();
+                if (stale) {
+                    reloadDetails();
+                }
+            })
+        );
+    }
+    
+    /**
+     * Moves the applied version over the changes applied without a gap
+     * before them, and over gaps older than {@link #GAP_TIMEOUT}.
+     * Must hold {@link #writeLock}.
+     */
+    private void advanceVersion(long now) {
+        while (!appliedAhead.isEmpty()) {
+            long next = appliedAhead.first();
+            if (next != version + 1) {
+                if (gapSince == 0) {
+                    gapSince = now;
+                }
+                if (now - gapSince < GAP_TIMEOUT.toMillis()) {
+                    return;
+                }
+                // Never committed, or committed so late that only the next resync picks it up
+            }
+            version = appliedAhead.pollFirst();
+        }
+        gapSince = 0;
+    }
+    
+    /**
+     * Adds the names currently in the database to the name set. Names are
+     * only dropped by a resync, which rebuilds the set.
+     */
+    private CompletableFuture<Void> reloadNames() {
+        return database.getWhitelistedNames().thenAccept(loaded -> {
+            synchronized (writeLock) {
+                names = nameSet(names, loaded);
+            }
+            fireChanged();
+        });
+    }
+    
+    /**
+     * Puts the metadata of players added or renamed by another server into
+     * the loaded metadata; nothing is fetched while it is not loaded.
+     */
+    private CompletableFuture<Void> loadUpdatedDetails(@NotNull List<UUID> players) {
+        if (details == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[players.size()];
+        for (int i = 0; i < loads.length; i++) {
+            loads[i] = database.getWhitelistedPlayer(players.get(i)).thenAccept(player -> {
+                if (player == null) {
+                    return;
+                }
+                synchronized (writeLock) {
+                    Map<UUID, WhitelistedPlayer> loaded = details;
+                    if (loaded != null && whitelisted.contains(player.getUuid())) {
+                        loaded.put(player.getUuid(), player);
+                    }
+                }
+            });
+        }
+        return CompletableFuture.allOf(loads);
+    }
+    
+    @NotNull
+    private static Set<String> withName(@NotNull Set<String> current, @NotNull String name) {
+        return nameSet(current, Collections.singletonList(name));
+    }
+    
+    @NotNull
+    private static Set<String> nameSet(@NotNull Set<String> current, @NotNull Collection<String> added) {
+        Set<String> updated = new HashSet<>((int) ((current.size() + added.size()) / 0.75f) + 1);
+        updated.addAll(current);
+        for (String name : added) {
+            updated.add(name.toLowerCase(Locale.ROOT));
+        }
+        return Collections.unmodifiableSet(updated);
+    }
+    
+    private void fireChanged() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+    
+    @NotNull
+    private CompletableFuture<Map<UUID, WhitelistedPlayer>> loadDetails() {
+        Map<UUID, WhitelistedPlayer> cached = details;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return reloadDetails();
+    }
+    
+    /**
+     * Loads all metadata from the database and replaces the loaded metadata
+     * with it, unless the whitelist changed meanwhile.
+     */
+    @NotNull
+    private CompletableFuture<Map<UUID, WhitelistedPlayer>> reloadDetails() {
+        UuidSet start;
+        long startWrites;
+        synchronized (writeLock) {
+            start = whitelisted;
+            startWrites = writes;
+        }
+        
+        return database.getWhitelistedPlayers().thenApply(players -> {
+            Map<UUID, WhitelistedPlayer> loaded = new ConcurrentHashMap<>();
+            for (WhitelistedPlayer player : players) {
+                loaded.put(player.getUuid(), player);
+            }
+            
+            synchronized (writeLock) {
+                // Changes applied meanwhile would be missing from the loaded metadata
+                if (whitelisted == start && writes == startWrites) {
+                    details = loaded;
+                }
+            }
+            return loaded;
+        });
     }
 }
@@ -0,0 +1,64 @@
+package me.d4vide106.maintenance.redis;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The ids of the last messages received, so a message delivered twice (a
+ * retried publish, or stream entries replayed after a reconnect) is only
+ * handled once.
+ * <p>
+ * Not thread-safe: used by the subscriber thread only.
+ * </p>
+ */
+final class RecentMessages {
+    
+    private final Map<Key, Boolean> seen;
+    
+    RecentMessages(int capacity) {
+        this.seen = new LinkedHashMap<Key, Boolean>(capacity * 4 / 3 + 1) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+    
+    /**
+     * Records a message.
+     *
+     * @return false if the message was already received
+     */
+    boolean add(@NotNull RedisMessage message) {
+        if (message.getId() == 0) {
+            // Sent by an older version, without an id
+            return true;
+        }
+        return seen.put(new Key(message.getServer(), message.getId()), Boolean.TRUE) == null;
+    }
+    
+    private static final class Key {
+        private final String server;
+        private final long id;
+        
+        private Key(String server, long id) {
+            this.server = server;
+            this.id = id;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return id == that.id && server.equals(that.server);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * server.hashCode() + Long.hashCode(id);
+        }
+    }
+}
\ No newline at end of file
@@ -1,11 +1,26 @@
 package me.d4vide106.maintenance.redis;
 
+import me.d4vide106.maintenance.util.IoExecutors;
+import me.d4vide106.maintenance.util.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import redis.clients.jedis.params.XAddParams;
+import redis.clients.jedis.params.XReadParams;
+import redis.clients.jedis.resps.StreamEntry;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -14,49 +29,176 @@
 /**
  * Redis manager for multi-server synchronization.
  * <p>
- * Uses pub/sub for real-time updates across server network.
+ * Messages travel either over pub/sub (fire and forget) or over a Redis
+ * Stream. With streams every node remembers the id of the last entry it
+ * processed, both locally and in Redis, so entries added while the node
+ * was disconnected are replayed when it reconnects. The stream is capped
+ * with {@code MAXLEN ~}. Both transports resubscribe automatically with
+ * exponential backoff when the connection drops; the backoff only starts
+ * over once a connection proved healthy, so a Redis that accepts
+ * connections and drops them right away is not hammered.
  * </p>
- * 
+ * <p>
+ * Unless a node id is configured, a new one is generated on every start,
+ * so servers cloned from the same data folder never share one (a shared
+ * id would make them drop each other's messages and share a stream
+ * position). A restarted node therefore starts reading at the end of the
+ * stream; it catches up through the state resync done on startup.
+ * </p>
+ * <p>
+ * Messages are sent in the compact format of {@link RedisMessage#serialize},
+ * which servers on earlier versions cannot read; while such servers are
+ * still on the network, they can be sent as JSON instead.
+ * </p>
+ * <p>
+ * The subscriber and the publisher each keep one pooled connection;
+ * publishes are batched and pipelined by a {@link RedisPublisher}. Other
+ * calls run on an {@link IoExecutors} executor limited to the remaining
+ * connections. Connections are not validated on borrow and return, which
+ * would cost a PING each time; idle connections are checked in the
+ * background instead.
+ * </p>
+ *
  * @author D4vide106
  * @version 1.0.0
  * @since 1.0.0
  */
 public class RedisManager {
     
+    private static final int MAX_CONNECTIONS = 16;
+    private static final long MIN_BACKOFF = 500;
+    private static final long MAX_BACKOFF = 30000;
+    private static final long STABLE_CONNECTION = 10000;
+    private static final int STREAM_BLOCK = 1500; // below the 2s socket timeout
+    private static final int STREAM_BATCH = 100;
+    private static final long POSITION_TTL = 7L * 24 * 60 * 60;
+    private static final String STREAM_FIELD = "m";
+    private static final int DEDUPLICATION_WINDOW = 1024;
+    
+    /**
+     * Replaces the state hash only if its version still matches ARGV[1].
+     * Returns the new version, or minus the current version on a mismatch.
+     */
+    private static final String COMPARE_AND_SET_STATE =
+        "local current = tonumber(redis.call('HGET', KEYS[1], 'version') or '0') " +
+        "if current ~= tonumber(ARGV[1]) then return -current end " +
+        "local version = current + 1 " +
+        "redis.call('DEL', KEYS[1]) " +
+        "redis.call('HSET', KEYS[1], 'version', version, unpack(ARGV, 2)) " +
+        "return version";
+    
+    /**
+     * How messages are delivered between servers.
+     */
+    public enum Transport {
+        /** Pub/sub: messages sent while a node is disconnected are lost. */
+        PUBSUB,
+        /** Redis Streams: disconnected nodes replay missed messages. */
+        STREAMS;
+        
+        /**
+         * Parses a transport name, falling back to {@link #PUBSUB}.
+         */
+        @NotNull
+        public static Transport parse(@Nullable String name) {
+            if (name == null) {
+                return PUBSUB;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return PUBSUB;
+            }
+        }
+    }
+    
     private final JedisPool pool;
     private final String channel;
+    private final String nodeId;
+    private final boolean generatedNodeId;
+    private final Transport transport;
+    private final long streamMaxLength;
+    private final String streamKey;
+    private final String positionKey;
+    private final String stateKey;
     private final ExecutorService executor;
-    private JedisPubSub subscriber;
+    private final ExecutorService ioExecutor;
+    private final RedisPublisher publisher;
+    private final Logger logger;
+    private final RecentMessages recentMessages = new RecentMessages(DEDUPLICATION_WINDOW);
+    private volatile boolean running = true;
+    private volatile JedisPubSub subscriber;
+    private volatile boolean delivered;
     private Consumer<RedisMessage> messageHandler;
+    private Runnable subscribedHandler;
+    private StreamEntryID lastStreamId;
+    private volatile String compareAndSetSha;
     
     public RedisManager(
         @NotNull String host,
         int port,
-        @NotNull String password,
+        @Nullable String password,
         int database,
-        @NotNull String channel
+        @NotNull String channel,
+        @Nullable String nodeId,
+        @NotNull Transport transport,
+        long streamMaxLength,
+        boolean jsonMessages,
+        @NotNull IoExecutors.Mode ioMode,
+        @NotNull Logger logger
     ) {
         JedisPoolConfig config = new JedisPoolConfig();
-        config.setMaxTotal(16);
+        config.setMaxTotal(MAX_CONNECTIONS);
         config.setMaxIdle(8);
         config.setMinIdle(2);
-        config.setTestOnBorrow(true);
-        config.setTestOnReturn(true);
+        config.setTestOnBorrow(false);
+        config.setTestOnReturn(false);
         config.setTestWhileIdle(true);
         
-        if (password.isEmpty()) {
+        if (password == null || password.isEmpty()) {
             this.pool = new JedisPool(config, host, port, 2000, null, database);
         } else {
             this.pool = new JedisPool(config, host, port, 2000, password, database);
         }
         
+        this.logger = logger;
         this.channel = channel;
+        this.generatedNodeId = nodeId == null || nodeId.isEmpty();
+        this.nodeId = generatedNodeId ? UUID.randomUUID().toString().substring(0, 8) : nodeId;
+        this.transport = transport;
+        this.streamMaxLength = Math.max(1L, streamMaxLength);
+        this.streamKey = channel + ":stream";
+        this.positionKey = streamKey + ":pos:" + this.nodeId;
+        this.stateKey = channel + ":state";
         this.executor = Executors.newSingleThreadExecutor(r -> {
             Thread thread = new Thread(r);
             thread.setName("MaintenanceRedis-Sub");
             thread.setDaemon(true);
             return thread;
         });
+        this.ioExecutor = IoExecutors.create("MaintenanceRedis", MAX_CONNECTIONS - 2, ioMode);
+        this.publisher = new RedisPublisher(pool, this::write, jsonMessages);
+    }
+    
+    /**
+     * Gets the id of this node, configured or generated on this start.
+     */
+    @NotNull
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    @NotNull
+    public Transport getTransport() {
+        return transport;
+    }
+    
+    /**
+     * Creates a message sent by this node.
+     */
+    @NotNull
+    public RedisMessage message(@NotNull RedisMessage.MessageType type) {
+        return new RedisMessage(type, nodeId);
     }
     
     /**
@@ -66,48 +208,91 @@ public CompletableFuture<Void> initialize() {
         return CompletableFuture.runAsync(() -> {
             try (Jedis jedis = pool.getResource()) {
                 jedis.ping();
+                compareAndSetSha = jedis.scriptLoad(COMPARE_AND_SET_STATE);
+                if (transport == Transport.STREAMS) {
+                    lastStreamId = initialStreamPosition(jedis);
+                }
             }
-        });
+        }, ioExecutor);
     }
     
     /**
-     * Starts listening for messages on the channel.
+     * Starts listening for messages.
+     * <p>
+     * The subscriber runs until {@link #shutdown()} and reconnects on its
+     * own; the handler is called on the subscriber thread. Messages sent
+     * by this node are dropped before being decoded, and a message
+     * received twice is only handled once.
+     * </p>
+     *
+     * @param handler called with every message from another node
+     * @param onSubscribed called on the subscriber thread each time the
+     *        subscriber (re)connects, as messages may have been missed
      */
-    public void subscribe(@NotNull Consumer<RedisMessage> handler) {
+    public void subscribe(@NotNull Consumer<RedisMessage> handler, @NotNull Runnable onSubscribed) {
         this.messageHandler = handler;
-        
-        this.subscriber = new JedisPubSub() {
-            @Override
-            public void onMessage(String channel, String message) {
-                try {
-                    RedisMessage msg = RedisMessage.deserialize(message);
-                    if (messageHandler != null) {
-                        messageHandler.accept(msg);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-        };
-        
-        executor.execute(() -> {
+        this.subscribedHandler = onSubscribed;
+        executor.execute(transport == Transport.STREAMS ? this::readStream : this::listenPubSub);
+    }
+    
+    /**
+     * Publishes a message to the channel or stream.
+     * <p>
+     * The message is sent with the next batch, a few milliseconds later,
+     * and may be merged with messages of the same kind.
+     * </p>
+     */
+    public CompletableFuture<Void> publish(@NotNull RedisMessage message) {
+        return publisher.submit(message);
+    }
+    
+    /**
+     * Reads the shared maintenance state hash.
+     *
+     * @return the hash fields, empty if no server has written the state yet
+     */
+    public CompletableFuture<Map<String, String>> fetchState() {
+        return CompletableFuture.supplyAsync(() -> {
             try (Jedis jedis = pool.getResource()) {
-                jedis.subscribe(subscriber, channel);
-            } catch (Exception e) {
-                e.printStackTrace();
+                Map<String, String> state = jedis.hgetAll(stateKey);
+                return state != null ? state : Collections.<String, String>emptyMap();
             }
-        });
+        }, ioExecutor);
     }
     
     /**
-     * Publishes a message to the channel.
+     * Replaces the shared maintenance state hash if nobody changed it since
+     * {@code expectedVersion}, atomically incrementing its version.
+     *
+     * @param expectedVersion the version the change is based on, 0 if the hash does not exist
+     * @param fields the new fields, without the version
+     * @return the new version if the state was written, otherwise minus the current version
      */
-    public CompletableFuture<Void> publish(@NotNull RedisMessage message) {
-        return CompletableFuture.runAsync(() -> {
+    public CompletableFuture<Long> compareAndSetState(long expectedVersion, @NotNull Map<String, String> fields) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> keys = Collections.singletonList(stateKey);
+            List<String> args = new ArrayList<>(fields.size() * 2 + 1);
+            args.add(Long.toString(expectedVersion));
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                args.add(field.getKey());
+                args.add(field.getValue());
+            }
+            
             try (Jedis jedis = pool.getResource()) {
-                jedis.publish(channel, message.serialize());
+                Object result;
+                String sha = compareAndSetSha;
+                try {
+                    result = sha != null
+                        ? jedis.evalsha(sha, keys, args)
+                        : jedis.eval(COMPARE_AND_SET_STATE, keys, args);
+                } catch (JedisNoScriptException e) {
+                    // Script cache flushed, e.g. after a Redis restart
+                    compareAndSetSha = jedis.scriptLoad(COMPARE_AND_SET_STATE);
+                    result = jedis.evalsha(compareAndSetSha, keys, args);
+                }
+                return ((Number) result).longValue();
             }
-        });
+        }, ioExecutor);
     }
     
     /**
@@ -125,14 +310,187 @@ public boolean isConnected() {
      * Shuts down Redis connection.
      */
     public CompletableFuture<Void> shutdown() {
+        running = false;
         return CompletableFuture.runAsync(() -> {
-            if (subscriber != null && subscriber.isSubscribed()) {
-                subscriber.unsubscribe();
+            JedisPubSub current = subscriber;
+            if (current != null && current.isSubscribed()) {
+                current.unsubscribe();
+            }
+            executor.shutdownNow();
+            publisher.shutdown(2000);
+            if (generatedNodeId && transport == Transport.STREAMS) {
+                // Nobody resumes from a generated id's position
+                try (Jedis jedis = pool.getResource()) {
+                    jedis.del(positionKey);
+                } catch (Exception ignored) {
+                    // Expires on its own
+                }
             }
             if (pool != null && !pool.isClosed()) {
                 pool.close();
             }
-            executor.shutdown();
-        });
+            ioExecutor.shutdown();
+        }, ioExecutor);
+    }
+    
+    // ═══════════════════════════════════════════════════════════════
+    // Subscriber loops
+    // ═══════════════════════════════════════════════════════════════
+    
+    private void listenPubSub() {
+        long backoff = MIN_BACKOFF;
+        while (running) {
+            JedisPubSub current = new JedisPubSub() {
+                @Override
+                public void onMessage(String channel, String message) {
+                    dispatch(message);
+                }
+                
+                @Override
+                public void onSubscribe(String channel, int subscribedChannels) {
+                    subscribed();
+                }
+            };
+            subscriber = current;
+            
+            delivered = false;
+            long connectedAt = System.currentTimeMillis();
+            try (Jedis jedis = pool.getResource()) {
+                // Blocks until unsubscribed or the connection drops
+                jedis.subscribe(current, channel);
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                backoff = nextBackoff(backoff, connectedAt);
+                logger.warn("Redis subscriber disconnected, retrying in " + backoff + "ms: " + e.getMessage());
+            }
+            
+            if (!sleep(backoff)) {
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF);
+        }
+    }
+    
+    private void readStream() {
+        long backoff = MIN_BACKOFF;
+        while (running) {
+            delivered = false;
+            long connectedAt = System.currentTimeMillis();
+            try (Jedis jedis = pool.getResource()) {
+                if (lastStreamId == null) {
+                    lastStreamId = initialStreamPosition(jedis);
+                }
+                subscribed();
+                
+                while (running) {
+                    List<Map.Entry<String, List<StreamEntry>>> result = jedis.xread(
+                        XReadParams.xReadParams().block(STREAM_BLOCK).count(STREAM_BATCH),
+                        Collections.singletonMap(streamKey, lastStreamId)
+                    );
+                    if (result == null || result.isEmpty()) {
+                        continue;
+                    }
+                    
+                    for (Map.Entry<String, List<StreamEntry>> stream : result) {
+                        for (StreamEntry entry : stream.getValue()) {
+                            String payload = entry.getFields().get(STREAM_FIELD);
+                            if (payload != null) {
+                                dispatch(payload);
+                            }
+                            lastStreamId = entry.getID();
+                        }
+                    }
+                    jedis.setex(positionKey, POSITION_TTL, lastStreamId.toString());
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                backoff = nextBackoff(backoff, connectedAt);
+                logger.warn("Redis stream reader disconnected, retrying in " + backoff + "ms: " + e.getMessage());
+            }
+            
+            // Resumes from lastStreamId, replaying what was added meanwhile
+            if (!sleep(backoff)) {
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF);
+        }
+    }
+    
+    /**
+     * Gets the delay before the next reconnect: back to the minimum if the
+     * connection that just dropped delivered a message or stayed up for
+     * {@link #STABLE_CONNECTION}, otherwise the current delay.
+     */
+    private long nextBackoff(long backoff, long connectedAt) {
+        if (delivered || System.currentTimeMillis() - connectedAt >= STABLE_CONNECTION) {
+            return MIN_BACKOFF;
+        }
+        return backoff;
+    }
+    
+    /**
+     * Gets where this node resumes reading: its saved position if it has
+     * one, otherwise the current end of the stream.
+     */
+    @NotNull
+    private StreamEntryID initialStreamPosition(@NotNull Jedis jedis) {
+        String saved = jedis.get(positionKey);
+        if (saved != null) {
+            return new StreamEntryID(saved);
+        }
+        
+        List<StreamEntry> last = jedis.xrevrange(streamKey, null, null, 1);
+        return last == null || last.isEmpty() ? new StreamEntryID(0, 0) : last.get(0).getID();
+    }
+    
+    private void write(@NotNull Pipeline pipeline, @NotNull String payload) {
+        if (transport == Transport.STREAMS) {
+            pipeline.xadd(
+                streamKey,
+                XAddParams.xAddParams().maxLen(streamMaxLength).approximateTrimming(),
+                Collections.singletonMap(STREAM_FIELD, payload)
+            );
+        } else {
+            pipeline.publish(channel, payload);
+        }
+    }
+    
+    private void dispatch(@NotNull String payload) {
+        delivered = true;
+        try {
+            RedisMessage msg = RedisMessageCodec.decode(payload, nodeId);
+            if (msg == null || !recentMessages.add(msg)) {
+                return;
+            }
+            if (messageHandler != null) {
+                messageHandler.accept(msg);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to handle Redis message", e);
+        }
+    }
+    
+    private void subscribed() {
+        try {
+            if (subscribedHandler != null) {
+                subscribedHandler.run();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to handle Redis resubscription", e);
+        }
+    }
+    
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 }
\ No newline at end of file
@@ -1,12 +1,12 @@
 package me.d4vide106.maintenance.redis;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Message structure for Redis pub/sub communication.
@@ -17,8 +17,10 @@
  */
 public class RedisMessage {
     
-    private static final Gson GSON = new Gson();
+    // Seeded with the clock so ids keep increasing across restarts of a node
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.currentTimeMillis() << 10);
     
+    private final long id;
     private final MessageType type;
     private final String server;
     private final long timestamp;
@@ -28,17 +30,40 @@ public RedisMessage(
         @NotNull MessageType type,
         @NotNull String server
     ) {
+        this.id = SEQUENCE.incrementAndGet();
         this.type = type;
         this.server = server;
         this.timestamp = System.currentTimeMillis();
         this.data = new HashMap<>();
     }
     
+    RedisMessage(
+        long id,
+        @NotNull MessageType type,
+        @NotNull String server,
+        long timestamp,
+        @NotNull Map<String, String> data
+    ) {
+        this.id = id;
+        this.type = type;
+        this.server = server;
+        this.timestamp = timestamp;
+        this.data = data;
+    }
+    
     public RedisMessage set(@NotNull String key, @Nullable String value) {
         data.put(key, value);
         return this;
     }
     
+    /**
+     * Gets the id of this message, unique per sending server, or 0 for
+     * messages from servers running an older version.
+     */
+    public long getId() {
+        return id;
+    }
+    
     @NotNull
     public MessageType getType() {
         return type;
@@ -58,45 +83,44 @@ public String get(@NotNull String key) {
         return data.get(key);
     }
     
+    /**
+     * Gets a read-only view of the message data.
+     */
     @NotNull
     public Map<String, String> getData() {
-        return new HashMap<>(data);
+        return Collections.unmodifiableMap(data);
     }
     
     /**
-     * Serializes this message to JSON.
+     * Serializes this message to the compact wire format.
      */
     @NotNull
     public String serialize() {
-        JsonObject json = new JsonObject();
-        json.addProperty("type", type.name());
-        json.addProperty("server", server);
-        json.addProperty("timestamp", timestamp);
-        json.add("data", GSON.toJsonTree(data));
-        return json.toString();
+        return RedisMessageCodec.encode(this, data);
+    }
+    
+    /**
+     * Serializes this message to the JSON format earlier versions read.
+     */
+    @NotNull
+    public String toJson() {
+        return RedisMessageCodec.encodeJson(this, data);
     }
     
     /**
-     * Deserializes a message from JSON.
+     * Deserializes a message from the compact wire format, or from the
+     * JSON format used by earlier versions.
      */
     @NotNull
-    public static RedisMessage deserialize(@NotNull String json) {
-        JsonObject obj = GSON.fromJson(json, JsonObject.class);
-        MessageType type = MessageType.valueOf(obj.get("type").getAsString());
-        String server = obj.get("server").getAsString();
-        
-        RedisMessage message = new RedisMessage(type, server);
-        
-        JsonObject dataObj = obj.getAsJsonObject("data");
-        for (String key : dataObj.keySet()) {
-            message.set(key, dataObj.get(key).getAsString());
-        }
-        
-        return message;
+    public static RedisMessage deserialize(@NotNull String payload) {
+        return RedisMessageCodec.decode(payload);
     }
     
     /**
      * Message types for different actions.
+     * <p>
+     * Types travel as their ordinal: add new types at the end only.
+     * </p>
      */
     public enum MessageType {
         MAINTENANCE_ENABLED,
@@ -0,0 +1,254 @@
+package me.d4vide106.maintenance.redis;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact wire format for {@link RedisMessage}.
+ * <p>
+ * Messages are written and read in a single pass over the string, without
+ * building a JSON tree:
+ * </p>
+ * <pre>
+ * message = "~2" type "|" timestamp "|" id "|" string(server) count "|" (string(key) string(value))*
+ * string  = length ":" chars | "-" for null
+ * </pre>
+ * <p>
+ * The type is the ordinal of {@link RedisMessage.MessageType} and the
+ * leading digit is the format version. The sender is read before the rest
+ * of the message, so a server can skip its own messages without decoding
+ * them. Server ids and data keys come from a small set and are interned,
+ * so decoded messages share them.
+ * </p>
+ * <p>
+ * Servers running earlier versions only read the JSON format and cannot
+ * decode this one. Payloads starting with <code>{</code> are decoded as
+ * JSON, and {@link #encodeJson} still writes it, for networks being
+ * upgraded one server at a time.
+ * </p>
+ */
+final class RedisMessageCodec {
+    
+    private static final char MAGIC = '~';
+    private static final char VERSION = '2';
+    private static final int MAX_INTERNED = 1024;
+    private static final RedisMessage.MessageType[] TYPES = RedisMessage.MessageType.values();
+    private static final Map<String, String> INTERNED = new ConcurrentHashMap<>();
+    private static final Gson GSON = new Gson();
+    
+    private RedisMessageCodec() {}
+    
+    @NotNull
+    static String encode(@NotNull RedisMessage message, @NotNull Map<String, String> data) {
+        StringBuilder out = new StringBuilder(32 + message.getServer().length() + data.size() * 24);
+        out.append(MAGIC).append(VERSION)
+            .append(message.getType().ordinal()).append('|')
+            .append(message.getTimestamp()).append('|')
+            .append(message.getId()).append('|');
+        writeString(out, message.getServer());
+        out.append(data.size()).append('|');
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+        return out.toString();
+    }
+    
+    /**
+     * Encodes a message as JSON, the format earlier versions read.
+     * <p>
+     * The id is an extra field earlier versions ignore; null values are
+     * left out, as they cannot read them.
+     * </p>
+     */
+    @NotNull
+    static String encodeJson(@NotNull RedisMessage message, @NotNull Map<String, String> data) {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", message.getType().name());
+        json.addProperty("server", message.getServer());
+        json.addProperty("timestamp", message.getTimestamp());
+        json.addProperty("id", message.getId());
+        JsonObject dataObj = new JsonObject();
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            if (entry.getValue() != null) {
+                dataObj.add(entry.getKey(), new JsonPrimitive(entry.getValue()));
+            }
+        }
+        json.add("data", dataObj);
+        return json.toString();
+    }
+    
+    @NotNull
+    static RedisMessage decode(@NotNull String payload) {
+        // Never null without a server to ignore
+        return Objects.requireNonNull(decode(payload, null));
+    }
+    
+    /**
+     * Decodes a message, unless it was sent by the given server.
+     *
+     * @param ignoredServer the server whose messages are skipped, or null
+     * @return the message, or null if it was sent by {@code ignoredServer}
+     */
+    @Nullable
+    static RedisMessage decode(@NotNull String payload, @Nullable String ignoredServer) {
+        if (!payload.isEmpty() && payload.charAt(0) == '{') {
+            RedisMessage message = decodeJson(payload);
+            return message.getServer().equals(ignoredServer) ? null : message;
+        }
+        if (payload.length() < 2 || payload.charAt(0) != MAGIC || payload.charAt(1) != VERSION) {
+            throw new IllegalArgumentException("Unknown message format");
+        }
+        
+        Reader reader = new Reader(payload);
+        int ordinal = reader.readInt('|');
+        if (ordinal < 0 || ordinal >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown message type: " + ordinal);
+        }
+        long timestamp = reader.readLong('|');
+        long id = reader.readLong('|');
+        if (ignoredServer != null && reader.nextStringEquals(ignoredServer)) {
+            return null;
+        }
+        String server = intern(reader.readString());
+        if (server == null) {
+            throw new IllegalArgumentException("Missing server");
+        }
+        
+        int count = reader.readInt('|');
+        Map<String, String> data = new HashMap<>((int) (count / 0.75f) + 1);
+        for (int i = 0; i < count; i++) {
+            String key = intern(reader.readString());
+            data.put(key, reader.readString());
+        }
+        return new RedisMessage(id, TYPES[ordinal], server, timestamp, data);
+    }
+    
+    @NotNull
+    private static RedisMessage decodeJson(@NotNull String json) {
+        JsonObject obj = GSON.fromJson(json, JsonObject.class);
+        RedisMessage.MessageType type = RedisMessage.MessageType.valueOf(obj.get("type").getAsString());
+        String server = intern(obj.get("server").getAsString());
+        JsonElement timestamp = obj.get("timestamp");
+        JsonElement id = obj.get("id");
+        
+        Map<String, String> data = new HashMap<>();
+        JsonObject dataObj = obj.getAsJsonObject("data");
+        for (String key : dataObj.keySet()) {
+            JsonElement value = dataObj.get(key);
+            data.put(intern(key), value.isJsonNull() ? null : value.getAsString());
+        }
+        
+        return new RedisMessage(
+            id != null ? id.getAsLong() : 0,
+            type,
+            server,
+            timestamp != null ? timestamp.getAsLong() : System.currentTimeMillis(),
+            data
+        );
+    }
+    
+    private static void writeString(@NotNull StringBuilder out, @Nullable String value) {
+        if (value == null) {
+            out.append('-');
+        } else {
+            out.append(value.length()).append(':').append(value);
+        }
+    }
+    
+    @Nullable
+    private static String intern(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = INTERNED.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (INTERNED.size() >= MAX_INTERNED) {
+            return value;
+        }
+        existing = INTERNED.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+    
+    private static final class Reader {
+        private final String payload;
+        private int pos = 2;
+        
+        private Reader(String payload) {
+            this.payload = payload;
+        }
+        
+        private int readInt(char terminator) {
+            long value = readLong(terminator);
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Number too large at " + pos);
+            }
+            return (int) value;
+        }
+        
+        private long readLong(char terminator) {
+            long value = 0;
+            int start = pos;
+            char c;
+            while ((c = next()) != terminator) {
+                if (c < '0' || c > '9') {
+                    throw new IllegalArgumentException("Unexpected '" + c + "' at " + (pos - 1));
+                }
+                value = value * 10 + (c - '0');
+            }
+            if (pos - 1 == start) {
+                throw new IllegalArgumentException("Missing number at " + start);
+            }
+            return value;
+        }
+        
+        /**
+         * Checks, without allocating or moving past it, if the next string
+         * equals the value.
+         */
+        private boolean nextStringEquals(@NotNull String value) {
+            int start = pos;
+            if (start < payload.length() && payload.charAt(start) == '-') {
+                return false;
+            }
+            int length = readInt(':');
+            boolean matches = length == value.length() && payload.regionMatches(pos, value, 0, length);
+            pos = start;
+            return matches;
+        }
+        
+        @Nullable
+        private String readString() {
+            if (pos < payload.length() && payload.charAt(pos) == '-') {
+                pos++;
+                return null;
+            }
+            int length = readInt(':');
+            int end = pos + length;
+            if (end > payload.length()) {
+                throw new IllegalArgumentException("Truncated message");
+            }
+            String value = payload.substring(pos, end);
+            pos = end;
+            return value;
+        }
+        
+        private char next() {
+            if (pos >= payload.length()) {
+                throw new IllegalArgumentException("Truncated message");
+            }
+            return payload.charAt(pos++);
+        }
+    }
+}
\ No newline at end of file
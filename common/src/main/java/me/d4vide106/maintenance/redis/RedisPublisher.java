@@ -0,0 +1,234 @@
+package me.d4vide106.maintenance.redis;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Sends outgoing messages in pipelined batches on one dedicated connection.
+ * <p>
+ * Messages published within {@link #LINGER_MILLIS} of each other form a
+ * batch, which costs a single round trip instead of one (plus pool
+ * validation) per message. Within a batch, messages that only tell other
+ * servers to reload something are coalesced: the whitelist is synced from
+ * its change log and the state messages carry the whole state, so only
+ * the last message of each kind needs to be sent.
+ * </p>
+ * <p>
+ * The connection is not checked before use, so it may have gone stale
+ * while idle or across a Redis restart; a batch that fails to connect is
+ * sent once more on a fresh connection before it is given up.
+ * </p>
+ */
+final class RedisPublisher {
+    
+    private static final long LINGER_MILLIS = 5;
+    private static final int MAX_BATCH = 512;
+    
+    private final JedisPool pool;
+    private final BiConsumer<Pipeline, String> writer;
+    private final boolean json;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService executor;
+    private volatile boolean running = true;
+    private Jedis connection;
+    
+    /**
+     * @param pool the pool the dedicated connection is borrowed from
+     * @param writer appends one serialized message to the pipeline
+     * @param json whether messages are sent as JSON, which earlier versions read
+     */
+    RedisPublisher(@NotNull JedisPool pool, @NotNull BiConsumer<Pipeline, String> writer, boolean json) {
+        this.pool = pool;
+        this.writer = writer;
+        this.json = json;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("MaintenanceRedis-Pub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.execute(this::run);
+    }
+    
+    /**
+     * Queues a message for the next batch.
+     *
+     * @return a future completed once the batch containing it was sent
+     */
+    CompletableFuture<Void> submit(@NotNull RedisMessage message) {
+        Pending pending = new Pending(message);
+        if (!running) {
+            pending.future.completeExceptionally(new IllegalStateException("Publisher is shut down"));
+            return pending.future;
+        }
+        queue.add(pending);
+        return pending.future;
+    }
+    
+    /**
+     * Sends what is still queued, then releases the connection.
+     */
+    void shutdown(long timeoutMillis) {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (running) {
+                    // Let a burst of publishes join this batch
+                    Thread.sleep(LINGER_MILLIS);
+                }
+                queue.drainTo(batch, MAX_BATCH - 1);
+                send(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            IllegalStateException closed = new IllegalStateException("Publisher is shut down");
+            for (Pending pending : batch) {
+                pending.future.completeExceptionally(closed);
+            }
+            Pending pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future.completeExceptionally(closed);
+            }
+            closeConnection();
+        }
+    }
+    
+    private void send(@NotNull List<Pending> batch) {
+        try {
+            List<String> payloads = new ArrayList<>(batch.size());
+            for (RedisMessage message : coalesce(batch)) {
+                payloads.add(json ? message.toJson() : message.serialize());
+            }
+            try {
+                write(payloads);
+            } catch (JedisConnectionException e) {
+                // Receivers drop duplicates of messages that did get through
+                closeConnection();
+                write(payloads);
+            }
+            
+            for (Pending pending : batch) {
+                pending.future.complete(null);
+            }
+        } catch (Exception e) {
+            // The connection may be broken; the next batch opens a new one
+            closeConnection();
+            for (Pending pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    private void write(@NotNull List<String> payloads) {
+        Pipeline pipeline = connection().pipelined();
+        for (String payload : payloads) {
+            writer.accept(pipeline, payload);
+        }
+        pipeline.sync();
+    }
+    
+    /**
+     * Keeps the last message of each coalescible kind and every other
+     * message, in their original order.
+     */
+    @NotNull
+    private static List<RedisMessage> coalesce(@NotNull List<Pending> batch) {
+        if (batch.size() == 1) {
+            return Collections.singletonList(batch.get(0).message);
+        }
+        
+        List<RedisMessage> kept = new ArrayList<>(batch.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            RedisMessage message = batch.get(i).message;
+            String key = coalesceKey(message);
+            if (key == null || seen.add(key)) {
+                kept.add(message);
+            }
+        }
+        Collections.reverse(kept);
+        return kept;
+    }
+    
+    @Nullable
+    private static String coalesceKey(@NotNull RedisMessage message) {
+        switch (message.getType()) {
+            case WHITELIST_ADDED:
+            case WHITELIST_REMOVED:
+            case WHITELIST_CLEARED:
+                return "whitelist";
+            case CONFIG_RELOAD:
+                return "config";
+            case MAINTENANCE_ENABLED:
+            case MAINTENANCE_DISABLED:
+            case TIMER_SCHEDULED:
+            case TIMER_CANCELLED:
+                // Only messages carrying the whole state supersede each other
+                return message.get(RedisStateSync.VERSION) != null ? "state" : null;
+            default:
+                return null;
+        }
+    }
+    
+    @NotNull
+    private Jedis connection() {
+        if (connection == null) {
+            connection = pool.getResource();
+        }
+        return connection;
+    }
+    
+    private void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (Exception ignored) {}
+            connection = null;
+        }
+    }
+    
+    private static final class Pending {
+        private final RedisMessage message;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        private Pending(RedisMessage message) {
+            this.message = message;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,406 @@
+package me.d4vide106.maintenance.redis;
+
+import me.d4vide106.maintenance.database.MaintenanceState;
+import me.d4vide106.maintenance.manager.MaintenanceManager;
+import me.d4vide106.maintenance.manager.TimerManager;
+import me.d4vide106.maintenance.util.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the maintenance state consistent across servers through Redis.
+ * <p>
+ * The authoritative state (enabled, mode, reason, timer end, reopen ramp
+ * and the per-server flags) is a Redis hash whose version only ever increases.
+ * Local changes replace the hash through a compare-and-set script, then
+ * are broadcast together with the version Redis assigned. A server applies
+ * a broadcast only if its version is newer than the one it already has, so
+ * delayed or reordered messages can never roll the state back.
+ * </p>
+ * <p>
+ * A local change is recorded as the fields it changed relative to the
+ * last shared state. When another server changed the hash first, its
+ * state is read and applied, and only the fields this server changed are
+ * written on top of it, if they still differ; concurrent changes to
+ * different fields (say, the timer and the reason) both survive.
+ * </p>
+ * <p>
+ * At startup the hash is read instead of the database; the first server
+ * seeds it from its database. It is read again whenever the subscriber
+ * reconnects and when a change could not be broadcast, so a lost message
+ * never leaves a server behind for good.
+ * </p>
+ *
+ * @author D4vide106
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class RedisStateSync {
+    
+    private static final int MAX_ATTEMPTS = 5;
+    
+    static final String VERSION = "version";
+    static final String ENABLED = "enabled";
+    static final String MODE = "mode";
+    static final String REASON = "reason";
+    static final String TIMER_END = "timer-end";
+    static final String RAMP_START = "ramp-start";
+    static final String RAMP_STEP = "ramp-step";
+    static final String RAMP_PERCENTS = "ramp-percents";
+    static final String SERVERS = "servers";
+    
+    private static final String[] FIELDS = {
+        VERSION, ENABLED, MODE, REASON, TIMER_END, RAMP_START, RAMP_STEP, RAMP_PERCENTS, SERVERS
+    };
+    
+    private final RedisManager redis;
+    private final MaintenanceManager maintenanceManager;
+    private final TimerManager timerManager;
+    private final Logger logger;
+    private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+    /**
+     * The last shared state applied or written here, version included.
+     */
+    private volatile Map<String, String> shared = Collections.emptyMap();
+    
+    public RedisStateSync(
+        @NotNull RedisManager redis,
+        @NotNull MaintenanceManager maintenanceManager,
+        @NotNull TimerManager timerManager,
+        @NotNull Logger logger
+    ) {
+        this.redis = redis;
+        this.maintenanceManager = maintenanceManager;
+        this.timerManager = timerManager;
+        this.logger = logger;
+    }
+    
+    /**
+     * Loads the shared state, seeding it from the database if no server
+     * has written it yet, then starts sharing local changes.
+     * <p>
+     * Replaces {@link MaintenanceManager#initialize()}.
+     * </p>
+     */
+    public CompletableFuture<Void> initialize() {
+        return redis.fetchState().thenCompose(state -> {
+            if (!state.isEmpty()) {
+                apply(state::get);
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            
+            return maintenanceManager.initialize()
+                .thenCompose(v -> {
+                    Map<String, String> fields = encode();
+                    return redis.compareAndSetState(0, fields).thenApply(result -> {
+                        if (result > 0) {
+                            written(result, fields);
+                        }
+                        return result;
+                    });
+                })
+                .thenCompose(result -> {
+                    if (result > 0) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    // Another server seeded it first
+                    return redis.fetchState().thenAccept(current -> apply(current::get));
+                });
+        }).thenRun(() -> {
+            maintenanceManager.setReplicator(this::replicate);
+            timerManager.setReplicator(this::replicate);
+        });
+    }
+    
+    /**
+     * Applies a state message from another server.
+     * <p>
+     * Messages without a state version come from older versions of the
+     * plugin, which saved the change themselves: they are applied to this
+     * server only.
+     * </p>
+     */
+    public void handle(@NotNull RedisMessage message) {
+        if (message.get(VERSION) != null) {
+            apply(message::get);
+            return;
+        }
+        
+        switch (message.getType()) {
+            case MAINTENANCE_ENABLED:
+                String mode = message.get(MODE);
+                maintenanceManager.applyUnversioned(new MaintenanceState(
+                    true,
+                    mode != null ? mode : "GLOBAL",
+                    message.get(REASON)
+                ));
+                break;
+            case MAINTENANCE_DISABLED:
+                MaintenanceState current = maintenanceManager.currentState();
+                maintenanceManager.applyUnversioned(new MaintenanceState(false, current.getMode(), current.getReason()));
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Reads the shared state again and applies it if it is newer than the
+     * state of this server.
+     * <p>
+     * Called whenever the subscriber (re)connects, to catch up on messages
+     * lost meanwhile or trimmed from the stream.
+     * </p>
+     */
+    public CompletableFuture<Void> resync() {
+        return redis.fetchState().thenAccept(state -> {
+            if (!state.isEmpty()) {
+                apply(state::get);
+            }
+        }).exceptionally(e -> {
+            logger.warn("Failed to read the shared maintenance state: " + e.getMessage());
+            return null;
+        });
+    }
+    
+    private synchronized void replicate() {
+        // Taken now: a state applied from another server meanwhile must not swallow the change
+        Map<String, String> changes = changes(shared, encode());
+        if (changes.isEmpty()) {
+            return;
+        }
+        
+        // One change at a time, so this server never conflicts with itself
+        pending = pending
+            .thenCompose(v -> push(shared, changes, 1))
+            .exceptionally(e -> {
+                logger.warn("Failed to share maintenance state: " + e.getMessage());
+                return null;
+            });
+    }
+    
+    /**
+     * Writes the changed fields on top of a shared state.
+     *
+     * @param base the shared state the change is applied to, version included
+     * @param changes the changed fields, null values for removed ones
+     */
+    private CompletableFuture<Void> push(@NotNull Map<String, String> base, @NotNull Map<String, String> changes, int attempt) {
+        Map<String, String> fields = merge(base, changes);
+        return redis.compareAndSetState(parseLong(base.get(VERSION)), fields).thenCompose(result -> {
+            if (result > 0) {
+                if (attempt > 1) {
+                    // Puts this server's changes back on top of the state taken from the other server
+                    apply(versioned(result, fields)::get);
+                } else {
+                    written(result, fields);
+                }
+                return redis.publish(message(result, fields)).exceptionallyCompose(e -> {
+                    logger.warn("Failed to broadcast maintenance state, sending it again: " + e.getMessage());
+                    return republish();
+                });
+            }
+            if (attempt >= MAX_ATTEMPTS) {
+                throw new IllegalStateException("State changed concurrently " + attempt + " times");
+            }
+            
+            // Another server wrote first: take its state, then redo only what this server changed
+            return redis.fetchState().thenCompose(current -> {
+                if (!current.isEmpty()) {
+                    apply(current::get);
+                }
+                Map<String, String> remaining = current.isEmpty()
+                    ? changes(current, encode())
+                    : changes(current, merge(current, changes));
+                if (remaining.isEmpty()) {
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+                return push(current, remaining, attempt + 1);
+            });
+        });
+    }
+    
+    /**
+     * Reads the shared state back, applies it and broadcasts it again.
+     * <p>
+     * Used when a change reached the hash but its message was lost; the
+     * hash may hold an even newer state by then, which is sent instead.
+     * </p>
+     */
+    private CompletableFuture<Void> republish() {
+        return redis.fetchState().thenCompose(state -> {
+            if (state.isEmpty()) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            apply(state::get);
+            Map<String, String> fields = new LinkedHashMap<>(state);
+            long version = parseLong(fields.remove(VERSION));
+            return redis.publish(message(version, fields));
+        });
+    }
+    
+    private void apply(@NotNull Function<String, String> fields) {
+        long version = parseLong(fields.apply(VERSION));
+        String mode = fields.apply(MODE);
+        MaintenanceState state = new MaintenanceState(
+            "1".equals(fields.apply(ENABLED)),
+            mode != null ? mode : "GLOBAL",
+            fields.apply(REASON)
+        );
+        
+        if (maintenanceManager.applyReplicated(version, state, parseServers(fields.apply(SERVERS)))) {
+            Map<String, String> applied = new LinkedHashMap<>();
+            for (String field : FIELDS) {
+                String value = fields.apply(field);
+                if (value != null) {
+                    applied.put(field, value);
+                }
+            }
+            synchronized (this) {
+                if (version > parseLong(shared.get(VERSION))) {
+                    shared = Collections.unmodifiableMap(applied);
+                }
+            }
+            timerManager.applyReplicated(parseLong(fields.apply(TIMER_END)));
+            timerManager.applyReplicatedRamp(
+                parseLong(fields.apply(RAMP_START)),
+                parseLong(fields.apply(RAMP_STEP)),
+                parsePercents(fields.apply(RAMP_PERCENTS))
+            );
+        }
+    }
+    
+    /**
+     * Records a state this server wrote to the hash, unless a newer one
+     * was applied meanwhile.
+     */
+    private void written(long version, @NotNull Map<String, String> fields) {
+        maintenanceManager.setVersion(version);
+        synchronized (this) {
+            if (version > parseLong(shared.get(VERSION))) {
+                shared = versioned(version, fields);
+            }
+        }
+    }
+    
+    @NotNull
+    private Map<String, String> encode() {
+        MaintenanceState state = maintenanceManager.currentState();
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(ENABLED, state.isEnabled() ? "1" : "0");
+        fields.put(MODE, state.getMode());
+        if (state.getReason() != null) {
+            fields.put(REASON, state.getReason());
+        }
+        fields.put(TIMER_END, Long.toString(timerManager.getEndTime()));
+        fields.put(RAMP_START, Long.toString(timerManager.getRampStart()));
+        fields.put(RAMP_STEP, Long.toString(timerManager.getRampStep()));
+        fields.put(RAMP_PERCENTS, Arrays.stream(timerManager.getRampPercents())
+            .mapToObj(Integer::toString)
+            .collect(Collectors.joining(",")));
+        if (!maintenanceManager.getServers().isEmpty()) {
+            // Sorted, so the same flags always encode to the same field
+            fields.put(SERVERS, maintenanceManager.getServers().stream().sorted().collect(Collectors.joining(",")));
+        }
+        return fields;
+    }
+    
+    /**
+     * Gets the fields of a local state that differ from a shared state,
+     * mapped to null when the local state lacks them.
+     */
+    @NotNull
+    static Map<String, String> changes(@NotNull Map<String, String> shared, @NotNull Map<String, String> local) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, String> field : local.entrySet()) {
+            if (!field.getValue().equals(shared.get(field.getKey()))) {
+                changes.put(field.getKey(), field.getValue());
+            }
+        }
+        for (String field : shared.keySet()) {
+            if (!field.equals(VERSION) && !local.containsKey(field)) {
+                changes.put(field, null);
+            }
+        }
+        return changes;
+    }
+    
+    /**
+     * Applies changes from {@link #changes} to a shared state, leaving out its version.
+     */
+    @NotNull
+    static Map<String, String> merge(@NotNull Map<String, String> shared, @NotNull Map<String, String> changes) {
+        Map<String, String> fields = new LinkedHashMap<>(shared);
+        fields.remove(VERSION);
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            if (change.getValue() != null) {
+                fields.put(change.getKey(), change.getValue());
+            } else {
+                fields.remove(change.getKey());
+            }
+        }
+        return fields;
+    }
+    
+    @NotNull
+    private static Map<String, String> versioned(long version, @NotNull Map<String, String> fields) {
+        Map<String, String> state = new LinkedHashMap<>();
+        state.put(VERSION, Long.toString(version));
+        state.putAll(fields);
+        return Collections.unmodifiableMap(state);
+    }
+    
+    @NotNull
+    private RedisMessage message(long version, @NotNull Map<String, String> fields) {
+        RedisMessage message = redis.message(
+            "1".equals(fields.get(ENABLED))
+                ? RedisMessage.MessageType.MAINTENANCE_ENABLED
+                : RedisMessage.MessageType.MAINTENANCE_DISABLED
+        );
+        message.set(VERSION, Long.toString(version));
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            message.set(field.getKey(), field.getValue());
+        }
+        return message;
+    }
+    
+    @NotNull
+    private static int[] parsePercents(@Nullable String value) {
+        if (value == null || value.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            return Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+        } catch (NumberFormatException e) {
+            return new int[0];
+        }
+    }
+    
+    @NotNull
+    private static List<String> parseServers(@Nullable String value) {
+        if (value == null || value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(value.split(","));
+    }
+    
+    private static long parseLong(@Nullable String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
\ No newline at end of file
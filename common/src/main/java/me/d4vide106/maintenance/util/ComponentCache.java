@@ -0,0 +1,118 @@
+package me.d4vide106.maintenance.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache of rendered message templates.
+ * <p>
+ * Each template keeps the last rendered value together with the placeholder
+ * values it was rendered with. A lookup with the same template and the same
+ * values returns the cached object without touching the parser, so repeated
+ * rejections during maintenance cost an array comparison instead of a full
+ * MiniMessage parse.
+ * </p>
+ * <p>
+ * Example:
+ * <pre>{@code
+ * ComponentCache<Component> cache = new ComponentCache<>(ComponentUtil::parse, "reason", "duration");
+ * Component kick = cache.render(template, reason, duration);
+ * }</pre>
+ * </p>
+ *
+ * @param <T> the rendered type (Adventure Component, legacy string, ...)
+ * @author D4vide106
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class ComponentCache<T> {
+    
+    private final Function<String, T> renderer;
+    private final String[] placeholders;
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a new cache.
+     *
+     * @param renderer parses a fully substituted template
+     * @param placeholders placeholder names (without braces), in the order
+     *                     their values are passed to {@link #render(String, String...)}
+     */
+    public ComponentCache(@NotNull Function<String, T> renderer, @NotNull String... placeholders) {
+        this.renderer = Objects.requireNonNull(renderer, "renderer");
+        this.placeholders = new String[placeholders.length];
+        for (int i = 0; i < placeholders.length; i++) {
+            this.placeholders[i] = "{" + placeholders[i] + "}";
+        }
+    }
+    
+    /**
+     * Gets the rendered template, re-rendering only if the placeholder values changed.
+     *
+     * @param template the raw template
+     * @param values placeholder values, matching the names given at construction
+     * @return the rendered value
+     */
+    @NotNull
+    public T render(@NotNull String template, @NotNull String... values) {
+        if (values.length != placeholders.length) {
+            throw new IllegalArgumentException(
+                "Expected " + placeholders.length + " placeholder values, got " + values.length
+            );
+        }
+        
+        Entry<T> entry = entries.get(template);
+        if (entry != null && Arrays.equals(entry.values, values)) {
+            return entry.rendered;
+        }
+        
+        String[] snapshot = values.clone();
+        T rendered = renderer.apply(substitute(template, snapshot));
+        entries.put(template, new Entry<>(snapshot, rendered));
+        return rendered;
+    }
+    
+    /**
+     * Renders a template ahead of time so the first lookup is already a hit.
+     */
+    public void prerender(@NotNull String template, @NotNull String... values) {
+        render(template, values);
+    }
+    
+    /**
+     * Drops every cached rendering (e.g. after a configuration reload).
+     */
+    public void invalidate() {
+        entries.clear();
+    }
+    
+    @NotNull
+    private String substitute(@NotNull String template, @NotNull String[] values) {
+        String result = template;
+        for (int i = 0; i < placeholders.length; i++) {
+            result = result.replace(placeholders[i], valueOrEmpty(values[i]));
+        }
+        return result;
+    }
+    
+    @NotNull
+    private static String valueOrEmpty(@Nullable String value) {
+        return value != null ? value : "";
+    }
+    
+    private static final class Entry<T> {
+        private final String[] values;
+        private final T rendered;
+        
+        private Entry(String[] values, T rendered) {
+            this.values = values;
+            this.rendered = rendered;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+package me.d4vide106.maintenance.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for blocking I/O (JDBC, Jedis).
+ * <p>
+ * Blocking calls must never run on the common ForkJoinPool, where they
+ * would starve unrelated async work in the JVM. Depending on the
+ * {@link Mode}, tasks run either on virtual threads (Java 21+) or on a
+ * bounded pool of daemon platform threads. In both cases at most
+ * {@code maxConcurrency} tasks run at once, which should match the size of
+ * the connection pool they draw from: extra tasks wait in the executor
+ * instead of timing out while waiting for a connection.
+ * </p>
+ * <p>
+ * The plugin is compiled for Java 17, so virtual threads are created
+ * through reflection.
+ * </p>
+ *
+ * @author D4vide106
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class IoExecutors {
+    
+    private static final VirtualThreads VIRTUAL_THREADS = findVirtualThreads();
+    
+    private IoExecutors() {}
+    
+    /**
+     * Thread strategy for blocking I/O.
+     */
+    public enum Mode {
+        /** Virtual threads when available, platform threads otherwise. */
+        AUTO,
+        /** Virtual threads; falls back to platform threads before Java 21. */
+        VIRTUAL,
+        /** Bounded pool of platform threads. */
+        PLATFORM;
+        
+        /**
+         * Parses a mode name, falling back to {@link #AUTO}.
+         */
+        @NotNull
+        public static Mode parse(@Nullable String name) {
+            if (name == null) {
+                return AUTO;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return AUTO;
+            }
+        }
+    }
+    
+    /**
+     * Checks if the running JVM supports virtual threads.
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return VIRTUAL_THREADS != null;
+    }
+    
+    /**
+     * Creates an executor for blocking I/O.
+     *
+     * @param name thread name prefix
+     * @param maxConcurrency maximum number of tasks running at once
+     * @param mode thread strategy
+     * @return a new executor, to be shut down by the caller
+     */
+    @NotNull
+    public static ExecutorService create(@NotNull String name, int maxConcurrency, @NotNull Mode mode) {
+        int limit = Math.max(1, maxConcurrency);
+        
+        if (mode != Mode.PLATFORM && VIRTUAL_THREADS != null) {
+            ExecutorService executor = VIRTUAL_THREADS.create(name + "-");
+            if (executor != null) {
+                return new BoundedExecutor(executor, limit);
+            }
+        }
+        
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            limit,
+            limit,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                Thread thread = new Thread(r, name + "-" + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        // Idle threads are released, e.g. while nothing touches the database
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    @Nullable
+    private static VirtualThreads findVirtualThreads() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Method nameMethod = builderType.getMethod("name", String.class, long.class);
+            Method factoryMethod = builderType.getMethod("factory");
+            Method perTaskMethod = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            
+            return prefix -> {
+                try {
+                    Object builder = ofVirtual.invoke(null);
+                    builder = nameMethod.invoke(builder, prefix, 0L);
+                    ThreadFactory factory = (ThreadFactory) factoryMethod.invoke(builder);
+                    return (ExecutorService) perTaskMethod.invoke(null, factory);
+                } catch (ReflectiveOperationException e) {
+                    return null;
+                }
+            };
+        } catch (ReflectiveOperationException e) {
+            // Java 17-20
+            return null;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface VirtualThreads {
+        @Nullable
+        ExecutorService create(@NotNull String prefix);
+    }
+    
+    /**
+     * Limits a thread-per-task executor to a number of concurrently running tasks.
+     * <p>
+     * Waiting tasks park their virtual thread on the semaphore, which costs
+     * no platform thread.
+     * </p>
+     */
+    private static final class BoundedExecutor extends AbstractExecutorService {
+        
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+        
+        private BoundedExecutor(@NotNull ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency, true);
+        }
+        
+        @Override
+        public void execute(@NotNull Runnable command) {
+            delegate.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+        
+        @NotNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+        
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+        
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+        
+        @Override
+        public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
\ No newline at end of file
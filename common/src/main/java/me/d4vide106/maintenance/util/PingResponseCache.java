@@ -0,0 +1,117 @@
+package me.d4vide106.maintenance.util;
+
+import me.d4vide106.maintenance.api.MaintenanceAPI;
+import me.d4vide106.maintenance.config.ConfigSnapshot;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache of pre-built server list ping responses.
+ * <p>
+ * One response is kept per client protocol version. An entry is served as
+ * long as it was built from the current configuration snapshot, in the
+ * current cache generation and for the current countdown second; otherwise
+ * it is rebuilt once and replaces the old entry. Platforms bump the
+ * generation through {@link #invalidate()} when maintenance is toggled or
+ * the configuration is reloaded.
+ * </p>
+ *
+ * @param <T> the platform specific response type
+ * @author D4vide106
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class PingResponseCache<T> {
+    
+    /**
+     * Upper bound on cached protocol versions. Pings may carry any protocol
+     * number, so the map is reset instead of growing without limit.
+     */
+    private static final int MAX_ENTRIES = 64;
+    
+    private final Builder<T> builder;
+    private final Map<Integer, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger generation = new AtomicInteger();
+    
+    public PingResponseCache(@NotNull Builder<T> builder) {
+        this.builder = Objects.requireNonNull(builder, "builder");
+    }
+    
+    /**
+     * Gets the response for a protocol version, building it on a miss.
+     *
+     * @param settings the configuration snapshot of the current ping
+     * @param protocol the client protocol version
+     * @param countdownSecond see {@link #countdownSecond(ConfigSnapshot, MaintenanceAPI)}
+     * @return the cached or freshly built response
+     */
+    @NotNull
+    public T get(@NotNull ConfigSnapshot settings, int protocol, long countdownSecond) {
+        int currentGeneration = generation.get();
+        Entry<T> entry = entries.get(protocol);
+        if (entry != null
+            && entry.settings == settings
+            && entry.generation == currentGeneration
+            && entry.countdownSecond == countdownSecond) {
+            return entry.response;
+        }
+        
+        T response = builder.build(settings, protocol, countdownSecond);
+        if (entries.size() >= MAX_ENTRIES && !entries.containsKey(protocol)) {
+            entries.clear();
+        }
+        entries.put(protocol, new Entry<>(settings, currentGeneration, countdownSecond, response));
+        return response;
+    }
+    
+    /**
+     * Drops every cached response.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+    
+    /**
+     * Gets the countdown component of the cache key.
+     * <p>
+     * Returns the remaining timer seconds when the MOTD shows a countdown,
+     * and {@code -1} otherwise so that static responses are built only once.
+     * </p>
+     */
+    public static long countdownSecond(@NotNull ConfigSnapshot settings, @NotNull MaintenanceAPI api) {
+        if (!settings.isMaintenanceMOTDCountdown() || !api.isTimerActive()) {
+            return -1L;
+        }
+        return api.getRemainingTime().getSeconds();
+    }
+    
+    /**
+     * Builds the response for one cache key.
+     *
+     * @param <T> the platform specific response type
+     */
+    @FunctionalInterface
+    public interface Builder<T> {
+        @NotNull
+        T build(@NotNull ConfigSnapshot settings, int protocol, long countdownSecond);
+    }
+    
+    private static final class Entry<T> {
+        private final ConfigSnapshot settings;
+        private final int generation;
+        private final long countdownSecond;
+        private final T response;
+        
+        private Entry(ConfigSnapshot settings, int generation, long countdownSecond, T response) {
+            this.settings = settings;
+            this.generation = generation;
+            this.countdownSecond = countdownSecond;
+            this.response = response;
+        }
+    }
+}
\ No newline at end of file
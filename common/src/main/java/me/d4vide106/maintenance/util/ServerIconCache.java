@@ -0,0 +1,213 @@
+package me.d4vide106.maintenance.util;
+
+import me.d4vide106.maintenance.config.ConfigSnapshot;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Holds the maintenance server icon, decoded once and converted to the
+ * platform icon type.
+ * <p>
+ * The icon is loaded when the configuration is applied through
+ * {@link #update(ConfigSnapshot)} and reloaded whenever the file changes on
+ * disk, so ping listeners only ever read a field. Images that are not
+ * 64x64 pixels are rejected when loading.
+ * </p>
+ *
+ * @param <T> the platform icon type (CachedServerIcon, Favicon, ...)
+ * @author D4vide106
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class ServerIconCache<T> implements AutoCloseable {
+    
+    private static final int ICON_SIZE = 64;
+    
+    private final Path dataDirectory;
+    private final Factory<T> factory;
+    private final Consumer<String> warning;
+    
+    private volatile T icon;
+    private volatile Path iconFile;
+    private WatchService watchService;
+    private Thread watcher;
+    
+    /**
+     * Creates a new icon cache.
+     *
+     * @param dataDirectory directory relative icon paths are resolved against
+     * @param factory converts a validated image to the platform icon type
+     * @param warning sink for load failures
+     */
+    public ServerIconCache(
+        @NotNull Path dataDirectory,
+        @NotNull Factory<T> factory,
+        @NotNull Consumer<String> warning
+    ) {
+        this.dataDirectory = Objects.requireNonNull(dataDirectory, "dataDirectory");
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.warning = Objects.requireNonNull(warning, "warning");
+    }
+    
+    /**
+     * Gets the loaded icon.
+     *
+     * @return the icon, or null if disabled, missing or invalid
+     */
+    @Nullable
+    public T get() {
+        return icon;
+    }
+    
+    /**
+     * Applies the icon settings: loads the configured file and starts
+     * watching it, or drops the icon if custom icons are disabled.
+     */
+    public synchronized void update(@NotNull ConfigSnapshot settings) {
+        if (!settings.isCustomIconEnabled()) {
+            stopWatching();
+            iconFile = null;
+            icon = null;
+            return;
+        }
+        
+        Path file = dataDirectory.resolve(settings.getCustomIconPath()).toAbsolutePath().normalize();
+        Path previous = iconFile;
+        iconFile = file;
+        reload();
+        
+        if (previous == null || !previous.getParent().equals(file.getParent()) || watcher == null) {
+            stopWatching();
+            startWatching(file.getParent());
+        }
+    }
+    
+    /**
+     * Stops watching the icon file.
+     */
+    @Override
+    public synchronized void close() {
+        stopWatching();
+    }
+    
+    private synchronized void reload() {
+        if (iconFile == null) {
+            return;
+        }
+        
+        if (!Files.isRegularFile(iconFile)) {
+            icon = null;
+            return;
+        }
+        
+        try {
+            BufferedImage image = ImageIO.read(iconFile.toFile());
+            if (image == null) {
+                warning.accept("Server icon " + iconFile.getFileName() + " is not a readable image");
+                icon = null;
+                return;
+            }
+            
+            if (image.getWidth() != ICON_SIZE || image.getHeight() != ICON_SIZE) {
+                warning.accept("Server icon " + iconFile.getFileName() + " must be "
+                    + ICON_SIZE + "x" + ICON_SIZE + " pixels, got "
+                    + image.getWidth() + "x" + image.getHeight());
+                icon = null;
+                return;
+            }
+            
+            icon = factory.create(image);
+        } catch (Exception e) {
+            warning.accept("Failed to load server icon " + iconFile.getFileName() + ": " + e.getMessage());
+            icon = null;
+        }
+    }
+    
+    private void startWatching(@Nullable Path directory) {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        
+        try {
+            WatchService service = directory.getFileSystem().newWatchService();
+            directory.register(
+                service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE
+            );
+            
+            Thread thread = new Thread(() -> watch(service), "Maintenance-IconWatcher");
+            thread.setDaemon(true);
+            thread.start();
+            
+            watchService = service;
+            watcher = thread;
+        } catch (IOException e) {
+            warning.accept("Failed to watch server icon directory " + directory + ": " + e.getMessage());
+        }
+    }
+    
+    private void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {}
+            watchService = null;
+        }
+        watcher = null;
+    }
+    
+    private void watch(@NotNull WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    Path file = iconFile;
+                    if (context instanceof Path && file != null && file.getFileName().equals(context)) {
+                        changed = true;
+                    }
+                }
+                
+                if (changed) {
+                    reload();
+                }
+                
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // Stopped by update() or close()
+        }
+    }
+    
+    /**
+     * Converts a validated 64x64 image to the platform icon type.
+     *
+     * @param <T> the platform icon type
+     */
+    @FunctionalInterface
+    public interface Factory<T> {
+        @NotNull
+        T create(@NotNull BufferedImage image) throws Exception;
+    }
+}
\ No newline at end of file
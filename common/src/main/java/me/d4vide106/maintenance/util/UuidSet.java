@@ -0,0 +1,297 @@
+package me.d4vide106.maintenance.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable open-addressing hash set of UUIDs.
+ * <p>
+ * Each UUID is stored as its two {@code long} halves in a flat array with
+ * linear probing, so {@link #contains(UUID)} neither boxes nor allocates and
+ * an entry costs 16 bytes plus table slack. Writers build a new set with
+ * {@link #with(UUID)}, {@link #withAll(Collection)} or
+ * {@link #without(UUID)} and publish it through a
+ * volatile field; readers never lock.
+ * </p>
+ * <p>
+ * The all-zero (nil) UUID marks empty slots and is tracked separately.
+ * </p>
+ *
+ * @author D4vide106
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class UuidSet {
+    
+    private static final UuidSet EMPTY = new UuidSet(new long[2 * 8], 0, false);
+    
+    /**
+     * Interleaved most/least significant bits, two longs per slot.
+     */
+    private final long[] table;
+    private final int mask;
+    private final int size;
+    private final boolean containsNil;
+    
+    private UuidSet(long[] table, int size, boolean containsNil) {
+        this.table = table;
+        this.mask = (table.length >> 1) - 1;
+        this.size = size;
+        this.containsNil = containsNil;
+    }
+    
+    /**
+     * Gets the empty set.
+     */
+    @NotNull
+    public static UuidSet empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * Builds a set from the given UUIDs in a single pass.
+     */
+    @NotNull
+    public static UuidSet of(@NotNull Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return EMPTY;
+        }
+        
+        long[] table = new long[2 * capacityFor(uuids.size())];
+        int mask = (table.length >> 1) - 1;
+        int size = 0;
+        boolean containsNil = false;
+        
+        for (UUID uuid : uuids) {
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            if (msb == 0L && lsb == 0L) {
+                if (!containsNil) {
+                    containsNil = true;
+                    size++;
+                }
+            } else if (insert(table, mask, msb, lsb)) {
+                size++;
+            }
+        }
+        
+        return new UuidSet(table, size, containsNil);
+    }
+    
+    /**
+     * Checks whether the set contains the UUID. Does not allocate.
+     */
+    public boolean contains(@NotNull UUID uuid) {
+        return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+    
+    /**
+     * Checks whether the set contains the UUID with the given halves.
+     */
+    public boolean contains(long msb, long lsb) {
+        if (msb == 0L && lsb == 0L) {
+            return containsNil;
+        }
+        
+        int slot = hash(msb, lsb) & mask;
+        while (true) {
+            int index = slot << 1;
+            long slotMsb = table[index];
+            long slotLsb = table[index + 1];
+            if (slotMsb == msb && slotLsb == lsb) {
+                return true;
+            }
+            if (slotMsb == 0L && slotLsb == 0L) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+    
+    /**
+     * Gets a set that also contains the UUID (this set if already present).
+     */
+    @NotNull
+    public UuidSet with(@NotNull UUID uuid) {
+        if (contains(uuid)) {
+            return this;
+        }
+        
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        if (msb == 0L && lsb == 0L) {
+            return new UuidSet(table, size + 1, true);
+        }
+        
+        int capacity = capacityFor(size + 1);
+        long[] copy = capacity == (mask + 1) ? table.clone() : rehash(capacity);
+        insert(copy, capacity - 1, msb, lsb);
+        return new UuidSet(copy, size + 1, containsNil);
+    }
+    
+    /**
+     * Gets a set that also contains all the UUIDs (this set if all present).
+     * <p>
+     * The table is sized and copied once for the whole batch, so loading
+     * or importing many players stays linear.
+     * </p>
+     */
+    @NotNull
+    public UuidSet withAll(@NotNull Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return this;
+        }
+        
+        int capacity = capacityFor(size + uuids.size());
+        long[] copy = capacity == (mask + 1) ? table.clone() : rehash(capacity);
+        int added = 0;
+        boolean nil = containsNil;
+        
+        for (UUID uuid : uuids) {
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            if (msb == 0L && lsb == 0L) {
+                if (!nil) {
+                    nil = true;
+                    added++;
+                }
+            } else if (insert(copy, capacity - 1, msb, lsb)) {
+                added++;
+            }
+        }
+        
+        return added == 0 ? this : new UuidSet(copy, size + added, nil);
+    }
+    
+    /**
+     * Gets a set without the UUID (this set if not present).
+     * <p>
+     * The slot is cleared in a copy of the table and the entries after it
+     * are shifted back to close the hole, so probe chains stay intact
+     * without tombstones.
+     * </p>
+     */
+    @NotNull
+    public UuidSet without(@NotNull UUID uuid) {
+        if (!contains(uuid)) {
+            return this;
+        }
+        
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        if (msb == 0L && lsb == 0L) {
+            return new UuidSet(table, size - 1, false);
+        }
+        
+        long[] copy = table.clone();
+        int hole = hash(msb, lsb) & mask;
+        while (copy[hole << 1] != msb || copy[(hole << 1) + 1] != lsb) {
+            hole = (hole + 1) & mask;
+        }
+        
+        int slot = (hole + 1) & mask;
+        while (true) {
+            int index = slot << 1;
+            long slotMsb = copy[index];
+            long slotLsb = copy[index + 1];
+            if (slotMsb == 0L && slotLsb == 0L) {
+                break;
+            }
+            // Move the entry back unless its home slot lies between the hole and where it sits
+            int home = hash(slotMsb, slotLsb) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                copy[hole << 1] = slotMsb;
+                copy[(hole << 1) + 1] = slotLsb;
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        copy[hole << 1] = 0L;
+        copy[(hole << 1) + 1] = 0L;
+        return new UuidSet(copy, size - 1, containsNil);
+    }
+    
+    /**
+     * Gets the number of UUIDs in the set.
+     */
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Copies the set into a new list.
+     */
+    @NotNull
+    public List<UUID> toList() {
+        List<UUID> list = new ArrayList<>(size);
+        if (containsNil) {
+            list.add(new UUID(0L, 0L));
+        }
+        for (int index = 0; index < table.length; index += 2) {
+            long msb = table[index];
+            long lsb = table[index + 1];
+            if (msb != 0L || lsb != 0L) {
+                list.add(new UUID(msb, lsb));
+            }
+        }
+        return list;
+    }
+    
+    @NotNull
+    private long[] rehash(int capacity) {
+        long[] copy = new long[2 * capacity];
+        for (int index = 0; index < table.length; index += 2) {
+            long msb = table[index];
+            long lsb = table[index + 1];
+            if (msb != 0L || lsb != 0L) {
+                insert(copy, capacity - 1, msb, lsb);
+            }
+        }
+        return copy;
+    }
+    
+    private static boolean insert(long[] table, int mask, long msb, long lsb) {
+        int slot = hash(msb, lsb) & mask;
+        while (true) {
+            int index = slot << 1;
+            long slotMsb = table[index];
+            long slotLsb = table[index + 1];
+            if (slotMsb == msb && slotLsb == lsb) {
+                return false;
+            }
+            if (slotMsb == 0L && slotLsb == 0L) {
+                table[index] = msb;
+                table[index + 1] = lsb;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+    
+    /**
+     * Smallest power of two keeping the load factor at or below 0.5.
+     */
+    private static int capacityFor(int size) {
+        int capacity = 8;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ (lsb * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package me.d4vide106.maintenance.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+    
+    private final SqlDialect dialect = new SqlDialect("test_");
+    private Connection conn;
+    
+    @BeforeEach
+    void open() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+    
+    @AfterEach
+    void close() throws SQLException {
+        conn.close();
+    }
+    
+    @Test
+    void appliesPendingStepsOnce() throws SQLException {
+        assertEquals(2, new SchemaMigrator(dialect, migrations()).migrate(conn));
+        assertEquals(0, new SchemaMigrator(dialect, migrations()).migrate(conn));
+        assertEquals(2, schemaVersion());
+        assertTrue(hasColumn("name"));
+    }
+    
+    @Test
+    void appliesOnlyNewSteps() throws SQLException {
+        new SchemaMigrator(dialect, migrations().subList(0, 1)).migrate(conn);
+        assertEquals(1, schemaVersion());
+        assertFalse(hasColumn("name"));
+        
+        assertEquals(1, new SchemaMigrator(dialect, migrations()).migrate(conn));
+        assertEquals(2, schemaVersion());
+        assertTrue(hasColumn("name"));
+    }
+    
+    @Test
+    void recordsColumnThatAlreadyExists() throws SQLException {
+        // A previous run added the column but never recorded the step
+        new SchemaMigrator(dialect, migrations().subList(0, 1)).migrate(conn);
+        execute("ALTER TABLE test_items ADD COLUMN name TEXT");
+        
+        assertEquals(1, new SchemaMigrator(dialect, migrations()).migrate(conn));
+        assertEquals(2, schemaVersion());
+    }
+    
+    @Test
+    void rejectsMigrationsOutOfOrder() {
+        List<Migration> reversed = Arrays.asList(migrations().get(1), migrations().get(0));
+        assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(dialect, reversed));
+        assertThrows(IllegalArgumentException.class, () -> new Migration(0, "Invalid"));
+    }
+    
+    @Test
+    void noMigrationsIsNoop() throws SQLException {
+        assertEquals(0, new SchemaMigrator(dialect, Collections.emptyList()).migrate(conn));
+    }
+    
+    private static List<Migration> migrations() {
+        return Arrays.asList(
+            new Migration(1, "Create items",
+                "CREATE TABLE IF NOT EXISTS test_items (id INTEGER PRIMARY KEY)"
+            ),
+            Migration.addColumn(2, "Name items", "test_items", "name", "TEXT")
+        );
+    }
+    
+    private int schemaVersion() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(dialect.selectSchemaVersion)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+    
+    private boolean hasColumn(String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(test_items)")) {
+            while (rs.next()) {
+                if (column.equals(rs.getString("name"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    private void execute(String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
\ No newline at end of file
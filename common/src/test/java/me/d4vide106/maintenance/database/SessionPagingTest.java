@@ -0,0 +1,114 @@
+package me.d4vide106.maintenance.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pages through history with the dialect's keyset query.
+ */
+class SessionPagingTest {
+    
+    private final SqlDialect dialect = new SqlDialect("test_");
+    private Connection conn;
+    
+    @BeforeEach
+    void open() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE test_history (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, start_time INTEGER NOT NULL, end_time INTEGER NOT NULL, " +
+                "mode TEXT NOT NULL, reason TEXT, started_by TEXT, players_kicked INTEGER DEFAULT 0)");
+        }
+    }
+    
+    @AfterEach
+    void close() throws SQLException {
+        conn.close();
+    }
+    
+    @Test
+    void pagesVisitEverySessionOnce() throws SQLException {
+        // Runs of equal start times straddle the page boundaries
+        long[] startTimes = {100, 100, 100, 200, 200, 300, 300, 300, 300, 400, 500};
+        for (long startTime : startTimes) {
+            insert(startTime);
+        }
+        
+        List<Integer> visited = new ArrayList<>();
+        long startTime = Long.MAX_VALUE;
+        int id = Integer.MAX_VALUE;
+        while (true) {
+            List<long[]> page = page(startTime, id, 3);
+            if (page.isEmpty()) {
+                break;
+            }
+            assertTrue(page.size() <= 3);
+            for (long[] row : page) {
+                visited.add((int) row[0]);
+            }
+            long[] last = page.get(page.size() - 1);
+            id = (int) last[0];
+            startTime = last[1];
+        }
+        
+        List<Integer> expected = new ArrayList<>();
+        for (int i = startTimes.length; i >= 1; i--) {
+            expected.add(i);
+        }
+        assertEquals(expected, visited);
+    }
+    
+    @Test
+    void firstPageMatchesRecentSessions() throws SQLException {
+        for (int i = 0; i < 5; i++) {
+            insert(100);
+        }
+        
+        List<long[]> page = page(Long.MAX_VALUE, Integer.MAX_VALUE, 2);
+        assertEquals(2, page.size());
+        assertEquals(5L, page.get(0)[0]);
+        assertEquals(4L, page.get(1)[0]);
+    }
+    
+    private void insert(long startTime) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(dialect.insertSession)) {
+            stmt.setLong(1, startTime);
+            stmt.setLong(2, startTime + 10);
+            stmt.setString(3, "GLOBAL");
+            stmt.setString(4, null);
+            stmt.setString(5, null);
+            stmt.setInt(6, 0);
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Gets (id, start time) pairs of one page.
+     */
+    private List<long[]> page(long startTime, int id, int pageSize) throws SQLException {
+        List<long[]> rows = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(dialect.selectSessionsBefore)) {
+            stmt.setLong(1, startTime);
+            stmt.setLong(2, startTime);
+            stmt.setInt(3, id);
+            stmt.setInt(4, pageSize);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                rows.add(new long[] {rs.getInt("id"), rs.getLong("start_time")});
+            }
+        }
+        return rows;
+    }
+}
\ No newline at end of file
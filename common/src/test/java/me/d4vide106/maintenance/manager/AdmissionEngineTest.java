@@ -0,0 +1,120 @@
+package me.d4vide106.maintenance.manager;
+
+import me.d4vide106.maintenance.api.MaintenanceMode;
+import me.d4vide106.maintenance.config.MaintenanceConfig;
+import me.d4vide106.maintenance.database.DatabaseProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AdmissionEngineTest {
+    
+    private static final long STEP = 60_000;
+    private static final int[] PERCENTS = {5, 25, 100};
+    
+    @TempDir
+    Path dataFolder;
+    
+    private final MaintenanceManager maintenanceManager = new MaintenanceManager(mock(DatabaseProvider.class));
+    private final TimerManager timer = new TimerManager();
+    private AdmissionEngine<String> admission;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(dataFolder.resolve("config.yml"), "debug: false\n");
+        MaintenanceConfig config = new MaintenanceConfig(dataFolder);
+        config.load();
+        admission = new AdmissionEngine<>(
+            config,
+            maintenanceManager,
+            new WhitelistManager(mock(DatabaseProvider.class)),
+            timer,
+            Function.identity()
+        );
+        maintenanceManager.enable(MaintenanceMode.RAMP, null);
+    }
+    
+    @AfterEach
+    void shutdown() {
+        timer.shutdown();
+    }
+    
+    @Test
+    void rampLetsItsShareOfPlayersIn() {
+        List<UUID> players = players(20_000);
+        
+        rampAt(1);
+        long allowed = players.stream().filter(uuid -> admission.check(uuid) == AdmissionEngine.Verdict.ALLOW).count();
+        
+        // 25% of the players, give or take sampling noise
+        assertEquals(0.25, allowed / (double) players.size(), 0.02);
+    }
+    
+    @Test
+    void playersLetInStayInAtLaterSteps() {
+        List<UUID> players = players(5_000);
+        
+        rampAt(0);
+        List<UUID> first = allowed(players);
+        rampAt(1);
+        List<UUID> second = allowed(players);
+        rampAt(2);
+        
+        assertFalse(first.isEmpty());
+        assertTrue(second.containsAll(first));
+        assertEquals(players, allowed(players));
+    }
+    
+    @Test
+    void everyNameIsAllowedDuringTheRamp() {
+        rampAt(0);
+        
+        assertEquals(AdmissionEngine.Verdict.ALLOW, admission.checkName("anyone"));
+    }
+    
+    @Test
+    void nobodyIsLetInBeforeTheRampStarts() {
+        List<UUID> players = players(1_000);
+        
+        assertTrue(allowed(players).isEmpty());
+    }
+    
+    /**
+     * Shares a ramp that reached the given step.
+     */
+    private void rampAt(int step) {
+        timer.applyReplicatedRamp(System.currentTimeMillis() - STEP * step - STEP / 2, STEP, PERCENTS);
+    }
+    
+    private List<UUID> allowed(List<UUID> players) {
+        List<UUID> allowed = new ArrayList<>();
+        for (UUID uuid : players) {
+            if (admission.check(uuid) == AdmissionEngine.Verdict.ALLOW) {
+                allowed.add(uuid);
+            }
+        }
+        return allowed;
+    }
+    
+    private static List<UUID> players(int count) {
+        Random random = new Random(42);
+        List<UUID> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return players;
+    }
+}
\ No newline at end of file
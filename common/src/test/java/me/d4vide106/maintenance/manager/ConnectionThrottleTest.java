@@ -0,0 +1,124 @@
+package me.d4vide106.maintenance.manager;
+
+import me.d4vide106.maintenance.api.MaintenanceMode;
+import me.d4vide106.maintenance.config.MaintenanceConfig;
+import me.d4vide106.maintenance.database.DatabaseProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ConnectionThrottleTest {
+    
+    @TempDir
+    Path dataFolder;
+    
+    private ConnectionThrottle throttle;
+    
+    @AfterEach
+    void shutdown() {
+        if (throttle != null) {
+            throttle.shutdown();
+        }
+    }
+    
+    @Test
+    void addressIsThrottledOnceItsBurstIsSpent() throws IOException {
+        throttle = throttle(3, 0, true);
+        InetAddress address = InetAddress.getByName("203.0.113.7");
+        
+        for (int i = 0; i < 3; i++) {
+            assertFalse(throttle.throttle(address));
+            throttle.recordRejection(address);
+        }
+        assertTrue(throttle.throttle(address));
+    }
+    
+    @Test
+    void addressesNeverRejectedAreNotThrottled() throws IOException {
+        throttle = throttle(1, 0, true);
+        InetAddress offender = InetAddress.getByName("203.0.113.7");
+        throttle.recordRejection(offender);
+        
+        assertTrue(throttle.throttle(offender));
+        assertFalse(throttle.throttle(InetAddress.getByName("203.0.113.8")));
+    }
+    
+    @Test
+    void ipv6AddressesShareTheirPrefixBucket() throws IOException {
+        throttle = throttle(1, 0, true);
+        throttle.recordRejection(InetAddress.getByName("2001:db8:1:2::1"));
+        
+        assertTrue(throttle.throttle(InetAddress.getByName("2001:db8:1:2::ffff")));
+        assertFalse(throttle.throttle(InetAddress.getByName("2001:db8:1:3::1")));
+    }
+    
+    @Test
+    void globalBucketThrottlesEveryRecentOffender() throws IOException {
+        throttle = throttle(100, 2, true);
+        InetAddress first = InetAddress.getByName("203.0.113.1");
+        InetAddress second = InetAddress.getByName("203.0.113.2");
+        
+        throttle.recordRejection(first);
+        assertFalse(throttle.throttle(first));
+        throttle.recordRejection(second);
+        throttle.recordRejection(first);
+        
+        // Well within their own bursts, but over two rejections per second overall
+        assertTrue(throttle.throttle(first));
+        assertTrue(throttle.throttle(second));
+        assertFalse(throttle.throttle(InetAddress.getByName("203.0.113.3")));
+    }
+    
+    @Test
+    void nothingIsThrottledWithoutMaintenance() throws IOException {
+        throttle = throttle(1, 0, false);
+        InetAddress address = InetAddress.getByName("203.0.113.7");
+        throttle.recordRejection(address);
+        
+        assertFalse(throttle.throttle(address));
+    }
+    
+    @Test
+    void throttleIsOffByDefault() throws IOException {
+        Files.writeString(dataFolder.resolve("config.yml"), "debug: false\n");
+        MaintenanceConfig config = new MaintenanceConfig(dataFolder);
+        config.load();
+        throttle = new ConnectionThrottle(config, enabledManager(true), mock(DatabaseProvider.class));
+        InetAddress address = InetAddress.getByName("203.0.113.7");
+        
+        for (int i = 0; i < 10; i++) {
+            throttle.recordRejection(address);
+        }
+        assertFalse(throttle.throttle(address));
+    }
+    
+    private ConnectionThrottle throttle(int burst, int globalPerSecond, boolean maintenance) throws IOException {
+        Files.writeString(dataFolder.resolve("config.yml"), String.join("\n",
+            "connection-throttle:",
+            "  enabled: true",
+            "  burst: " + burst,
+            "  refill-seconds: 60",
+            "  global-per-second: " + globalPerSecond,
+            ""
+        ));
+        MaintenanceConfig config = new MaintenanceConfig(dataFolder);
+        config.load();
+        return new ConnectionThrottle(config, enabledManager(maintenance), mock(DatabaseProvider.class));
+    }
+    
+    private static MaintenanceManager enabledManager(boolean enabled) {
+        MaintenanceManager manager = new MaintenanceManager(mock(DatabaseProvider.class));
+        if (enabled) {
+            manager.enable(MaintenanceMode.GLOBAL, null);
+        }
+        return manager;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package me.d4vide106.maintenance.manager;
+
+import me.d4vide106.maintenance.api.MaintenanceMode;
+import me.d4vide106.maintenance.config.MaintenanceConfig;
+import me.d4vide106.maintenance.database.DatabaseProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class JoinQueueTest {
+    
+    @TempDir
+    Path dataFolder;
+    
+    private final MaintenanceManager maintenanceManager = new MaintenanceManager(mock(DatabaseProvider.class));
+    private JoinQueue<String> queue;
+    
+    @AfterEach
+    void shutdown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+    
+    @Test
+    void pacesOnlyAfterMaintenanceEnds() throws IOException {
+        queue = queue(true, 10);
+        assertFalse(queue.isPacing());
+        assertEquals(0, queue.enqueue(UUID.randomUUID(), false));
+        
+        maintenanceManager.disable();
+        assertTrue(queue.isPacing());
+        
+        maintenanceManager.enable(MaintenanceMode.GLOBAL, null);
+        assertFalse(queue.isPacing());
+    }
+    
+    @Test
+    void disabledQueueNeverPaces() throws IOException {
+        queue = queue(false, 10);
+        maintenanceManager.disable();
+        
+        assertFalse(queue.isPacing());
+    }
+    
+    @Test
+    void playersKeepTheirTurnInArrivalOrder() throws IOException {
+        // One ticket per second, so none is released while the test runs
+        queue = queue(true, 1);
+        maintenanceManager.disable();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        
+        // The first tick's worth is released up front
+        assertEquals(0, queue.enqueue(first, false));
+        assertEquals(1, queue.enqueue(second, false));
+        assertEquals(2, queue.enqueue(third, false));
+        
+        // Reconnecting does not take a new ticket
+        assertEquals(2, queue.enqueue(third, false));
+        assertEquals(1, queue.position(second));
+        assertEquals(0, queue.enqueue(UUID.randomUUID(), true));
+    }
+    
+    @Test
+    void ticketsAreReleasedAtTheConfiguredRate() throws Exception {
+        queue = queue(true, 10);
+        maintenanceManager.disable();
+        UUID last = null;
+        for (int i = 0; i < 6; i++) {
+            last = UUID.randomUUID();
+            queue.enqueue(last, false);
+        }
+        assertTrue(queue.position(last) > 0);
+        
+        // Ten tickets per second: the sixth is released within a second
+        long deadline = System.currentTimeMillis() + 3000;
+        while (queue.position(last) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, queue.position(last));
+        assertEquals(0, queue.enqueue(last, false));
+    }
+    
+    @Test
+    void farPositionsShareARenderedMessage() throws IOException {
+        queue = queue(true, 10);
+        
+        assertEquals("#7", queue.waitingMessage(7));
+        assertEquals("#200", queue.waitingMessage(150));
+        assertSame(queue.waitingMessage(101), queue.waitingMessage(199));
+    }
+    
+    private JoinQueue<String> queue(boolean enabled, int rate) throws IOException {
+        Files.writeString(dataFolder.resolve("config.yml"), String.join("\n",
+            "reopen-queue:",
+            "  enabled: " + enabled,
+            "  rate: " + rate,
+            "  max-duration: 300",
+            "  message: '#{position}'",
+            ""
+        ));
+        MaintenanceConfig config = new MaintenanceConfig(dataFolder);
+        config.load();
+        maintenanceManager.enable(MaintenanceMode.GLOBAL, null);
+        return new JoinQueue<>(config, maintenanceManager, new WhitelistManager(mock(DatabaseProvider.class)), Function.identity());
+    }
+}
\ No newline at end of file
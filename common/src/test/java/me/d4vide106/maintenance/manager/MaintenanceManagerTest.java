@@ -0,0 +1,71 @@
+package me.d4vide106.maintenance.manager;
+
+import me.d4vide106.maintenance.api.MaintenanceMode;
+import me.d4vide106.maintenance.database.DatabaseProvider;
+import me.d4vide106.maintenance.database.MaintenanceState;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class MaintenanceManagerTest {
+    
+    @Test
+    void replicatedStatesApplyInVersionOrder() {
+        MaintenanceManager manager = new MaintenanceManager(mock(DatabaseProvider.class));
+        
+        assertTrue(manager.applyReplicated(2, new MaintenanceState(true, "GLOBAL", "Updating"), Set.of()));
+        assertTrue(manager.isEnabled());
+        assertEquals(2, manager.getVersion());
+        
+        // A late message carrying an older state is ignored
+        assertFalse(manager.applyReplicated(1, new MaintenanceState(false, "GLOBAL", null), Set.of()));
+        assertFalse(manager.applyReplicated(2, new MaintenanceState(false, "GLOBAL", null), Set.of()));
+        assertTrue(manager.isEnabled());
+        assertEquals("Updating", manager.getReason());
+        
+        assertTrue(manager.applyReplicated(3, new MaintenanceState(true, "RAMP", "Reopening"), Set.of()));
+        assertEquals(MaintenanceMode.RAMP, manager.getMode());
+        assertEquals(3, manager.getVersion());
+    }
+    
+    @Test
+    void recordedVersionNeverGoesBack() {
+        MaintenanceManager manager = new MaintenanceManager(mock(DatabaseProvider.class));
+        manager.setVersion(5);
+        manager.setVersion(4);
+        
+        assertEquals(5, manager.getVersion());
+        assertFalse(manager.applyReplicated(5, new MaintenanceState(true, "GLOBAL", null), Set.of()));
+        assertFalse(manager.isEnabled());
+    }
+    
+    @Test
+    void listenersRunOnlyForAppliedStates() {
+        MaintenanceManager manager = new MaintenanceManager(mock(DatabaseProvider.class));
+        int[] calls = new int[1];
+        manager.addListener(() -> calls[0]++);
+        
+        manager.applyReplicated(2, new MaintenanceState(true, "GLOBAL", null), Set.of());
+        manager.applyReplicated(1, new MaintenanceState(false, "GLOBAL", null), Set.of());
+        
+        assertEquals(1, calls[0]);
+    }
+    
+    @Test
+    void serverFlagsFollowTheState() {
+        MaintenanceManager manager = new MaintenanceManager(mock(DatabaseProvider.class));
+        
+        manager.enable(MaintenanceMode.SERVER_SPECIFIC, null, List.of("survival", "skyblock"));
+        assertEquals(Set.of("survival", "skyblock"), manager.getServers());
+        
+        manager.disable();
+        assertTrue(manager.getServers().isEmpty());
+        
+        manager.applyReplicated(1, new MaintenanceState(true, "SERVER_SPECIFIC", null), List.of("creative"));
+        assertEquals(Set.of("creative"), manager.getServers());
+    }
+}
\ No newline at end of file
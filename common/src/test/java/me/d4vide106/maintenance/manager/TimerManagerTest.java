@@ -0,0 +1,74 @@
+package me.d4vide106.maintenance.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerManagerTest {
+    
+    private static final long STEP = 60_000;
+    private static final int[] PERCENTS = {5, 25, 50, 100};
+    
+    private final TimerManager timer = new TimerManager();
+    
+    @AfterEach
+    void shutdown() {
+        timer.shutdown();
+    }
+    
+    @Test
+    void rampPercentFollowsElapsedSteps() {
+        long now = System.currentTimeMillis();
+        
+        timer.applyReplicatedRamp(now - STEP * 2 - STEP / 2, STEP, PERCENTS);
+        assertEquals(50, timer.getRampPercent());
+        
+        timer.applyReplicatedRamp(now - STEP * 10, STEP, PERCENTS);
+        assertEquals(100, timer.getRampPercent());
+        
+        // A start slightly ahead of this server's clock is still the first step
+        timer.applyReplicatedRamp(now + 5_000, STEP, PERCENTS);
+        assertEquals(5, timer.getRampPercent());
+    }
+    
+    @Test
+    void sameRampIsNotRestarted() {
+        long start = System.currentTimeMillis() - STEP;
+        int[] changes = new int[1];
+        timer.addRampListener(() -> changes[0]++);
+        
+        timer.applyReplicatedRamp(start, STEP, PERCENTS);
+        timer.applyReplicatedRamp(start, STEP, PERCENTS);
+        
+        assertEquals(1, changes[0]);
+        assertEquals(start, timer.getRampStart());
+        assertArrayEquals(PERCENTS, timer.getRampPercents());
+    }
+    
+    @Test
+    void zeroStartStopsTheRamp() {
+        timer.applyReplicatedRamp(System.currentTimeMillis(), STEP, PERCENTS);
+        timer.applyReplicatedRamp(0, 0, new int[0]);
+        
+        assertEquals(0, timer.getRampPercent());
+        assertEquals(0, timer.getRampStart());
+        assertEquals(0, timer.getRampPercents().length);
+    }
+    
+    @Test
+    void startedRampCompletesAtItsLastStep() throws InterruptedException {
+        CountDownLatch completed = new CountDownLatch(1);
+        timer.setRampCompletion(completed::countDown);
+        
+        timer.startRamp(new int[] {10, 100}, Duration.ofMillis(50));
+        assertEquals(10, timer.getRampPercent());
+        
+        assertTrue(completed.await(2, TimeUnit.SECONDS));
+        assertEquals(0, timer.getRampPercent());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package me.d4vide106.maintenance.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentMessagesTest {
+    
+    @Test
+    void duplicatesAreDropped() {
+        RecentMessages recent = new RecentMessages(16);
+        
+        assertTrue(recent.add(message("lobby-1", 1)));
+        assertTrue(recent.add(message("lobby-1", 2)));
+        assertFalse(recent.add(message("lobby-1", 1)));
+        assertFalse(recent.add(message("lobby-1", 2)));
+    }
+    
+    @Test
+    void idsAreScopedToTheSender() {
+        RecentMessages recent = new RecentMessages(16);
+        
+        assertTrue(recent.add(message("lobby-1", 7)));
+        assertTrue(recent.add(message("lobby-2", 7)));
+    }
+    
+    @Test
+    void onlyTheLastMessagesAreRemembered() {
+        RecentMessages recent = new RecentMessages(2);
+        
+        recent.add(message("lobby-1", 1));
+        recent.add(message("lobby-1", 2));
+        recent.add(message("lobby-1", 3));
+        
+        // The oldest id left the window
+        assertTrue(recent.add(message("lobby-1", 1)));
+        assertFalse(recent.add(message("lobby-1", 3)));
+    }
+    
+    @Test
+    void messagesWithoutIdAreAlwaysHandled() {
+        RecentMessages recent = new RecentMessages(16);
+        
+        assertTrue(recent.add(message("old", 0)));
+        assertTrue(recent.add(message("old", 0)));
+    }
+    
+    private static RedisMessage message(String server, long id) {
+        return new RedisMessage(id, RedisMessage.MessageType.CONFIG_RELOAD, server, 0, new HashMap<>());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package me.d4vide106.maintenance.redis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisMessageCodecTest {
+    
+    @Test
+    void compactFormatRoundTrips() {
+        RedisMessage message = new RedisMessage(RedisMessage.MessageType.MAINTENANCE_ENABLED, "lobby-1")
+            .set("reason", "Back at 5|6: soon")
+            .set("mode", "GLOBAL")
+            .set("empty", "")
+            .set("missing", null);
+        
+        RedisMessage decoded = RedisMessage.deserialize(message.serialize());
+        assertEquals(message.getId(), decoded.getId());
+        assertEquals(message.getType(), decoded.getType());
+        assertEquals(message.getServer(), decoded.getServer());
+        assertEquals(message.getTimestamp(), decoded.getTimestamp());
+        assertEquals(message.getData(), decoded.getData());
+    }
+    
+    @Test
+    void jsonFormatRoundTrips() {
+        RedisMessage message = new RedisMessage(RedisMessage.MessageType.WHITELIST_ADDED, "lobby-1")
+            .set("uuid", "069a79f4-44e9-4726-a5be-fca90e38aaf5")
+            .set("missing", null);
+        
+        RedisMessage decoded = RedisMessage.deserialize(message.toJson());
+        assertEquals(message.getId(), decoded.getId());
+        assertEquals(message.getType(), decoded.getType());
+        assertEquals(message.getServer(), decoded.getServer());
+        assertEquals(message.getTimestamp(), decoded.getTimestamp());
+        assertEquals("069a79f4-44e9-4726-a5be-fca90e38aaf5", decoded.get("uuid"));
+        // Earlier versions cannot read nulls, so they are left out
+        assertFalse(decoded.getData().containsKey("missing"));
+    }
+    
+    @Test
+    void jsonFromEarlierVersionsIsDecoded() {
+        RedisMessage decoded = RedisMessage.deserialize(
+            "{\"type\":\"MAINTENANCE_DISABLED\",\"server\":\"old\",\"timestamp\":42,\"data\":{\"mode\":\"GLOBAL\"}}"
+        );
+        assertEquals(0, decoded.getId());
+        assertEquals(RedisMessage.MessageType.MAINTENANCE_DISABLED, decoded.getType());
+        assertEquals("old", decoded.getServer());
+        assertEquals(42, decoded.getTimestamp());
+        assertEquals("GLOBAL", decoded.get("mode"));
+    }
+    
+    @Test
+    void ownMessagesAreSkippedUndecoded() {
+        String payload = new RedisMessage(RedisMessage.MessageType.CONFIG_RELOAD, "lobby-1").serialize();
+        
+        assertNull(RedisMessageCodec.decode(payload, "lobby-1"));
+        assertNotNull(RedisMessageCodec.decode(payload, "lobby-2"));
+        assertNull(RedisMessageCodec.decode(new RedisMessage(RedisMessage.MessageType.CONFIG_RELOAD, "lobby-1").toJson(), "lobby-1"));
+    }
+    
+    @Test
+    void unknownOrBrokenPayloadsAreRejected() {
+        String payload = new RedisMessage(RedisMessage.MessageType.CONFIG_RELOAD, "lobby-1").set("key", "value").serialize();
+        
+        assertThrows(IllegalArgumentException.class, () -> RedisMessage.deserialize("~1" + payload.substring(2)));
+        assertThrows(IllegalArgumentException.class, () -> RedisMessage.deserialize(payload.substring(0, payload.length() - 3)));
+        assertThrows(IllegalArgumentException.class, () -> RedisMessage.deserialize(""));
+    }
+}
\ No newline at end of file
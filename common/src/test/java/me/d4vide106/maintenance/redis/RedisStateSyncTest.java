@@ -0,0 +1,71 @@
+package me.d4vide106.maintenance.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisStateSyncTest {
+    
+    @Test
+    void changesListOnlyDifferingFields() {
+        Map<String, String> shared = state(3, "1", "GLOBAL", "Updating");
+        Map<String, String> local = new LinkedHashMap<>(shared);
+        local.remove(RedisStateSync.VERSION);
+        local.put(RedisStateSync.REASON, "Restarting");
+        
+        assertEquals(Collections.singletonMap(RedisStateSync.REASON, "Restarting"), RedisStateSync.changes(shared, local));
+    }
+    
+    @Test
+    void removedFieldsAreListedAsNull() {
+        Map<String, String> shared = state(3, "1", "GLOBAL", "Updating");
+        Map<String, String> local = new LinkedHashMap<>(shared);
+        local.remove(RedisStateSync.VERSION);
+        local.remove(RedisStateSync.REASON);
+        
+        Map<String, String> changes = RedisStateSync.changes(shared, local);
+        assertEquals(1, changes.size());
+        assertTrue(changes.containsKey(RedisStateSync.REASON));
+        assertNull(changes.get(RedisStateSync.REASON));
+        assertFalse(RedisStateSync.merge(shared, changes).containsKey(RedisStateSync.REASON));
+    }
+    
+    @Test
+    void conflictKeepsTheOtherServersFields() {
+        Map<String, String> base = state(3, "1", "GLOBAL", "Updating");
+        
+        // This server changed the reason while another one switched the mode
+        Map<String, String> local = RedisStateSync.merge(base, Collections.emptyMap());
+        local.put(RedisStateSync.REASON, "Restarting");
+        Map<String, String> changes = RedisStateSync.changes(base, local);
+        Map<String, String> current = state(4, "1", "RAMP", "Updating");
+        
+        Map<String, String> merged = RedisStateSync.merge(current, changes);
+        assertEquals("RAMP", merged.get(RedisStateSync.MODE));
+        assertEquals("Restarting", merged.get(RedisStateSync.REASON));
+        assertFalse(merged.containsKey(RedisStateSync.VERSION));
+    }
+    
+    @Test
+    void changeAlreadyMadeElsewhereIsNotRedone() {
+        Map<String, String> base = state(3, "1", "GLOBAL", "Updating");
+        Map<String, String> local = RedisStateSync.merge(base, Collections.emptyMap());
+        local.put(RedisStateSync.ENABLED, "0");
+        Map<String, String> changes = RedisStateSync.changes(base, local);
+        
+        // Another server disabled maintenance first
+        Map<String, String> current = state(4, "0", "GLOBAL", "Updating");
+        assertTrue(RedisStateSync.changes(current, RedisStateSync.merge(current, changes)).isEmpty());
+    }
+    
+    private static Map<String, String> state(long version, String enabled, String mode, String reason) {
+        Map<String, String> state = new LinkedHashMap<>();
+        state.put(RedisStateSync.VERSION, Long.toString(version));
+        state.put(RedisStateSync.ENABLED, enabled);
+        state.put(RedisStateSync.MODE, mode);
+        state.put(RedisStateSync.REASON, reason);
+        return state;
+    }
+}
\ No newline at end of file
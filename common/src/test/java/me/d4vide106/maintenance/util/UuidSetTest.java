@@ -0,0 +1,108 @@
+package me.d4vide106.maintenance.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidSetTest {
+    
+    private static final UUID NIL = new UUID(0L, 0L);
+    
+    @Test
+    void withAndWithoutTrackMembership() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        
+        UuidSet set = UuidSet.empty().with(first).with(second);
+        assertTrue(set.contains(first));
+        assertTrue(set.contains(second));
+        assertEquals(2, set.size());
+        
+        UuidSet removed = set.without(first);
+        assertFalse(removed.contains(first));
+        assertTrue(removed.contains(second));
+        assertEquals(1, removed.size());
+        
+        // Sets are immutable
+        assertTrue(set.contains(first));
+    }
+    
+    @Test
+    void unchangedSetIsReturnedAsIs() {
+        UUID uuid = UUID.randomUUID();
+        UuidSet set = UuidSet.empty().with(uuid);
+        
+        assertSame(set, set.with(uuid));
+        assertSame(set, set.without(UUID.randomUUID()));
+        assertSame(set, set.withAll(Collections.singletonList(uuid)));
+        assertSame(set, set.withAll(Collections.emptyList()));
+    }
+    
+    @Test
+    void nilUuidIsTrackedSeparately() {
+        UuidSet set = UuidSet.empty().with(NIL);
+        assertTrue(set.contains(NIL));
+        assertEquals(1, set.size());
+        assertEquals(Collections.singletonList(NIL), set.toList());
+        
+        UuidSet removed = set.without(NIL);
+        assertFalse(removed.contains(NIL));
+        assertTrue(removed.isEmpty());
+    }
+    
+    @Test
+    void withAllAddsEachUuidOnce() {
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            uuids.add(UUID.randomUUID());
+        }
+        uuids.add(uuids.get(0));
+        uuids.add(NIL);
+        
+        UuidSet set = UuidSet.of(uuids.subList(0, 10)).withAll(uuids);
+        assertEquals(1001, set.size());
+        for (UUID uuid : uuids) {
+            assertTrue(set.contains(uuid));
+        }
+        assertEquals(new HashSet<>(uuids), new HashSet<>(set.toList()));
+    }
+    
+    @Test
+    void removalKeepsCollidingEntriesReachable() {
+        // Few distinct hashes in a small table force long, wrapping probe chains
+        Random random = new Random(42);
+        List<UUID> pool = new ArrayList<>();
+        for (int i = 0; i < 48; i++) {
+            pool.add(new UUID(random.nextInt(4), random.nextInt(64)));
+        }
+        
+        UuidSet set = UuidSet.empty();
+        Set<UUID> expected = new HashSet<>();
+        for (int step = 0; step < 5000; step++) {
+            UUID uuid = pool.get(random.nextInt(pool.size()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    set = set.with(uuid);
+                    expected.add(uuid);
+                    break;
+                case 1:
+                    set = set.without(uuid);
+                    expected.remove(uuid);
+                    break;
+                default:
+                    int from = random.nextInt(pool.size() - 4);
+                    List<UUID> batch = pool.subList(from, from + 4);
+                    set = set.withAll(batch);
+                    expected.addAll(batch);
+                    break;
+            }
+            
+            assertEquals(expected.size(), set.size());
+            for (UUID candidate : pool) {
+                assertEquals(expected.contains(candidate), set.contains(candidate), "step " + step);
+            }
+        }
+    }
+}
\ No newline at end of file
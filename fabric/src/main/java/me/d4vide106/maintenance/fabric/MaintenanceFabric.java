@@ -1,20 +1,26 @@
 package me.d4vide106.maintenance.fabric;
 
-import me.d4vide106.maintenance.api.MaintenanceMode;
 import me.d4vide106.maintenance.api.MaintenanceProvider;
 import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.database.DatabaseFactory;
 import me.d4vide106.maintenance.database.DatabaseProvider;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
+import me.d4vide106.maintenance.manager.ConnectionThrottle;
+import me.d4vide106.maintenance.manager.JoinQueue;
 import me.d4vide106.maintenance.manager.MaintenanceManager;
 import me.d4vide106.maintenance.manager.TimerManager;
 import me.d4vide106.maintenance.manager.WhitelistManager;
 import me.d4vide106.maintenance.redis.RedisManager;
 import me.d4vide106.maintenance.redis.RedisMessage;
+import me.d4vide106.maintenance.redis.RedisStateSync;
+import me.d4vide106.maintenance.util.IoExecutors;
 import me.d4vide106.maintenance.fabric.command.MaintenanceCommand;
+import me.d4vide106.maintenance.fabric.util.LoggerAdapter;
 import net.fabricmc.api.DedicatedServerModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.text.Text;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +48,10 @@ public class MaintenanceFabric implements DedicatedServerModInitializer {
     private WhitelistManager whitelistManager;
     private TimerManager timerManager;
     private RedisManager redisManager;
+    private RedisStateSync stateSync;
+    private AdmissionEngine<Text> admission;
+    private ConnectionThrottle throttle;
+    private JoinQueue<Text> joinQueue;
     private MaintenanceAPIImpl apiImpl;
     
     @Override
@@ -59,11 +69,18 @@ public void onInitializeServer() {
             LOGGER.info("Configuration loaded successfully");
             
             // Initialize database
-            database = DatabaseFactory.create(config, configPath);
+            LoggerAdapter logger = new LoggerAdapter(LOGGER);
+            database = DatabaseFactory.create(config, configPath, logger);
             database.initialize().join();
             LOGGER.info("Database initialized: {}", config.getDatabaseType());
             
-            // Initialize Redis (optional)
+            // Initialize managers
+            maintenanceManager = new MaintenanceManager(database);
+            whitelistManager = new WhitelistManager(database);
+            timerManager = new TimerManager();
+            maintenanceManager.bindRamp(timerManager);
+            
+            // Initialize Redis (optional), restoring the shared maintenance state
             if (config.isRedisEnabled()) {
                 try {
                     redisManager = new RedisManager(
@@ -71,24 +88,45 @@ public void onInitializeServer() {
                         config.getRedisPort(),
                         config.getRedisPassword(),
                         config.getRedisDatabase(),
-                        config.getRedisChannel()
+                        config.getRedisChannel(),
+                        config.getRedisNodeId(),
+                        RedisManager.Transport.parse(config.getRedisTransport()),
+                        config.getRedisStreamMaxLength(),
+                        config.isRedisJsonMessages(),
+                        IoExecutors.Mode.parse(config.getIoThreads()),
+                        logger
                     );
                     redisManager.initialize().join();
-                    redisManager.subscribe(this::handleRedisMessage);
-                    LOGGER.info("Redis sync enabled");
+                    stateSync = new RedisStateSync(redisManager, maintenanceManager, timerManager, logger);
+                    stateSync.initialize().join();
+                    redisManager.subscribe(this::handleRedisMessage, stateSync::resync);
+                    LOGGER.info("Redis sync enabled (node {}, {})", redisManager.getNodeId(), redisManager.getTransport());
                 } catch (Exception e) {
                     LOGGER.warn("Failed to initialize Redis: {}", e.getMessage());
                     redisManager = null;
+                    stateSync = null;
                 }
             }
             
-            // Initialize managers
-            maintenanceManager = new MaintenanceManager();
-            whitelistManager = new WhitelistManager();
-            timerManager = new TimerManager();
-            
-            // Initialize whitelist cache
+            // Restore maintenance state and whitelist cache
+            if (stateSync == null) {
+                maintenanceManager.initialize().join();
+            }
             whitelistManager.initialize().join();
+            admission = new AdmissionEngine<>(
+                config,
+                maintenanceManager,
+                whitelistManager,
+                timerManager,
+                Text::literal
+            );
+            // Behind a proxy every login comes from the proxy's address; the proxy throttles instead
+            if (isBehindProxy()) {
+                LOGGER.info("Proxy forwarding mod found, connection throttling left to the proxy");
+            } else {
+                throttle = new ConnectionThrottle(config, maintenanceManager, database);
+            }
+            joinQueue = new JoinQueue<>(config, maintenanceManager, whitelistManager, Text::literal);
             LOGGER.info("Managers initialized");
             
             // Initialize API
@@ -114,7 +152,7 @@ public void onInitializeServer() {
             LOGGER.info("════════════════════════════════════════════════════════════");
             LOGGER.info("  ✅ MaintenanceUniversal v1.0.0 loaded successfully!");
             LOGGER.info("════════════════════════════════════════════════════════════");
-            
+        
         } catch (Exception e) {
             LOGGER.error("Failed to initialize mod", e);
         }
@@ -127,6 +165,18 @@ private void onServerStopping() {
             timerManager.shutdown();
         }
         
+        if (whitelistManager != null) {
+            whitelistManager.shutdown();
+        }
+        
+        if (throttle != null) {
+            throttle.shutdown();
+        }
+        
+        if (joinQueue != null) {
+            joinQueue.shutdown();
+        }
+        
         if (redisManager != null) {
             redisManager.shutdown().join();
         }
@@ -141,13 +191,10 @@ private void onServerStopping() {
     private void handleRedisMessage(@NotNull RedisMessage message) {
         switch (message.getType()) {
             case MAINTENANCE_ENABLED:
-                String modeStr = message.getData().get("mode");
-                MaintenanceMode mode = MaintenanceMode.valueOf(modeStr != null ? modeStr : "GLOBAL");
-                maintenanceManager.enable(mode, message.getData().get("reason"));
-                break;
-            
             case MAINTENANCE_DISABLED:
-                maintenanceManager.disable();
+            case TIMER_SCHEDULED:
+            case TIMER_CANCELLED:
+                stateSync.handle(message);
                 break;
             
             case WHITELIST_ADDED:
@@ -164,13 +211,17 @@ private void handleRedisMessage(@NotNull RedisMessage message) {
                     LOGGER.warn("Failed to reload config: {}", e.getMessage());
                 }
                 break;
-            
-            case TIMER_SCHEDULED:
-            case TIMER_CANCELLED:
-                break;
         }
     }
     
+    /**
+     * Checks if a proxy forwarding mod is installed.
+     */
+    private static boolean isBehindProxy() {
+        FabricLoader loader = FabricLoader.getInstance();
+        return loader.isModLoaded("fabricproxy-lite") || loader.isModLoaded("fabricproxy");
+    }
+    
     private void detectModLoader() {
         LOGGER.info("════════════════════════════════════════════════════════════");
         LOGGER.info("  Mod Loader Detection");
@@ -213,6 +264,22 @@ public DatabaseProvider getDatabase() {
         return database;
     }
     
+    public WhitelistManager getWhitelistManager() {
+        return whitelistManager;
+    }
+    
+    public AdmissionEngine<Text> getAdmission() {
+        return admission;
+    }
+    
+    public ConnectionThrottle getThrottle() {
+        return throttle;
+    }
+    
+    public JoinQueue<Text> getJoinQueue() {
+        return joinQueue;
+    }
+    
     public MaintenanceAPIImpl getApi() {
         return apiImpl;
     }
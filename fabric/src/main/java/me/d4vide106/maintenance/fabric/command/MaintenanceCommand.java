@@ -5,7 +5,6 @@
 import com.mojang.brigadier.context.CommandContext;
 import me.d4vide106.maintenance.api.MaintenanceAPI;
 import me.d4vide106.maintenance.api.MaintenanceMode;
-import me.d4vide106.maintenance.api.WhitelistedPlayer;
 import me.d4vide106.maintenance.fabric.MaintenanceFabric;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.server.command.CommandManager;
@@ -13,7 +12,6 @@
 import net.minecraft.text.Text;
 
 import java.time.Duration;
-import java.util.List;
 
 /**
  * Maintenance command for Fabric using Brigadier.
@@ -162,12 +160,13 @@ private static int whitelistRemove(CommandContext<ServerCommandSource> ctx, Main
     }
     
     private static int whitelistList(CommandContext<ServerCommandSource> ctx, MaintenanceAPI api) {
-        List<WhitelistedPlayer> players = api.getWhitelistedPlayers();
-        ctx.getSource().sendFeedback(() -> Text.literal("§6═══ Whitelisted Players (" + 
-            players.size() + ") ═══"), false);
-        
-        players.forEach(p -> {
-            ctx.getSource().sendFeedback(() -> Text.literal("§7• §f" + p.getName()), false);
+        api.getWhitelistedPlayersAsync().thenAccept(players -> {
+            ctx.getSource().sendFeedback(() -> Text.literal("§6═══ Whitelisted Players (" + 
+                players.size() + ") ═══"), false);
+            
+            players.forEach(p -> {
+                ctx.getSource().sendFeedback(() -> Text.literal("§7• §f" + p.getName()), false);
+            });
         });
         
         return 1;
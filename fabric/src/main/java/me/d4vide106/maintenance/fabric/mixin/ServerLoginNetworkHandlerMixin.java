@@ -2,10 +2,11 @@
 
 import com.mojang.authlib.GameProfile;
 import me.d4vide106.maintenance.fabric.MaintenanceFabric;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
 import net.minecraft.network.ClientConnection;
+import net.minecraft.network.packet.c2s.login.LoginHelloC2SPacket;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerLoginNetworkHandler;
-import net.minecraft.text.Text;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
@@ -15,6 +16,12 @@
 
 /**
  * Mixin to block player login during maintenance.
+ * <p>
+ * Repeat offenders are dropped when the login starts, before encryption
+ * and the session server lookup. Every other login is decided by UUID once
+ * the player is authenticated: the name alone never denies, as a
+ * whitelisted player or an operator may have been renamed since.
+ * </p>
  */
 @Mixin(ServerLoginNetworkHandler.class)
 public class ServerLoginNetworkHandlerMixin {
@@ -30,32 +37,75 @@ public class ServerLoginNetworkHandlerMixin {
     @Shadow
     GameProfile profile;
     
+    @Inject(method = "onHello", at = @At("HEAD"), cancellable = true)
+    private void onHello(LoginHelloC2SPacket packet, CallbackInfo ci) {
+        var admission = MaintenanceFabric.getInstance().getAdmission();
+        var throttle = MaintenanceFabric.getInstance().getThrottle();
+        String name = packet.name();
+        
+        if (admission == null || throttle == null) {
+            return;
+        }
+        
+        if (admission.checkName(name) == AdmissionEngine.Verdict.ALLOW) {
+            return;
+        }
+        
+        // Drop repeat offenders; the throttle counts them
+        if (throttle.throttle(connection.getAddress())) {
+            ((ServerLoginNetworkHandler) (Object) this).disconnect(admission.kickMessage());
+            ci.cancel();
+        }
+    }
+    
     @Inject(method = "acceptPlayer", at = @At("HEAD"), cancellable = true)
     private void onAcceptPlayer(CallbackInfo ci) {
-        var api = MaintenanceFabric.getInstance().getApi();
+        var admission = MaintenanceFabric.getInstance().getAdmission();
         
-        if (api == null || !api.isMaintenanceEnabled()) {
+        if (admission == null) {
             return;
         }
         
-        // Check if player has OP (bypass permission)
-        boolean isOp = server.getPlayerManager().isOperator(profile);
-        if (isOp) {
+        if (admission.check(profile.getId()) == AdmissionEngine.Verdict.ALLOW) {
+            // Keeps the name check working for whitelisted players who renamed
+            MaintenanceFabric.getInstance().getWhitelistManager().updateName(profile.getId(), profile.getName());
+            paceJoin(ci);
             return;
         }
         
-        // Check whitelist
-        if (api.isWhitelisted(profile.getId())) {
+        // Check if player has OP (bypass permission)
+        boolean isOp = server.getPlayerManager().isOperator(profile);
+        if (isOp) {
             return;
         }
         
         // Block login
-        String kickMessage = MaintenanceFabric.getInstance().getConfig().getKickMessage();
-        connection.disconnect(Text.literal(kickMessage));
+        connection.disconnect(admission.kickMessage());
         
         // Increment blocked connections
         MaintenanceFabric.getInstance().getDatabase().incrementConnectionsBlocked();
+        var throttle = MaintenanceFabric.getInstance().getThrottle();
+        if (throttle != null) {
+            throttle.recordRejection(connection.getAddress());
+        }
         
         ci.cancel();
     }
+    
+    /**
+     * Turns the player away with their queue position while joins are
+     * paced after maintenance; operators skip the queue.
+     */
+    private void paceJoin(CallbackInfo ci) {
+        var queue = MaintenanceFabric.getInstance().getJoinQueue();
+        if (queue == null || !queue.isPacing()) {
+            return;
+        }
+        
+        int position = queue.enqueue(profile.getId(), server.getPlayerManager().isOperator(profile));
+        if (position > 0) {
+            ((ServerLoginNetworkHandler) (Object) this).disconnect(queue.waitingMessage(position));
+            ci.cancel();
+        }
+    }
 }
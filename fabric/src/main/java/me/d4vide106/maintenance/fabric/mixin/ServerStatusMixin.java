@@ -16,19 +16,19 @@ public class ServerStatusMixin {
     @ModifyVariable(method = "description", at = @At("HEAD"), argsOnly = true)
     private Text modifyDescription(Text original) {
         var api = MaintenanceFabric.getInstance().getApi();
-        var config = MaintenanceFabric.getInstance().getConfig();
         
         if (api == null || !api.isMaintenanceEnabled()) {
             return original;
         }
         
-        if (!config.isCustomMOTDEnabled()) {
+        var settings = MaintenanceFabric.getInstance().getConfig().snapshot();
+        if (!settings.isCustomMOTDEnabled()) {
             return original;
         }
         
         // Custom MOTD
-        String line1 = config.getMaintenanceMOTDLine1();
-        String line2 = config.getMaintenanceMOTDLine2();
+        String line1 = settings.getMaintenanceMOTDLine1();
+        String line2 = settings.getMaintenanceMOTDLine2();
         String motd = line1 + "\n" + line2;
         
         return Text.literal(motd);
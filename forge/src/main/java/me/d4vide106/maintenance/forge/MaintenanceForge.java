@@ -1,16 +1,22 @@
 package me.d4vide106.maintenance.forge;
 
-import me.d4vide106.maintenance.api.MaintenanceMode;
 import me.d4vide106.maintenance.api.MaintenanceProvider;
 import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.database.DatabaseFactory;
 import me.d4vide106.maintenance.database.DatabaseProvider;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
+import me.d4vide106.maintenance.manager.ConnectionThrottle;
+import me.d4vide106.maintenance.manager.JoinQueue;
 import me.d4vide106.maintenance.manager.MaintenanceManager;
 import me.d4vide106.maintenance.manager.TimerManager;
 import me.d4vide106.maintenance.manager.WhitelistManager;
 import me.d4vide106.maintenance.redis.RedisManager;
 import me.d4vide106.maintenance.redis.RedisMessage;
+import me.d4vide106.maintenance.redis.RedisStateSync;
+import me.d4vide106.maintenance.util.IoExecutors;
 import me.d4vide106.maintenance.forge.command.MaintenanceCommand;
+import me.d4vide106.maintenance.forge.util.LoggerAdapter;
+import net.minecraft.network.chat.Component;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.RegisterCommandsEvent;
 import net.minecraftforge.event.server.ServerStartedEvent;
@@ -47,6 +53,10 @@ public class MaintenanceForge {
     private WhitelistManager whitelistManager;
     private TimerManager timerManager;
     private RedisManager redisManager;
+    private RedisStateSync stateSync;
+    private AdmissionEngine<Component> admission;
+    private ConnectionThrottle throttle;
+    private JoinQueue<Component> joinQueue;
     private MaintenanceAPIImpl apiImpl;
     
     public MaintenanceForge() {
@@ -69,11 +79,18 @@ public void onServerStarted(ServerStartedEvent event) {
             LOGGER.info("Configuration loaded successfully");
             
             // Initialize database
-            database = DatabaseFactory.create(config, configPath);
+            LoggerAdapter logger = new LoggerAdapter(LOGGER);
+            database = DatabaseFactory.create(config, configPath, logger);
             database.initialize().join();
             LOGGER.info("Database initialized: {}", config.getDatabaseType());
             
-            // Initialize Redis (optional)
+            // Initialize managers with no-arg constructors
+            maintenanceManager = new MaintenanceManager(database);
+            whitelistManager = new WhitelistManager(database);
+            timerManager = new TimerManager();
+            maintenanceManager.bindRamp(timerManager);
+            
+            // Initialize Redis (optional), restoring the shared maintenance state
             if (config.isRedisEnabled()) {
                 try {
                     redisManager = new RedisManager(
@@ -81,24 +98,40 @@ public void onServerStarted(ServerStartedEvent event) {
                         config.getRedisPort(),
                         config.getRedisPassword(),
                         config.getRedisDatabase(),
-                        config.getRedisChannel()
+                        config.getRedisChannel(),
+                        config.getRedisNodeId(),
+                        RedisManager.Transport.parse(config.getRedisTransport()),
+                        config.getRedisStreamMaxLength(),
+                        config.isRedisJsonMessages(),
+                        IoExecutors.Mode.parse(config.getIoThreads()),
+                        logger
                     );
                     redisManager.initialize().join();
-                    redisManager.subscribe(this::handleRedisMessage);
-                    LOGGER.info("Redis sync enabled");
+                    stateSync = new RedisStateSync(redisManager, maintenanceManager, timerManager, logger);
+                    stateSync.initialize().join();
+                    redisManager.subscribe(this::handleRedisMessage, stateSync::resync);
+                    LOGGER.info("Redis sync enabled (node {}, {})", redisManager.getNodeId(), redisManager.getTransport());
                 } catch (Exception e) {
                     LOGGER.warn("Failed to initialize Redis: {}", e.getMessage());
                     redisManager = null;
+                    stateSync = null;
                 }
             }
             
-            // Initialize managers with no-arg constructors
-            maintenanceManager = new MaintenanceManager();
-            whitelistManager = new WhitelistManager();
-            timerManager = new TimerManager();
-            
-            // Initialize whitelist cache
+            // Restore maintenance state and whitelist cache
+            if (stateSync == null) {
+                maintenanceManager.initialize().join();
+            }
             whitelistManager.initialize().join();
+            admission = new AdmissionEngine<>(
+                config,
+                maintenanceManager,
+                whitelistManager,
+                timerManager,
+                Component::literal
+            );
+            throttle = new ConnectionThrottle(config, maintenanceManager, database);
+            joinQueue = new JoinQueue<>(config, maintenanceManager, whitelistManager, Component::literal);
             LOGGER.info("Managers initialized");
             
             // Initialize API
@@ -115,7 +148,7 @@ public void onServerStarted(ServerStartedEvent event) {
             LOGGER.info("════════════════════════════════════════════════════════════");
             LOGGER.info("  ✅ MaintenanceUniversal v1.0.0 loaded successfully!");
             LOGGER.info("════════════════════════════════════════════════════════════");
-            
+        
         } catch (Exception e) {
             LOGGER.error("Failed to initialize mod", e);
         }
@@ -135,6 +168,18 @@ public void onServerStopping(ServerStoppingEvent event) {
             timerManager.shutdown();
         }
         
+        if (whitelistManager != null) {
+            whitelistManager.shutdown();
+        }
+        
+        if (throttle != null) {
+            throttle.shutdown();
+        }
+        
+        if (joinQueue != null) {
+            joinQueue.shutdown();
+        }
+        
         if (redisManager != null) {
             redisManager.shutdown().join();
         }
@@ -149,13 +194,10 @@ public void onServerStopping(ServerStoppingEvent event) {
     private void handleRedisMessage(@NotNull RedisMessage message) {
         switch (message.getType()) {
             case MAINTENANCE_ENABLED:
-                String modeStr = message.getData().get("mode");
-                MaintenanceMode mode = MaintenanceMode.valueOf(modeStr != null ? modeStr : "GLOBAL");
-                maintenanceManager.enable(mode, message.getData().get("reason"));
-                break;
-            
             case MAINTENANCE_DISABLED:
-                maintenanceManager.disable();
+            case TIMER_SCHEDULED:
+            case TIMER_CANCELLED:
+                stateSync.handle(message);
                 break;
             
             case WHITELIST_ADDED:
@@ -172,10 +214,6 @@ private void handleRedisMessage(@NotNull RedisMessage message) {
                     LOGGER.warn("Failed to reload config: {}", e.getMessage());
                 }
                 break;
-            
-            case TIMER_SCHEDULED:
-            case TIMER_CANCELLED:
-                break;
         }
     }
     
@@ -221,6 +259,18 @@ public DatabaseProvider getDatabase() {
         return database;
     }
     
+    public AdmissionEngine<Component> getAdmission() {
+        return admission;
+    }
+    
+    public ConnectionThrottle getThrottle() {
+        return throttle;
+    }
+    
+    public JoinQueue<Component> getJoinQueue() {
+        return joinQueue;
+    }
+    
     public MaintenanceAPIImpl getApi() {
         return apiImpl;
     }
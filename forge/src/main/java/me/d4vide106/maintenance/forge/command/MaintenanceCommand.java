@@ -5,14 +5,12 @@
 import com.mojang.brigadier.context.CommandContext;
 import me.d4vide106.maintenance.api.MaintenanceAPI;
 import me.d4vide106.maintenance.api.MaintenanceMode;
-import me.d4vide106.maintenance.api.WhitelistedPlayer;
 import me.d4vide106.maintenance.forge.MaintenanceForge;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
 
 import java.time.Duration;
-import java.util.List;
 
 /**
  * Maintenance command for Forge using Brigadier.
@@ -161,12 +159,13 @@ private static int whitelistRemove(CommandContext<CommandSourceStack> ctx, Maint
     }
     
     private static int whitelistList(CommandContext<CommandSourceStack> ctx, MaintenanceAPI api) {
-        List<WhitelistedPlayer> players = api.getWhitelistedPlayers();
-        ctx.getSource().sendSuccess(() -> Component.literal("§6═══ Whitelisted Players (" + 
-            players.size() + ") ═══"), false);
-        
-        players.forEach(p -> {
-            ctx.getSource().sendSuccess(() -> Component.literal("§7• §f" + p.getName()), false);
+        api.getWhitelistedPlayersAsync().thenAccept(players -> {
+            ctx.getSource().sendSuccess(() -> Component.literal("§6═══ Whitelisted Players (" + 
+                players.size() + ") ═══"), false);
+            
+            players.forEach(p -> {
+                ctx.getSource().sendSuccess(() -> Component.literal("§7• §f" + p.getName()), false);
+            });
         });
         
         return 1;
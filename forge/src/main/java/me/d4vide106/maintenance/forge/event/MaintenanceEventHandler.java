@@ -2,13 +2,16 @@
 
 import com.mojang.authlib.GameProfile;
 import me.d4vide106.maintenance.forge.MaintenanceForge;
-import net.minecraft.network.chat.Component;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerConfigurationPacketListenerImpl;
 import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.network.GatherLoginConfigurationTasksEvent;
 import net.minecraftforge.event.server.ServerAboutToStartEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
 /**
  * Event handler for maintenance-related events.
@@ -16,11 +19,84 @@
 @Mod.EventBusSubscriber(modid = MaintenanceForge.MOD_ID)
 public class MaintenanceEventHandler {
     
+    /**
+     * Rejects players while their login is negotiated, before they are
+     * added to the player list or any chunk is loaded for them.
+     */
+    @SubscribeEvent
+    public static void onLoginConfiguration(GatherLoginConfigurationTasksEvent event) {
+        var admission = MaintenanceForge.getInstance().getAdmission();
+        var throttle = MaintenanceForge.getInstance().getThrottle();
+        
+        if (admission == null || !admission.isActive()) {
+            return;
+        }
+        
+        if (!(event.getConnection().getPacketListener() instanceof ServerConfigurationPacketListenerImpl listener)) {
+            return;
+        }
+        
+        GameProfile profile = listener.getOwner();
+        if (admission.check(profile.getId()) == AdmissionEngine.Verdict.ALLOW) {
+            return;
+        }
+        
+        // Check if player has OP (bypass permission)
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null && server.getPlayerList().isOp(profile)) {
+            return;
+        }
+        
+        // Drop repeat offenders without counting them again
+        if (throttle != null && throttle.throttle(event.getConnection().getRemoteAddress())) {
+            event.getConnection().disconnect(admission.kickMessage());
+            return;
+        }
+        
+        // Block login before the player joins the world
+        event.getConnection().disconnect(admission.kickMessage());
+        
+        // Increment blocked connections
+        MaintenanceForge.getInstance().getDatabase().incrementConnectionsBlocked();
+        if (throttle != null) {
+            throttle.recordRejection(event.getConnection().getRemoteAddress());
+        }
+    }
+    
+    /**
+     * Paces joins right after maintenance ended, turning queued players
+     * away with their position; operators skip the queue.
+     */
+    @SubscribeEvent
+    public static void onQueuedLoginConfiguration(GatherLoginConfigurationTasksEvent event) {
+        var queue = MaintenanceForge.getInstance().getJoinQueue();
+        
+        if (queue == null || !queue.isPacing()) {
+            return;
+        }
+        
+        if (!(event.getConnection().getPacketListener() instanceof ServerConfigurationPacketListenerImpl listener)) {
+            return;
+        }
+        
+        GameProfile profile = listener.getOwner();
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        boolean priority = server != null && server.getPlayerList().isOp(profile);
+        int position = queue.enqueue(profile.getId(), priority);
+        if (position > 0) {
+            event.getConnection().disconnect(queue.waitingMessage(position));
+        }
+    }
+    
+    /**
+     * Confirms the check for players who finished logging in while
+     * maintenance was being enabled.
+     */
     @SubscribeEvent
     public static void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event) {
-        var api = MaintenanceForge.getInstance().getApi();
+        var admission = MaintenanceForge.getInstance().getAdmission();
         
-        if (api == null || !api.isMaintenanceEnabled()) {
+        if (admission == null || !admission.isActive()) {
             return;
         }
         
@@ -44,13 +120,12 @@ public static void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event) {
         }
         
         // Check whitelist
-        if (api.isWhitelisted(player.getUUID())) {
+        if (admission.check(player.getUUID()) == AdmissionEngine.Verdict.ALLOW) {
             return;
         }
         
         // Kick player (use getConnection() method instead of connection field)
-        String kickMessage = MaintenanceForge.getInstance().getConfig().getKickMessage();
-        player.connection.disconnect(Component.literal(kickMessage));
+        player.connection.disconnect(admission.kickMessage());
         
         // Increment players kicked (pass 1 as parameter)
         MaintenanceForge.getInstance().getDatabase().incrementPlayersKicked(1);
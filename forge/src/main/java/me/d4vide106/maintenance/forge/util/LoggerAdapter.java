@@ -0,0 +1,42 @@
+package me.d4vide106.maintenance.forge.util;
+
+import me.d4vide106.maintenance.util.Logger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Adapts the mod's SLF4J logger to the cross-platform {@link Logger} used by
+ * the common module.
+ */
+public class LoggerAdapter implements Logger {
+    
+    private final org.slf4j.Logger logger;
+    
+    public LoggerAdapter(@NotNull org.slf4j.Logger logger) {
+        this.logger = logger;
+    }
+    
+    @Override
+    public void info(@NotNull String message) {
+        logger.info(message);
+    }
+    
+    @Override
+    public void warn(@NotNull String message) {
+        logger.warn(message);
+    }
+    
+    @Override
+    public void error(@NotNull String message) {
+        logger.error(message);
+    }
+    
+    @Override
+    public void error(@NotNull String message, @NotNull Throwable throwable) {
+        logger.error(message, throwable);
+    }
+    
+    @Override
+    public void debug(@NotNull String message) {
+        logger.debug(message);
+    }
+}
\ No newline at end of file
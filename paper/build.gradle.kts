@@ -79,6 +79,7 @@
             children = listOf(
                 "maintenance.command",
                 "maintenance.bypass",
+                "maintenance.queue.priority",
                 "maintenance.toggle",
                 "maintenance.schedule",
                 "maintenance.whitelist",
@@ -98,6 +99,11 @@
             default = net.minecrell.pluginyml.bukkit.BukkitPluginDescription.Permission.Default.OP
         }
         
+        register("maintenance.queue.priority") {
+            description = "Skip the join queue after maintenance"
+            default = net.minecrell.pluginyml.bukkit.BukkitPluginDescription.Permission.Default.OP
+        }
+        
         register("maintenance.toggle") {
             description = "Enable/disable maintenance"
             default = net.minecrell.pluginyml.bukkit.BukkitPluginDescription.Permission.Default.OP
@@ -14,7 +14,9 @@
 import org.jetbrains.annotations.Nullable;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -55,6 +57,11 @@ public boolean isMaintenanceEnabled() {
         return maintenanceManager.getReason();
     }
     
+    @Override
+    public @NotNull Set<String> getMaintenanceServers() {
+        return maintenanceManager.getServers();
+    }
+    
     @Override
     public @NotNull CompletableFuture<Boolean> enableMaintenance(@NotNull MaintenanceMode mode, @Nullable String reason) {
         return maintenanceManager.enable(mode, reason)
@@ -62,9 +69,16 @@ public boolean isMaintenanceEnabled() {
             .exceptionally(e -> false);
     }
     
+    @Override
+    public @NotNull CompletableFuture<Boolean> enableServerMaintenance(@NotNull Collection<String> servers, @Nullable String reason) {
+        return maintenanceManager.enable(MaintenanceMode.SERVER_SPECIFIC, reason, servers)
+            .thenApply(v -> true)
+            .exceptionally(e -> false);
+    }
+    
     @Override
     public @NotNull CompletableFuture<Boolean> disableMaintenance() {
-        return maintenanceManager.disable()
+        return maintenanceManager.disable(timerManager, config.snapshot())
             .thenApply(v -> true)
             .exceptionally(e -> false);
     }
@@ -76,9 +90,19 @@ public boolean isWhitelisted(@NotNull UUID uuid) {
     
     @Override
     public @NotNull List<WhitelistedPlayer> getWhitelistedPlayers() {
+        return whitelistManager.getLoadedPlayers();
+    }
+    
+    @Override
+    public @NotNull CompletableFuture<List<WhitelistedPlayer>> getWhitelistedPlayersAsync() {
         return whitelistManager.getWhitelistedPlayers();
     }
     
+    @Override
+    public int getWhitelistSize() {
+        return whitelistManager.size();
+    }
+    
     @Override
     public @NotNull CompletableFuture<Boolean> addToWhitelist(@NotNull UUID uuid, @NotNull String name, @Nullable String reason) {
         return whitelistManager.add(uuid, name, reason)
@@ -4,16 +4,24 @@
 import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.database.DatabaseFactory;
 import me.d4vide106.maintenance.database.DatabaseProvider;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
+import me.d4vide106.maintenance.manager.ConnectionThrottle;
+import me.d4vide106.maintenance.manager.JoinQueue;
 import me.d4vide106.maintenance.manager.MaintenanceManager;
 import me.d4vide106.maintenance.manager.TimerManager;
 import me.d4vide106.maintenance.manager.WhitelistManager;
 import me.d4vide106.maintenance.paper.command.MaintenanceCommand;
 import me.d4vide106.maintenance.paper.listener.ConnectionListener;
+import me.d4vide106.maintenance.paper.listener.LoginStartListener;
 import me.d4vide106.maintenance.paper.listener.ServerListPingListener;
+import me.d4vide106.maintenance.paper.util.ComponentAdapter;
+import me.d4vide106.maintenance.paper.util.LoggerAdapter;
 import me.d4vide106.maintenance.paper.util.VersionAdapter;
+import me.d4vide106.maintenance.util.ServerIconCache;
+import net.kyori.adventure.text.Component;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.util.CachedServerIcon;
 
-import java.io.File;
 import java.util.logging.Level;
 
 /**
@@ -26,7 +34,10 @@ public class MaintenancePaper extends JavaPlugin {
     private MaintenanceManager maintenanceManager;
     private WhitelistManager whitelistManager;
     private TimerManager timerManager;
+    private ConnectionThrottle throttle;
+    private JoinQueue<Component> joinQueue;
     private MaintenanceAPIImpl apiImpl;
+    private ServerIconCache<CachedServerIcon> serverIcon;
     
     @Override
     public void onEnable() {
@@ -40,15 +51,17 @@ public void onEnable() {
             getLogger().info("Configuration loaded successfully");
             
             // Initialize database
-            database = DatabaseFactory.create(config, getDataFolder().toPath());
+            database = DatabaseFactory.create(config, getDataFolder().toPath(), new LoggerAdapter(getLogger()));
             database.initialize().join();
             getLogger().info("Database initialized: " + config.getDatabaseType());
             
             // Initialize managers
-            maintenanceManager = new MaintenanceManager();
-            whitelistManager = new WhitelistManager();
+            maintenanceManager = new MaintenanceManager(database);
+            whitelistManager = new WhitelistManager(database);
             timerManager = new TimerManager();
+            maintenanceManager.bindRamp(timerManager);
             
+            maintenanceManager.initialize().join();
             whitelistManager.initialize().join();
             getLogger().info("Managers initialized");
             
@@ -75,7 +88,7 @@ public void onEnable() {
             getLogger().info("════════════════════════════════════════════════════════════");
             getLogger().info("  ✅ MaintenanceUniversal v" + getPluginMeta().getVersion() + " enabled!");
             getLogger().info("════════════════════════════════════════════════════════════");
-            
+        
         } catch (Exception e) {
             getLogger().log(Level.SEVERE, "Failed to enable plugin", e);
             getServer().getPluginManager().disablePlugin(this);
@@ -90,6 +103,22 @@ public void onDisable() {
             timerManager.shutdown();
         }
         
+        if (whitelistManager != null) {
+            whitelistManager.shutdown();
+        }
+        
+        if (throttle != null) {
+            throttle.shutdown();
+        }
+        
+        if (joinQueue != null) {
+            joinQueue.shutdown();
+        }
+        
+        if (serverIcon != null) {
+            serverIcon.close();
+        }
+        
         if (database != null) {
             database.shutdown().join();
         }
@@ -97,14 +126,52 @@ public void onDisable() {
         getLogger().info("MaintenanceUniversal disabled");
     }
     
+    /**
+     * Checks if logins are forwarded by a BungeeCord or Velocity proxy.
+     */
+    @SuppressWarnings("deprecation")
+    private boolean isBehindProxy() {
+        return getServer().spigot().getConfig().getBoolean("settings.bungeecord")
+            || getServer().spigot().getPaperConfig().getBoolean("proxies.velocity.enabled");
+    }
+    
     private void registerListeners() {
-        getServer().getPluginManager().registerEvents(
-            new ConnectionListener(this, apiImpl, config, whitelistManager, database),
-            this
+        AdmissionEngine<Component> admission = new AdmissionEngine<>(
+            config,
+            maintenanceManager,
+            whitelistManager,
+            timerManager,
+            ComponentAdapter::parse
         );
+        // Behind a proxy every login comes from the proxy's address; the proxy throttles instead
+        if (isBehindProxy()) {
+            getLogger().info("Proxy forwarding enabled, connection throttling left to the proxy");
+        } else {
+            throttle = new ConnectionThrottle(config, maintenanceManager, database);
+        }
+        joinQueue = new JoinQueue<>(config, maintenanceManager, whitelistManager, ComponentAdapter::parse);
+        ConnectionListener connectionListener = new ConnectionListener(
+            this,
+            admission,
+            whitelistManager,
+            throttle,
+            joinQueue,
+            config,
+            database
+        );
+        getServer().getPluginManager().registerEvents(connectionListener, this);
+        
+        // Drop repeat offenders before authentication when ProtocolLib can see the login start
+        if (throttle != null && getServer().getPluginManager().isPluginEnabled("ProtocolLib")) {
+            new LoginStartListener(this, admission, throttle).register();
+            getLogger().info("Pre-authentication checks enabled (ProtocolLib)");
+        }
         
+        serverIcon = new ServerIconCache<>(getDataFolder().toPath(), getServer()::loadServerIcon, getLogger()::warning);
+        serverIcon.update(config.snapshot());
+        config.addReloadListener(() -> serverIcon.update(config.snapshot()));
         getServer().getPluginManager().registerEvents(
-            new ServerListPingListener(apiImpl, config, new File(getDataFolder(), "icon.png")),
+            new ServerListPingListener(apiImpl, config, serverIcon),
             this
         );
     }
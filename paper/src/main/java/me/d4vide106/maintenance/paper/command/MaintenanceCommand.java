@@ -2,7 +2,6 @@
 
 import me.d4vide106.maintenance.api.MaintenanceAPI;
 import me.d4vide106.maintenance.api.MaintenanceMode;
-import me.d4vide106.maintenance.api.WhitelistedPlayer;
 import me.d4vide106.maintenance.paper.MaintenancePaper;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -175,11 +174,12 @@ private void handleWhitelist(@NotNull CommandSender sender, @NotNull String[] ar
                 break;
             
             case "list":
-                List<WhitelistedPlayer> players = api.getWhitelistedPlayers();
-                sender.sendMessage(Component.text("=== Whitelisted Players (" + players.size() + ") ===", NamedTextColor.GOLD));
-                players.forEach(p -> {
-                    sender.sendMessage(Component.text("- ", NamedTextColor.GRAY)
-                        .append(Component.text(p.getName(), NamedTextColor.WHITE)));
+                api.getWhitelistedPlayersAsync().thenAccept(players -> {
+                    sender.sendMessage(Component.text("=== Whitelisted Players (" + players.size() + ") ===", NamedTextColor.GOLD));
+                    players.forEach(p -> {
+                        sender.sendMessage(Component.text("- ", NamedTextColor.GRAY)
+                            .append(Component.text(p.getName(), NamedTextColor.WHITE)));
+                    });
                 });
                 break;
             
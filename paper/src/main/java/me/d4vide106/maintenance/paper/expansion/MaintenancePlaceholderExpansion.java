@@ -67,7 +67,7 @@ public boolean persist() {
                 return "No timer active";
             
             case "whitelist_count":
-                return String.valueOf(api.getWhitelistedPlayers().size());
+                return String.valueOf(api.getWhitelistSize());
             
             case "is_whitelisted":
                 return String.valueOf(api.isWhitelisted(uuid));
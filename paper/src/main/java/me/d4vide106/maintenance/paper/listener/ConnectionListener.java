@@ -1,8 +1,10 @@
 package me.d4vide106.maintenance.paper.listener;
 
-import me.d4vide106.maintenance.api.MaintenanceAPI;
 import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.database.DatabaseProvider;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
+import me.d4vide106.maintenance.manager.ConnectionThrottle;
+import me.d4vide106.maintenance.manager.JoinQueue;
 import me.d4vide106.maintenance.manager.WhitelistManager;
 import me.d4vide106.maintenance.paper.MaintenancePaper;
 import me.d4vide106.maintenance.paper.util.ComponentAdapter;
@@ -15,94 +17,119 @@
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerLoginEvent;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Listener for handling player connections during maintenance.
  */
 public class ConnectionListener implements Listener {
     
-    private final MaintenanceAPI api;
+    private final AdmissionEngine<Component> admission;
+    private final WhitelistManager whitelist;
+    private final ConnectionThrottle throttle;
+    private final JoinQueue<Component> queue;
     private final MaintenanceConfig config;
-    private final WhitelistManager whitelistManager;
     private final DatabaseProvider database;
     
     public ConnectionListener(
         @NotNull MaintenancePaper plugin,
-        @NotNull MaintenanceAPI api,
+        @NotNull AdmissionEngine<Component> admission,
+        @NotNull WhitelistManager whitelist,
+        @Nullable ConnectionThrottle throttle,
+        @NotNull JoinQueue<Component> queue,
         @NotNull MaintenanceConfig config,
-        @NotNull WhitelistManager whitelistManager,
         @NotNull DatabaseProvider database
     ) {
-        this.api = api;
+        this.admission = admission;
+        this.whitelist = whitelist;
+        this.throttle = throttle;
+        this.queue = queue;
         this.config = config;
-        this.whitelistManager = whitelistManager;
         this.database = database;
     }
     
     @EventHandler(priority = EventPriority.LOWEST)
     public void onAsyncPreLogin(@NotNull AsyncPlayerPreLoginEvent event) {
-        if (!api.isMaintenanceEnabled()) {
+        if (admission.check(event.getUniqueId()) == AdmissionEngine.Verdict.ALLOW) {
+            // Keeps the name check working for whitelisted players who renamed
+            whitelist.updateName(event.getUniqueId(), event.getName());
             return;
         }
         
-        // Check whitelist
-        if (whitelistManager.isWhitelisted(event.getUniqueId())) {
+        // Drop repeat offenders without counting them again
+        if (throttle != null && throttle.throttle(event.getAddress())) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, admission.kickMessage());
             return;
         }
         
         // Block connection
-        String kickMsg = config.getKickMessage();
         event.disallow(
             AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
-            ComponentAdapter.parse(kickMsg)
+            admission.kickMessage()
         );
         
         // Increment blocked connections
         database.incrementConnectionsBlocked();
+        if (throttle != null) {
+            throttle.recordRejection(event.getAddress());
+        }
     }
     
     @EventHandler(priority = EventPriority.LOW)
     public void onLogin(@NotNull PlayerLoginEvent event) {
-        if (!api.isMaintenanceEnabled()) {
-            return;
-        }
-        
         Player player = event.getPlayer();
         
-        // Check bypass permission
-        if (player.hasPermission("maintenance.bypass")) {
+        if (admission.check(player.getUniqueId()) == AdmissionEngine.Verdict.ALLOW) {
             return;
         }
         
-        // Check whitelist
-        if (whitelistManager.isWhitelisted(player.getUniqueId())) {
+        // Check bypass permission
+        if (player.hasPermission(AdmissionEngine.BYPASS_PERMISSION)) {
             return;
         }
         
         // Block login
-        String kickMsg = config.getKickMessage();
         event.disallow(
             PlayerLoginEvent.Result.KICK_OTHER,
-            ComponentAdapter.parse(kickMsg)
+            admission.kickMessage()
         );
         
         // Increment blocked connections
         database.incrementConnectionsBlocked();
     }
     
+    /**
+     * Paces joins right after maintenance ended; runs once permissions
+     * are available so ranks can skip the queue.
+     */
+    @EventHandler(priority = EventPriority.NORMAL)
+    public void onQueuedLogin(@NotNull PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED || !queue.isPacing()) {
+            return;
+        }
+        
+        Player player = event.getPlayer();
+        boolean priority = player.hasPermission(JoinQueue.PRIORITY_PERMISSION)
+            || player.hasPermission(AdmissionEngine.BYPASS_PERMISSION);
+        int position = queue.enqueue(player.getUniqueId(), priority);
+        if (position > 0) {
+            event.disallow(PlayerLoginEvent.Result.KICK_OTHER, queue.waitingMessage(position));
+        }
+    }
+    
     @EventHandler(priority = EventPriority.MONITOR)
     public void onJoin(@NotNull PlayerJoinEvent event) {
         Player player = event.getPlayer();
         
         // Notify bypass players
-        if (api.isMaintenanceEnabled() && player.hasPermission("maintenance.bypass")) {
-            String message = config.getBypassJoinMessage();
+        if (admission.isActive() && player.hasPermission(AdmissionEngine.BYPASS_PERMISSION)) {
+            String message = config.snapshot().getBypassJoinMessage();
             Component component = ComponentAdapter.parse(message);
             player.sendMessage(component);
         }
         
         // Notify admins about maintenance status
-        if (player.hasPermission("maintenance.notify") && api.isMaintenanceEnabled()) {
+        if (player.hasPermission("maintenance.notify") && admission.isActive()) {
             player.sendMessage(Component.text("§e[Maintenance] §7Server is in maintenance mode"));
         }
     }
@@ -0,0 +1,89 @@
+package me.d4vide106.maintenance.paper.listener;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.events.ListenerPriority;
+import com.comphenix.protocol.events.PacketAdapter;
+import com.comphenix.protocol.events.PacketEvent;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
+import me.d4vide106.maintenance.manager.ConnectionThrottle;
+import me.d4vide106.maintenance.paper.MaintenancePaper;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Drops repeat offenders as soon as the client starts logging in.
+ * <p>
+ * The Paper API has no event before authentication, so this listens for
+ * the login start packet through ProtocolLib, when it is installed. A
+ * throttled address whose name is not whitelisted is disconnected before
+ * encryption and the session server lookup. Every other login is decided
+ * by UUID in {@link ConnectionListener}: the name alone never denies, as
+ * a whitelisted player may have been renamed since.
+ * </p>
+ */
+public class LoginStartListener extends PacketAdapter {
+    
+    private final AdmissionEngine<Component> admission;
+    private final ConnectionThrottle throttle;
+    private volatile Rendered rendered;
+    
+    public LoginStartListener(
+        @NotNull MaintenancePaper plugin,
+        @NotNull AdmissionEngine<Component> admission,
+        @NotNull ConnectionThrottle throttle
+    ) {
+        super(plugin, ListenerPriority.LOWEST, PacketType.Login.Client.START);
+        this.admission = admission;
+        this.throttle = throttle;
+    }
+    
+    /**
+     * Starts listening for login start packets.
+     */
+    public void register() {
+        ProtocolLibrary.getProtocolManager().addPacketListener(this);
+    }
+    
+    @Override
+    public void onPacketReceiving(@NotNull PacketEvent event) {
+        String name = event.getPacket().getStrings().read(0);
+        if (name == null || admission.checkName(name) == AdmissionEngine.Verdict.ALLOW) {
+            return;
+        }
+        
+        // Drop repeat offenders; the throttle counts them
+        InetSocketAddress address = event.getPlayer().getAddress();
+        if (address != null && throttle.throttle(address)) {
+            event.setCancelled(true);
+            event.getPlayer().kickPlayer(legacy(admission.kickMessage()));
+        }
+    }
+    
+    /**
+     * Serializes the kick message, reusing the last result while the
+     * engine keeps returning the same message.
+     */
+    @NotNull
+    private String legacy(@NotNull Component message) {
+        Rendered cached = rendered;
+        if (cached == null || cached.message != message) {
+            cached = new Rendered(message, LegacyComponentSerializer.legacySection().serialize(message));
+            rendered = cached;
+        }
+        return cached.text;
+    }
+    
+    private static final class Rendered {
+        private final Component message;
+        private final String text;
+        
+        private Rendered(Component message, String text) {
+            this.message = message;
+            this.text = text;
+        }
+    }
+}
\ No newline at end of file
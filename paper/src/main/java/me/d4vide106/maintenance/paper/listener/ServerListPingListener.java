@@ -2,19 +2,17 @@
 
 import com.destroystokyo.paper.event.server.PaperServerListPingEvent;
 import me.d4vide106.maintenance.api.MaintenanceAPI;
+import me.d4vide106.maintenance.config.ConfigSnapshot;
 import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.paper.util.ComponentAdapter;
+import me.d4vide106.maintenance.util.ServerIconCache;
 import net.kyori.adventure.text.Component;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.util.CachedServerIcon;
 import org.jetbrains.annotations.NotNull;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-
 /**
  * Listener for customizing server list MOTD during maintenance.
  */
@@ -22,12 +20,16 @@ public class ServerListPingListener implements Listener {
     
     private final MaintenanceAPI api;
     private final MaintenanceConfig config;
-    private final File iconFile;
+    private final ServerIconCache<CachedServerIcon> serverIcon;
     
-    public ServerListPingListener(@NotNull MaintenanceAPI api, @NotNull MaintenanceConfig config, @NotNull File iconFile) {
+    public ServerListPingListener(
+        @NotNull MaintenanceAPI api,
+        @NotNull MaintenanceConfig config,
+        @NotNull ServerIconCache<CachedServerIcon> serverIcon
+    ) {
         this.api = api;
         this.config = config;
-        this.iconFile = iconFile;
+        this.serverIcon = serverIcon;
     }
     
     @EventHandler(priority = EventPriority.HIGHEST)
@@ -36,27 +38,27 @@ public void onServerListPing(@NotNull PaperServerListPingEvent event) {
             return;
         }
         
+        ConfigSnapshot settings = config.snapshot();
+        
         // Custom MOTD
-        if (config.isCustomMOTDEnabled()) {
-            String motdText = config.getMaintenanceMOTD();
+        if (settings.isCustomMOTDEnabled()) {
+            String motdText = settings.getMaintenanceMOTD();
             Component motd = ComponentAdapter.parse(motdText);
             event.motd(motd);
         }
         
         // Custom max players
-        if (config.isCustomMaxPlayersEnabled()) {
-            int maxPlayers = config.getMaintenanceMaxPlayers();
+        if (settings.isCustomMaxPlayersEnabled()) {
+            int maxPlayers = settings.getMaintenanceMaxPlayers();
             event.setMaxPlayers(maxPlayers);
         }
         
         // Custom server icon
-        if (config.isCustomIconEnabled() && iconFile.exists()) {
-            try {
-                BufferedImage icon = ImageIO.read(iconFile);
-                if (icon != null) {
-                    event.setServerIcon(org.bukkit.util.CachedServerIcon.class.cast(icon));
-                }
-            } catch (IOException ignored) {}
+        if (settings.isCustomIconEnabled()) {
+            CachedServerIcon icon = serverIcon.get();
+            if (icon != null) {
+                event.setServerIcon(icon);
+            }
         }
     }
 }
\ No newline at end of file
@@ -7,19 +7,28 @@
 import com.velocitypowered.api.plugin.Plugin;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.util.Favicon;
 import me.d4vide106.maintenance.api.MaintenanceProvider;
 import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.database.DatabaseFactory;
 import me.d4vide106.maintenance.database.DatabaseProvider;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
+import me.d4vide106.maintenance.manager.ConnectionThrottle;
+import me.d4vide106.maintenance.manager.JoinQueue;
 import me.d4vide106.maintenance.manager.MaintenanceManager;
 import me.d4vide106.maintenance.manager.TimerManager;
 import me.d4vide106.maintenance.manager.WhitelistManager;
+import me.d4vide106.maintenance.util.ServerIconCache;
 import me.d4vide106.maintenance.velocity.command.MaintenanceCommand;
 import me.d4vide106.maintenance.velocity.listener.ConnectionListener;
 import me.d4vide106.maintenance.velocity.listener.ProxyPingListener;
+import me.d4vide106.maintenance.velocity.util.ComponentSerializer;
+import me.d4vide106.maintenance.velocity.util.LoggerAdapter;
+import net.kyori.adventure.text.Component;
 import org.slf4j.Logger;
 
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 @Plugin(
     id = "maintenanceuniversal",
@@ -40,7 +49,10 @@ public class MaintenanceVelocity {
     private MaintenanceManager maintenanceManager;
     private WhitelistManager whitelistManager;
     private TimerManager timerManager;
+    private ConnectionThrottle throttle;
+    private JoinQueue<Component> joinQueue;
     private MaintenanceAPIImpl apiImpl;
+    private ServerIconCache<Favicon> serverIcon;
     
     @Inject
     public MaintenanceVelocity(
@@ -65,15 +77,17 @@ public void onProxyInitialization(ProxyInitializeEvent event) {
             logger.info("Configuration loaded successfully");
             
             // Initialize database
-            database = DatabaseFactory.create(config, dataDirectory);
+            database = DatabaseFactory.create(config, dataDirectory, new LoggerAdapter(logger));
             database.initialize().join();
             logger.info("Database initialized: {}", config.getDatabaseType());
             
             // Initialize managers
-            maintenanceManager = new MaintenanceManager();
-            whitelistManager = new WhitelistManager();
+            maintenanceManager = new MaintenanceManager(database);
+            whitelistManager = new WhitelistManager(database);
             timerManager = new TimerManager();
+            maintenanceManager.bindRamp(timerManager);
             
+            maintenanceManager.initialize().join();
             whitelistManager.initialize().join();
             logger.info("Managers initialized");
             
@@ -98,7 +112,7 @@ public void onProxyInitialization(ProxyInitializeEvent event) {
             logger.info("════════════════════════════════════════════════════════════");
             logger.info("  ✅ MaintenanceUniversal v1.0.0 enabled!");
             logger.info("════════════════════════════════════════════════════════════");
-            
+        
         } catch (Exception e) {
             logger.error("Failed to enable plugin", e);
         }
@@ -112,6 +126,22 @@ public void onProxyShutdown(ProxyShutdownEvent event) {
             timerManager.shutdown();
         }
         
+        if (whitelistManager != null) {
+            whitelistManager.shutdown();
+        }
+        
+        if (throttle != null) {
+            throttle.shutdown();
+        }
+        
+        if (joinQueue != null) {
+            joinQueue.shutdown();
+        }
+        
+        if (serverIcon != null) {
+            serverIcon.close();
+        }
+        
         if (database != null) {
             database.shutdown().join();
         }
@@ -120,8 +150,29 @@ public void onProxyShutdown(ProxyShutdownEvent event) {
     }
     
     private void registerListeners() {
-        server.getEventManager().register(this, new ConnectionListener(server, apiImpl, config, whitelistManager, database));
-        server.getEventManager().register(this, new ProxyPingListener(apiImpl, config));
+        AdmissionEngine<Component> admission = new AdmissionEngine<>(
+            config,
+            maintenanceManager,
+            whitelistManager,
+            timerManager,
+            ComponentSerializer::parse
+        );
+        throttle = new ConnectionThrottle(config, maintenanceManager, database);
+        joinQueue = new JoinQueue<>(config, maintenanceManager, whitelistManager, ComponentSerializer::parse);
+        ConnectionListener connectionListener = new ConnectionListener(server, admission, throttle, joinQueue, config, database);
+        server.getEventManager().register(this, connectionListener);
+        server.getScheduler().buildTask(this, connectionListener::moveHeldPlayers)
+            .repeat(1, TimeUnit.SECONDS)
+            .schedule();
+        
+        serverIcon = new ServerIconCache<>(dataDirectory, Favicon::create, logger::warn);
+        serverIcon.update(config.snapshot());
+        config.addReloadListener(() -> serverIcon.update(config.snapshot()));
+        
+        ProxyPingListener pingListener = new ProxyPingListener(apiImpl, config, serverIcon);
+        maintenanceManager.addListener(pingListener::invalidate);
+        config.addReloadListener(pingListener::invalidate);
+        server.getEventManager().register(this, pingListener);
     }
     
     private void registerCommands() {
@@ -10,15 +10,16 @@
 import com.velocitypowered.api.proxy.ProxyServer;
 import me.d4vide106.maintenance.api.MaintenanceAPI;
 import me.d4vide106.maintenance.api.MaintenanceMode;
-import me.d4vide106.maintenance.api.WhitelistedPlayer;
 import me.d4vide106.maintenance.velocity.util.ComponentSerializer;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.jetbrains.annotations.NotNull;
 
 import java.time.Duration;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -84,6 +85,28 @@ public BrigadierCommand createCommand() {
                     return 1;
                 })
             )
+            // /maintenance server <server> [reason]
+            .then(LiteralArgumentBuilder.<CommandSource>literal("server")
+                .then(RequiredArgumentBuilder.<CommandSource, String>argument("server", StringArgumentType.word())
+                    .suggests((context, builder) -> {
+                        proxy.getAllServers().forEach(server -> builder.suggest(server.getServerInfo().getName()));
+                        return builder.buildFuture();
+                    })
+                    .executes(context -> {
+                        String server = context.getArgument("server", String.class);
+                        handleServer(context.getSource(), server, null);
+                        return 1;
+                    })
+                    .then(RequiredArgumentBuilder.<CommandSource, String>argument("reason", StringArgumentType.greedyString())
+                        .executes(context -> {
+                            String server = context.getArgument("server", String.class);
+                            String reason = context.getArgument("reason", String.class);
+                            handleServer(context.getSource(), server, reason);
+                            return 1;
+                        })
+                    )
+                )
+            )
             // /maintenance whitelist
             .then(LiteralArgumentBuilder.<CommandSource>literal("whitelist")
                 .then(LiteralArgumentBuilder.<CommandSource>literal("add")
@@ -186,6 +209,11 @@ private void handleStatus(@NotNull CommandSource source) {
         source.sendMessage(Component.text("Mode: ", NamedTextColor.GRAY)
             .append(Component.text(mode.name(), NamedTextColor.YELLOW)));
         
+        if (enabled && mode == MaintenanceMode.SERVER_SPECIFIC) {
+            source.sendMessage(Component.text("Servers: ", NamedTextColor.GRAY)
+                .append(Component.text(String.join(", ", api.getMaintenanceServers()), NamedTextColor.WHITE)));
+        }
+        
         if (reason != null) {
             source.sendMessage(Component.text("Reason: ", NamedTextColor.GRAY)
                 .append(Component.text(reason, NamedTextColor.WHITE)));
@@ -198,6 +226,46 @@ private void handleStatus(@NotNull CommandSource source) {
         }
     }
     
+    private void handleServer(@NotNull CommandSource source, @NotNull String server, String reason) {
+        if (api.isMaintenanceEnabled() && api.getMaintenanceMode() != MaintenanceMode.SERVER_SPECIFIC) {
+            source.sendMessage(Component.text("✗ The whole network is already in maintenance", NamedTextColor.RED));
+            return;
+        }
+        
+        String resolvedReason = reason != null ? reason : api.getMaintenanceReason();
+        Set<String> servers = new HashSet<>(api.getMaintenanceServers());
+        
+        // Toggles the server: the last one removed ends server-specific maintenance
+        if (servers.remove(server)) {
+            CompletableFuture<Boolean> result = servers.isEmpty()
+                ? api.disableMaintenance()
+                : api.enableServerMaintenance(servers, resolvedReason);
+            result.thenAccept(success -> {
+                if (success) {
+                    source.sendMessage(Component.text("✓ Maintenance disabled on ", NamedTextColor.GREEN)
+                        .append(Component.text(server, NamedTextColor.WHITE)));
+                } else {
+                    source.sendMessage(Component.text("✗ Failed to disable maintenance on " + server, NamedTextColor.RED));
+                }
+            });
+            return;
+        }
+        
+        if (proxy.getServer(server).isEmpty()) {
+            source.sendMessage(Component.text("✗ Server not found: " + server, NamedTextColor.RED));
+            return;
+        }
+        servers.add(server);
+        api.enableServerMaintenance(servers, resolvedReason).thenAccept(success -> {
+            if (success) {
+                source.sendMessage(Component.text("✓ Maintenance enabled on ", NamedTextColor.GREEN)
+                    .append(Component.text(server, NamedTextColor.WHITE)));
+            } else {
+                source.sendMessage(Component.text("✗ Failed to enable maintenance on " + server, NamedTextColor.RED));
+            }
+        });
+    }
+    
     private void handleWhitelistAdd(@NotNull CommandSource source, @NotNull String playerName, String reason) {
         Optional<Player> player = proxy.getPlayer(playerName);
         if (player.isPresent()) {
@@ -230,11 +298,12 @@ private void handleWhitelistRemove(@NotNull CommandSource source, @NotNull Strin
     }
     
     private void handleWhitelistList(@NotNull CommandSource source) {
-        List<WhitelistedPlayer> players = api.getWhitelistedPlayers();
-        source.sendMessage(Component.text("═══ Whitelisted Players (" + players.size() + ") ═══", NamedTextColor.GOLD));
-        players.forEach(p -> {
-            source.sendMessage(Component.text("• ", NamedTextColor.GRAY)
-                .append(Component.text(p.getName(), NamedTextColor.WHITE)));
+        api.getWhitelistedPlayersAsync().thenAccept(players -> {
+            source.sendMessage(Component.text("═══ Whitelisted Players (" + players.size() + ") ═══", NamedTextColor.GOLD));
+            players.forEach(p -> {
+                source.sendMessage(Component.text("• ", NamedTextColor.GRAY)
+                    .append(Component.text(p.getName(), NamedTextColor.WHITE)));
+            });
         });
     }
     
@@ -264,6 +333,7 @@ private void sendHelp(@NotNull CommandSource source) {
         source.sendMessage(Component.text("/maintenance disable", NamedTextColor.GRAY));
         source.sendMessage(Component.text("/maintenance toggle", NamedTextColor.GRAY));
         source.sendMessage(Component.text("/maintenance status", NamedTextColor.GRAY));
+        source.sendMessage(Component.text("/maintenance server <server> [reason]", NamedTextColor.GRAY));
         source.sendMessage(Component.text("/maintenance whitelist <add|remove|list|clear>", NamedTextColor.GRAY));
         source.sendMessage(Component.text("/maintenance stats", NamedTextColor.GRAY));
         source.sendMessage(Component.text("/maintenance reload", NamedTextColor.GRAY));
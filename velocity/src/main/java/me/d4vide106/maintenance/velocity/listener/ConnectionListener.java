@@ -4,19 +4,25 @@
 import com.velocitypowered.api.event.ResultedEvent;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.connection.PreLoginEvent;
 import com.velocitypowered.api.event.player.ServerPreConnectEvent;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
-import me.d4vide106.maintenance.api.MaintenanceAPI;
+import me.d4vide106.maintenance.config.ConfigSnapshot;
 import me.d4vide106.maintenance.config.MaintenanceConfig;
 import me.d4vide106.maintenance.database.DatabaseProvider;
-import me.d4vide106.maintenance.manager.WhitelistManager;
-import me.d4vide106.maintenance.velocity.util.ComponentSerializer;
+import me.d4vide106.maintenance.manager.AdmissionEngine;
+import me.d4vide106.maintenance.manager.ConnectionThrottle;
+import me.d4vide106.maintenance.manager.JoinQueue;
 import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Listener for player connections during maintenance.
@@ -24,74 +30,173 @@
 public class ConnectionListener {
     
     private final ProxyServer proxy;
-    private final MaintenanceAPI api;
+    private final AdmissionEngine<Component> admission;
+    private final ConnectionThrottle throttle;
+    private final JoinQueue<Component> queue;
     private final MaintenanceConfig config;
-    private final WhitelistManager whitelistManager;
     private final DatabaseProvider database;
+    private final Set<UUID> held = ConcurrentHashMap.newKeySet();
     
     public ConnectionListener(
         @NotNull ProxyServer proxy,
-        @NotNull MaintenanceAPI api,
+        @NotNull AdmissionEngine<Component> admission,
+        @NotNull ConnectionThrottle throttle,
+        @NotNull JoinQueue<Component> queue,
         @NotNull MaintenanceConfig config,
-        @NotNull WhitelistManager whitelistManager,
         @NotNull DatabaseProvider database
     ) {
         this.proxy = proxy;
-        this.api = api;
+        this.admission = admission;
+        this.throttle = throttle;
+        this.queue = queue;
         this.config = config;
-        this.whitelistManager = whitelistManager;
         this.database = database;
     }
     
+    /**
+     * Drops repeat offenders before authentication, the earliest point
+     * Velocity lets a login be denied. Players whose name may be
+     * whitelisted are never dropped, even when they share an address with
+     * repeat offenders.
+     */
     @Subscribe(order = PostOrder.FIRST)
-    public void onLogin(@NotNull LoginEvent event) {
-        if (!api.isMaintenanceEnabled()) {
+    public void onPreLogin(@NotNull PreLoginEvent event) {
+        if (admission.checkName(event.getUsername()) == AdmissionEngine.Verdict.ALLOW) {
             return;
         }
-        
+        if (throttle.throttle(event.getConnection().getRemoteAddress())) {
+            event.setResult(PreLoginEvent.PreLoginComponentResult.denied(admission.kickMessage()));
+        }
+    }
+    
+    @Subscribe(order = PostOrder.FIRST)
+    public void onLogin(@NotNull LoginEvent event) {
         Player player = event.getPlayer();
         
-        // Check bypass permission
-        if (player.hasPermission("maintenance.bypass")) {
+        if (admission.check(player.getUniqueId()) == AdmissionEngine.Verdict.ALLOW) {
             return;
         }
         
-        // Check whitelist
-        if (whitelistManager.isWhitelisted(player.getUniqueId())) {
+        // Check bypass permission
+        if (player.hasPermission(AdmissionEngine.BYPASS_PERMISSION)) {
             return;
         }
         
         // Block login
-        Component kickMessage = ComponentSerializer.parse(config.getKickMessage());
-        event.setResult(ResultedEvent.ComponentResult.denied(kickMessage));
+        event.setResult(ResultedEvent.ComponentResult.denied(admission.kickMessage()));
         
         // Increment blocked connections
         database.incrementConnectionsBlocked();
+        throttle.recordRejection(player.getRemoteAddress());
     }
     
-    @Subscribe(order = PostOrder.NORMAL)
-    public void onServerConnect(@NotNull ServerPreConnectEvent event) {
-        if (!api.isMaintenanceEnabled()) {
+    /**
+     * Paces joins right after maintenance ended. Queued players are held on
+     * the fallback server when one is configured, otherwise they are
+     * disconnected with their position.
+     */
+    @Subscribe(order = PostOrder.EARLY)
+    public void onQueuedLogin(@NotNull LoginEvent event) {
+        if (!event.getResult().isAllowed() || !queue.isPacing()) {
             return;
         }
         
         Player player = event.getPlayer();
+        boolean priority = player.hasPermission(JoinQueue.PRIORITY_PERMISSION)
+            || player.hasPermission(AdmissionEngine.BYPASS_PERMISSION);
+        int position = queue.enqueue(player.getUniqueId(), priority);
+        if (position == 0) {
+            return;
+        }
         
-        // Allow bypass permission
-        if (player.hasPermission("maintenance.bypass")) {
+        if (holdingServer().isPresent()) {
+            held.add(player.getUniqueId());
+            return;
+        }
+        event.setResult(ResultedEvent.ComponentResult.denied(queue.waitingMessage(position)));
+    }
+    
+    /**
+     * Keeps held players on the fallback server until their turn.
+     */
+    @Subscribe(order = PostOrder.EARLY)
+    public void onQueuedServerConnect(@NotNull ServerPreConnectEvent event) {
+        Player player = event.getPlayer();
+        if (!held.contains(player.getUniqueId())) {
+            return;
+        }
+        if (queue.position(player.getUniqueId()) == 0) {
+            held.remove(player.getUniqueId());
+            return;
+        }
+        
+        Optional<RegisteredServer> holding = holdingServer();
+        if (holding.isEmpty() || player.getCurrentServer().isPresent()) {
+            // Already on the holding server: stay there
+            event.setResult(ServerPreConnectEvent.ServerResult.denied());
+            return;
+        }
+        event.setResult(ServerPreConnectEvent.ServerResult.allowed(holding.get()));
+    }
+    
+    /**
+     * Shows held players their position and sends those whose turn came
+     * to the first server of the connection order. Run every second.
+     */
+    public void moveHeldPlayers() {
+        if (held.isEmpty()) {
+            return;
+        }
+        
+        List<String> order = proxy.getConfiguration().getAttemptConnectionOrder();
+        Optional<RegisteredServer> target = order.isEmpty() ? Optional.empty() : proxy.getServer(order.get(0));
+        for (UUID uuid : held) {
+            Optional<Player> player = proxy.getPlayer(uuid);
+            if (player.isEmpty()) {
+                held.remove(uuid);
+                queue.leave(uuid);
+                continue;
+            }
+            
+            int position = queue.position(uuid);
+            if (position > 0) {
+                player.get().sendActionBar(queue.waitingMessage(position));
+                continue;
+            }
+            
+            held.remove(uuid);
+            queue.leave(uuid);
+            target.ifPresent(server -> player.get().createConnectionRequest(server).fireAndForget());
+        }
+    }
+    
+    @NotNull
+    private Optional<RegisteredServer> holdingServer() {
+        ConfigSnapshot settings = config.snapshot();
+        if (!settings.shouldReopenQueueHoldOnFallback() || settings.getFallbackServer() == null) {
+            return Optional.empty();
+        }
+        return proxy.getServer(settings.getFallbackServer());
+    }
+    
+    @Subscribe(order = PostOrder.NORMAL)
+    public void onServerConnect(@NotNull ServerPreConnectEvent event) {
+        Player player = event.getPlayer();
+        String target = event.getOriginalServer().getServerInfo().getName();
+        
+        AdmissionEngine.Verdict verdict = admission.checkServer(player.getUniqueId(), target);
+        if (verdict == AdmissionEngine.Verdict.ALLOW) {
             return;
         }
         
-        // Allow whitelisted players
-        if (whitelistManager.isWhitelisted(player.getUniqueId())) {
+        // Allow bypass permission
+        if (player.hasPermission(AdmissionEngine.BYPASS_PERMISSION)) {
             return;
         }
         
-        // Check if there's a fallback server configured
-        String fallbackName = config.getFallbackServer();
-        if (fallbackName != null && !fallbackName.isEmpty()) {
-            Optional<RegisteredServer> fallback = proxy.getServer(fallbackName);
-            if (fallback.isPresent() && config.shouldKickToFallback()) {
+        if (verdict == AdmissionEngine.Verdict.FALLBACK) {
+            Optional<RegisteredServer> fallback = proxy.getServer(admission.getFallbackServer());
+            if (fallback.isPresent()) {
                 // Redirect to maintenance lobby
                 event.setResult(ServerPreConnectEvent.ServerResult.allowed(fallback.get()));
                 return;
@@ -99,7 +204,6 @@ public void onServerConnect(@NotNull ServerPreConnectEvent event) {
         }
         
         // No fallback or not configured - disconnect
-        Component kickMessage = ComponentSerializer.parse(config.getKickMessage());
-        player.disconnect(kickMessage);
+        player.disconnect(admission.kickMessage());
     }
 }
\ No newline at end of file
@@ -4,27 +4,42 @@
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.proxy.ProxyPingEvent;
 import com.velocitypowered.api.proxy.server.ServerPing;
+import com.velocitypowered.api.util.Favicon;
 import me.d4vide106.maintenance.api.MaintenanceAPI;
+import me.d4vide106.maintenance.config.ConfigSnapshot;
 import me.d4vide106.maintenance.config.MaintenanceConfig;
+import me.d4vide106.maintenance.util.PingResponseCache;
+import me.d4vide106.maintenance.util.ServerIconCache;
+import me.d4vide106.maintenance.util.TimeUtil;
 import me.d4vide106.maintenance.velocity.util.ComponentSerializer;
 import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.time.Duration;
 
 /**
  * Listener for server list ping events during maintenance.
+ * <p>
+ * The maintenance description and version are built once per protocol
+ * version and countdown second, then reused for every following ping.
+ * </p>
  */
 public class ProxyPingListener {
     
     private final MaintenanceAPI api;
     private final MaintenanceConfig config;
+    private final ServerIconCache<Favicon> serverIcon;
+    private final PingResponseCache<PingResponse> responses = new PingResponseCache<>(this::buildResponse);
     
-    public ProxyPingListener(@NotNull MaintenanceAPI api, @NotNull MaintenanceConfig config) {
+    public ProxyPingListener(
+        @NotNull MaintenanceAPI api,
+        @NotNull MaintenanceConfig config,
+        @NotNull ServerIconCache<Favicon> serverIcon
+    ) {
         this.api = api;
         this.config = config;
+        this.serverIcon = serverIcon;
     }
     
     @Subscribe(order = PostOrder.LAST)
@@ -33,39 +48,86 @@ public void onProxyPing(@NotNull ProxyPingEvent event) {
             return;
         }
         
-        if (!config.isCustomMOTDEnabled()) {
+        ConfigSnapshot settings = config.snapshot();
+        if (!settings.isCustomMOTDEnabled()) {
             return;
         }
         
         ServerPing originalPing = event.getPing();
+        PingResponse response = responses.get(
+            settings,
+            originalPing.getVersion().getProtocol(),
+            PingResponseCache.countdownSecond(settings, api)
+        );
+        
         ServerPing.Builder builder = originalPing.asBuilder();
         
         // Custom MOTD
-        Component line1 = ComponentSerializer.parse(config.getMaintenanceMOTDLine1());
-        Component line2 = ComponentSerializer.parse(config.getMaintenanceMOTDLine2());
-        Component motd = line1.append(Component.newline()).append(line2);
-        builder.description(motd);
+        builder.description(response.description);
         
         // Custom version
-        if (config.isCustomVersionEnabled()) {
-            ServerPing.Version version = new ServerPing.Version(
-                originalPing.getVersion().getProtocol(),
-                config.getMaintenanceVersionText()
-            );
-            builder.version(version);
+        if (response.version != null) {
+            builder.version(response.version);
         }
         
         // Custom max players
-        if (config.isCustomMaxPlayersEnabled()) {
-            List<ServerPing.SamplePlayer> sample = originalPing.getPlayers()
-                .map(ServerPing.Players::getSample)
-                .orElse(Collections.emptyList());
-            
-            builder.maximumPlayers(config.getMaintenanceMaxPlayers());
+        if (settings.isCustomMaxPlayersEnabled()) {
+            builder.maximumPlayers(settings.getMaintenanceMaxPlayers());
             builder.onlinePlayers(0);
-            builder.samplePlayers(sample.toArray(new ServerPing.SamplePlayer[0]));
+            builder.clearSamplePlayers();
+        }
+        
+        // Custom server icon
+        if (settings.isCustomIconEnabled()) {
+            Favicon favicon = serverIcon.get();
+            if (favicon != null) {
+                builder.favicon(favicon);
+            }
         }
         
         event.setPing(builder.build());
     }
-}
+    
+    /**
+     * Drops cached responses. Called when maintenance is toggled and after config reloads.
+     */
+    public void invalidate() {
+        responses.invalidate();
+    }
+    
+    @NotNull
+    private PingResponse buildResponse(@NotNull ConfigSnapshot settings, int protocol, long countdownSecond) {
+        Component line1 = ComponentSerializer.parse(applyPlaceholders(settings.getMaintenanceMOTDLine1(), countdownSecond));
+        Component line2 = ComponentSerializer.parse(applyPlaceholders(settings.getMaintenanceMOTDLine2(), countdownSecond));
+        Component motd = line1.append(Component.newline()).append(line2);
+        
+        ServerPing.Version version = null;
+        if (settings.isCustomVersionEnabled()) {
+            version = new ServerPing.Version(
+                protocol,
+                applyPlaceholders(settings.getMaintenanceVersionText(), countdownSecond)
+            );
+        }
+        
+        return new PingResponse(motd, version);
+    }
+    
+    @NotNull
+    private String applyPlaceholders(@NotNull String text, long countdownSecond) {
+        String reason = api.getMaintenanceReason();
+        String duration = countdownSecond >= 0 ? TimeUtil.format(Duration.ofSeconds(countdownSecond)) : "Unknown";
+        return text
+            .replace("{reason}", reason != null ? reason : "Maintenance")
+            .replace("{duration}", duration);
+    }
+    
+    private static final class PingResponse {
+        private final Component description;
+        private final ServerPing.Version version;
+        
+        private PingResponse(@NotNull Component description, @Nullable ServerPing.Version version) {
+            this.description = description;
+            this.version = version;
+        }
+    }
+}
\ No newline at end of file